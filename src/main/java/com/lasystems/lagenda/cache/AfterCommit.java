@@ -0,0 +1,29 @@
+package com.lasystems.lagenda.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Executa uma ação após o commit da transação atual (ou imediatamente, fora de transação).
+ * Usado pelos listeners de invalidação, para que uma leitura concorrente não recoloque
+ * no cache o estado anterior ao commit.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.appointments.AvailabilityChangeEvent;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.models.Appointment;
+import com.lasystems.lagenda.models.enums.AppointmentStatus;
+import com.lasystems.lagenda.service.AvailabilityStreamService;
+import com.lasystems.lagenda.service.FreeSlotCalendarService;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Listener JPA de {@link Appointment}: após o commit, aplica o agendamento ao
+ * {@link FreeSlotCalendar} da empresa e invalida as buscas de disponibilidade cuja
+ * janela inclui o dia do agendamento (e, em remarcações, o dia anterior, que ficou livre).
+ * Os assinantes do stream SSE da empresa recebem o evento correspondente.
+ * As demais instâncias descartam o calendário da empresa via {@link CacheInvalidationBus}.
+ */
+@Component
+public class AppointmentChangeListener {
+
+    private final AvailabilityQueryCache availabilityQueryCache;
+    private final FreeSlotCalendarService freeSlotCalendarService;
+    private final CacheInvalidationBus invalidationBus;
+    private final AvailabilityStreamService availabilityStreamService;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes dos services
+    public AppointmentChangeListener(
+            @Lazy AvailabilityQueryCache availabilityQueryCache,
+            @Lazy FreeSlotCalendarService freeSlotCalendarService,
+            @Lazy CacheInvalidationBus invalidationBus,
+            @Lazy AvailabilityStreamService availabilityStreamService
+    ) {
+        this.availabilityQueryCache = availabilityQueryCache;
+        this.freeSlotCalendarService = freeSlotCalendarService;
+        this.invalidationBus = invalidationBus;
+        this.availabilityStreamService = availabilityStreamService;
+    }
+
+    @PostLoad
+    public void onLoad(Appointment appointment) {
+        appointment.setLoadedStart(appointment.getStart());
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Appointment appointment) {
+        boolean active = appointment.getStatus() == AppointmentStatus.SCHEDULED
+                || appointment.getStatus() == AppointmentStatus.CONFIRMED;
+        handle(appointment, active);
+    }
+
+    @PostRemove
+    public void onRemove(Appointment appointment) {
+        handle(appointment, false);
+    }
+
+    private void handle(Appointment appointment, boolean active) {
+        if (appointment.getCompany() == null || appointment.getStart() == null) {
+            return;
+        }
+
+        UUID companyId = appointment.getCompany().getId();
+        LocalDate day = appointment.getStart().toLocalDate();
+        LocalDate previousDay = appointment.getLoadedStart() != null
+                ? appointment.getLoadedStart().toLocalDate()
+                : day;
+        appointment.setLoadedStart(appointment.getStart());
+
+        UUID appointmentId = appointment.getId();
+        UUID providerId = appointment.getProvider() != null ? appointment.getProvider().getId() : null;
+        BusyIntervalDto interval = active
+                ? new BusyIntervalDto(appointmentId, providerId, appointment.getStart(), appointment.getEnd())
+                : null;
+
+        AfterCommit.run(() -> {
+            if (interval != null) {
+                freeSlotCalendarService.applyBusy(companyId, interval);
+            } else {
+                freeSlotCalendarService.applyReleased(companyId, appointmentId);
+            }
+            availabilityQueryCache.invalidate(companyId, day);
+            availabilityStreamService.publish(new AvailabilityChangeEvent(
+                    active ? AvailabilityChangeEvent.BOOKED : AvailabilityChangeEvent.RELEASED, companyId, providerId, day));
+            if (!previousDay.equals(day)) {
+                availabilityQueryCache.invalidate(companyId, previousDay);
+                availabilityStreamService.publish(new AvailabilityChangeEvent(
+                        AvailabilityChangeEvent.RELEASED, companyId, providerId, previousDay));
+            }
+        });
+        invalidationBus.publish(FreeSlotCalendarService.CACHE_NAME, companyId);
+    }
+}
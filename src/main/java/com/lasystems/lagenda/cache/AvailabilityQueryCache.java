@@ -0,0 +1,144 @@
+package com.lasystems.lagenda.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight das buscas de disponibilidade (next-available e find-best-slot).
+ *
+ * Requisições idênticas simultâneas compartilham um único cálculo em andamento, e o
+ * resultado fica disponível por um TTL curto. Cada entrada conhece a janela de datas
+ * que a busca percorreu; um agendamento gravado nessa janela invalida a entrada
+ * (ver {@link AppointmentChangeListener}).
+ *
+ * O cálculo roda na thread do primeiro chamador; os demais aguardam o mesmo future por
+ * até availability.coalescing.max-wait e, passado esse tempo, calculam por conta própria
+ * (sem guardar no cache). Deve ser chamado fora de transação, para que quem aguarda não
+ * segure uma conexão (ver {@link com.lasystems.lagenda.service.AvailabilitySearchService}).
+ * Se a empresa for invalidada durante o cálculo, o resultado é entregue a quem esperava
+ * mas não fica no cache.
+ */
+@Slf4j
+@Component
+public class AvailabilityQueryCache {
+
+    /**
+     * Identifica uma busca: tipo, empresa, janela de datas percorrida e demais parâmetros.
+     */
+    public record Key(String query, UUID companyId, LocalDate from, LocalDate to, List<Object> params) {
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(from) && !day.isAfter(to);
+        }
+    }
+
+    private final AsyncCache<Key, Object> results;
+    private final ConcurrentMap<UUID, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Duration maxWait;
+
+    public AvailabilityQueryCache(
+            @Value("${availability.coalescing.ttl:5s}") Duration ttl,
+            @Value("${availability.coalescing.max-entries:10000}") long maxEntries,
+            @Value("${availability.coalescing.max-wait:5s}") Duration maxWait
+    ) {
+        this.maxWait = maxWait;
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    /**
+     * Retorna o resultado da busca, calculando-o apenas se não houver outro cálculo
+     * idêntico em andamento ou resultado recente.
+     */
+    public <T> T get(Key key, Supplier<T> compute) {
+        return get(key, compute, value -> true);
+    }
+
+    /**
+     * Como {@link #get(Key, Supplier)}, mas só mantém o resultado após o cálculo se
+     * {@code keep} aceitar (ex.: resultados parciais são entregues a quem esperava e descartados).
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> compute, Predicate<T> keep) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = results.asMap().putIfAbsent(key, mine);
+        if (inFlight != null) {
+            try {
+                return (T) await(inFlight);
+            } catch (TimeoutException e) {
+                log.warn("Busca idêntica em andamento há mais de {}; calculando sem coalescer: {}", maxWait, key);
+                return compute.get();
+            }
+        }
+
+        long generation = generation(key.companyId()).get();
+        try {
+            T value = compute.get();
+            mine.complete(value);
+            // Agendamento gravado durante o cálculo: não reaproveitar este resultado
+            if (generation(key.companyId()).get() != generation || !keep.test(value)) {
+                results.asMap().remove(key, mine);
+            }
+            return value;
+        } catch (Throwable e) {
+            // Future com erro sai do cache; quem estava esperando recebe a mesma exceção
+            mine.completeExceptionally(e);
+            results.asMap().remove(key, mine);
+            throw e;
+        }
+    }
+
+    /**
+     * Invalida as buscas da empresa cuja janela inclui o dia.
+     */
+    public void invalidate(UUID companyId, LocalDate day) {
+        generation(companyId).incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.companyId().equals(companyId) && key.covers(day));
+    }
+
+    /**
+     * Invalida todas as buscas da empresa (ex.: mudança de horários ou fechamentos).
+     */
+    public void invalidateCompany(UUID companyId) {
+        generation(companyId).incrementAndGet();
+        results.asMap().keySet().removeIf(key -> key.companyId().equals(companyId));
+    }
+
+    private AtomicLong generation(UUID companyId) {
+        return generations.computeIfAbsent(companyId, id -> new AtomicLong());
+    }
+
+    private Object await(CompletableFuture<Object> future) throws TimeoutException {
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case RuntimeException cause -> throw cause;
+                case Error cause -> throw cause;
+                default -> throw new IllegalStateException("Falha na busca de disponibilidade", e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando a busca de disponibilidade", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.lasystems.lagenda.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versão da disponibilidade de cada empresa, usada nos ETags das consultas de disponibilidade.
+ *
+ * A versão é incrementada após o commit de qualquer gravação que muda o resultado das buscas
+ * (agendamentos, horários, fechamentos, serviços e prestadores) e quando outra instância
+ * publica uma invalidação da empresa. O contador é local: o ETag inclui uma época aleatória
+ * da instância, então instâncias diferentes geram ETags diferentes (resposta 200 em vez de 304,
+ * nunca 304 indevido).
+ */
+@Component
+public class AvailabilityVersions {
+
+    private volatile String epoch = UUID.randomUUID().toString();
+    private final ConcurrentMap<UUID, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Duration maxAge;
+
+    public AvailabilityVersions(@Value("${availability.http.max-age:5s}") Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Cache-Control das consultas de disponibilidade: vida curta, cacheável por proxies
+     * (que devem variar pela credencial, ver Vary nas respostas).
+     */
+    public CacheControl cacheControl() {
+        return CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    public long current(UUID companyId) {
+        return versions.computeIfAbsent(companyId, id -> new AtomicLong()).get();
+    }
+
+    public void bump(UUID companyId) {
+        versions.computeIfAbsent(companyId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Invalida todos os ETags emitidos (ex.: mensagens de invalidação podem ter sido perdidas).
+     */
+    public void bumpAll() {
+        epoch = UUID.randomUUID().toString();
+    }
+
+    /**
+     * ETag forte da consulta: versão da empresa, data de hoje (as buscas partem de hoje)
+     * e parâmetros normalizados da requisição.
+     */
+    public String etag(UUID companyId, Object... params) {
+        StringBuilder source = new StringBuilder()
+                .append(epoch).append('|')
+                .append(companyId).append('|')
+                .append(current(companyId)).append('|')
+                .append(LocalDate.now());
+        for (Object param : params) {
+            source.append('|').append(param);
+        }
+        return "\"" + HexFormat.of().formatHex(sha256(source.toString()), 0, 16) + "\"";
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.config.ReplicaReadPins;
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.dtos.appointments.AvailabilityChangeEvent;
+import com.lasystems.lagenda.service.AvailabilityStreamService;
+import com.lasystems.lagenda.service.CompanyClosureService;
+import com.lasystems.lagenda.service.CompanyScheduleService;
+import com.lasystems.lagenda.service.FreeSlotCalendarService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Barramento de invalidação entre instâncias via PostgreSQL NOTIFY.
+ *
+ * As escritas publicam (cache, chave) com pg_notify na própria transação: o PostgreSQL só
+ * entrega a notificação após o commit (e a descarta no rollback), então as outras instâncias
+ * nunca invalidam antes de o novo estado estar visível. Cada instância recebe as mensagens
+ * por {@link CacheInvalidationListener} e remove as entradas locais; as mensagens da própria
+ * instância são ignoradas (a invalidação local já foi feita pelos listeners JPA).
+ *
+ * Com shards por empresa, a notificação sai pelo shard da transação corrente e o
+ * listener escuta todos eles. O nome {@link TenantShardMap#INVALIDATION_NAME} não é um
+ * cache: recarrega o mapa de shards. Nomes com {@link #ENTITY_PREFIX} removem a entidade
+ * (pelo id) do cache de segundo nível do Hibernate.
+ *
+ * Com réplica de leitura, toda invalidação (publicada ou recebida) prende as leituras da
+ * empresa ao primário por max-lag ({@link ReplicaReadPins}), para a recarga não voltar ao
+ * cache com o estado anterior à escrita.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationBus {
+
+    /**
+     * Chave que limpa o cache inteiro.
+     */
+    public static final String ALL_KEYS = "*";
+
+    /**
+     * Prefixo das mensagens do cache de segundo nível: "entity:Service" com o id da entidade.
+     */
+    public static final String ENTITY_PREFIX = "entity:";
+
+    private static final String SEPARATOR = "|";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+    private final EntityManagerFactory entityManagerFactory;
+    private final AvailabilityVersions availabilityVersions;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final TenantShardMap tenantShardMap;
+    private final ObjectProvider<ReplicaReadPins> replicaReadPins;
+    private final String channel;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            CacheManager cacheManager,
+            EntityManagerFactory entityManagerFactory,
+            AvailabilityVersions availabilityVersions,
+            AvailabilityStreamService availabilityStreamService,
+            TenantShardMap tenantShardMap,
+            ObjectProvider<ReplicaReadPins> replicaReadPins,
+            @Value("${cache.invalidation.channel:lagenda_cache_invalidation}") String channel,
+            @Value("${cache.invalidation.enabled:true}") boolean enabled
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheManager = cacheManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.availabilityVersions = availabilityVersions;
+        this.availabilityStreamService = availabilityStreamService;
+        this.tenantShardMap = tenantShardMap;
+        this.replicaReadPins = replicaReadPins;
+        this.channel = channel;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Publica a invalidação de uma entrada para as demais instâncias.
+     * Dentro de transação, a entrega acontece no commit; fora dela, imediatamente.
+     * Também avança, após o commit, a versão de disponibilidade local da empresa.
+     */
+    public void publish(String cacheName, Object key) {
+        if (key instanceof UUID companyId && !cacheName.startsWith(ENTITY_PREFIX)) {
+            AfterCommit.run(() -> availabilityVersions.bump(companyId));
+        }
+        if (!TenantShardMap.INVALIDATION_NAME.equals(cacheName)) {
+            AfterCommit.run(() -> pinReads(cacheName, key));
+        }
+        if (!enabled) {
+            return;
+        }
+        String payload = nodeId + SEPARATOR + cacheName + SEPARATOR + key;
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+    }
+
+    /**
+     * Aplica uma mensagem recebida do canal (formato: nodeId|cache|chave).
+     */
+    void onMessage(String payload) {
+        String[] parts = payload.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("Mensagem de invalidação inválida: {}", payload);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        if (TenantShardMap.INVALIDATION_NAME.equals(parts[1])) {
+            tenantShardMap.reload();
+            return;
+        }
+        // Antes de remover: a próxima leitura já recarrega do primário
+        pinReads(parts[1], parseKey(parts[2]));
+        if (parts[1].startsWith(ENTITY_PREFIX)) {
+            evictEntityLocal(parts[1].substring(ENTITY_PREFIX.length()), parts[2]);
+            return;
+        }
+
+        for (String cacheName : withDependents(parts[1])) {
+            evictLocal(cacheName, parts[2]);
+        }
+        if (parseKey(parts[2]) instanceof UUID companyId) {
+            availabilityVersions.bump(companyId);
+            // Gravação em outra instância: sem detalhe de prestador/dia
+            availabilityStreamService.publish(new AvailabilityChangeEvent(
+                    AvailabilityChangeEvent.CHANGED, companyId, null, null));
+        }
+    }
+
+    /**
+     * O cache informado seguido dos caches montados a partir dele: a agenda embute o
+     * calendário de fechamentos, e os horários livres embutem a agenda.
+     */
+    public static List<String> withDependents(String cacheName) {
+        return switch (cacheName) {
+            case CompanyClosureService.CACHE_NAME -> List.of(
+                    cacheName, CompanyScheduleService.CACHE_NAME, FreeSlotCalendarService.CACHE_NAME);
+            case CompanyScheduleService.CACHE_NAME -> List.of(cacheName, FreeSlotCalendarService.CACHE_NAME);
+            default -> List.of(cacheName);
+        };
+    }
+
+    /**
+     * Limpa todos os caches locais, inclusive o de segundo nível do Hibernate, e relê o mapa
+     * de shards. Usado quando o canal cai ou volta, já que mensagens podem ter sido perdidas
+     * enquanto a instância não escutava.
+     */
+    void clearAllLocal(String reason) {
+        replicaReadPins.ifAvailable(ReplicaReadPins::pinAll);
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class).evictAllRegions();
+        availabilityVersions.bumpAll();
+        if (tenantShardMap.isEnabled()) {
+            try {
+                tenantShardMap.reload();
+            } catch (RuntimeException e) {
+                // Banco fora junto com o canal: a recarga periódica e a da reconexão cobrem
+                log.warn("Falha ao recarregar o mapa de shards: {}", e.getMessage());
+            }
+        }
+        log.warn("Caches locais limpos: {}", reason);
+    }
+
+    String getChannel() {
+        return channel;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prende ao primário a empresa da invalidação; entidades e chaves que não são empresa
+     * (ex.: {@link #ALL_KEYS}) prendem todas.
+     */
+    private void pinReads(String cacheName, Object key) {
+        replicaReadPins.ifAvailable(pins -> {
+            if (key instanceof UUID companyId && !cacheName.startsWith(ENTITY_PREFIX)) {
+                pins.pin(companyId);
+            } else {
+                pins.pinAll();
+            }
+        });
+    }
+
+    private void evictLocal(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (ALL_KEYS.equals(key)) {
+            cache.clear();
+        } else {
+            cache.evict(parseKey(key));
+        }
+        log.debug("Invalidação remota: {} / {}", cacheName, key);
+    }
+
+    /**
+     * Remove a entidade do cache de segundo nível. As coleções de Company e os resultados
+     * de query podem contê-la e não são indexados pelo id dela, então saem inteiros.
+     */
+    private void evictEntityLocal(String entityName, String key) {
+        entityManagerFactory.getMetamodel().getEntities().stream()
+                .filter(type -> type.getName().equals(entityName))
+                .findFirst()
+                .ifPresentOrElse(type -> {
+                    org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+                    cache.evictEntityData(type.getJavaType(), parseKey(key));
+                    cache.evictCollectionData();
+                    cache.evictQueryRegions();
+                    cache.evictDefaultQueryRegion();
+                    log.debug("Invalidação remota (segundo nível): {} / {}", entityName, key);
+                }, () -> log.warn("Entidade desconhecida na invalidação: {}", entityName));
+    }
+
+    // Os caches por empresa usam UUID como chave; os demais, a própria string
+    private static Object parseKey(String key) {
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return key;
+        }
+    }
+}
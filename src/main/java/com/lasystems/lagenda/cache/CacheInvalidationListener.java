@@ -0,0 +1,173 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.config.TenantShardProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém uma conexão dedicada (fora do pool Hikari) em LISTEN no canal de invalidação
+ * e repassa as mensagens para {@link CacheInvalidationBus}.
+ *
+ * Se a conexão cair, os caches locais são limpos (mensagens podem ter sido perdidas)
+ * e a conexão é refeita com backoff; ao voltar a escutar, limpa novamente, cobrindo
+ * o que foi carregado enquanto a instância estava desconectada.
+ *
+ * Com shards por empresa ({@code datasource.shards.pools.*}) há uma conexão e uma thread
+ * por shard, já que cada escrita notifica pelo banco em que aconteceu.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener {
+
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final CacheInvalidationBus bus;
+    private final List<Target> targets = new ArrayList<>();
+    private final int pollMillis;
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public CacheInvalidationListener(
+            CacheInvalidationBus bus,
+            DataSourceProperties dataSourceProperties,
+            TenantShardProperties shardProperties,
+            @Value("${cache.invalidation.poll-millis:10000}") int pollMillis
+    ) {
+        this.bus = bus;
+        this.pollMillis = pollMillis;
+
+        targets.add(new Target(
+                TenantShardMap.DEFAULT_SHARD,
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword()
+        ));
+        shardProperties.getPools().forEach((name, pool) -> targets.add(new Target(
+                name,
+                pool.getUrl(),
+                pool.getUsername() != null ? pool.getUsername() : dataSourceProperties.determineUsername(),
+                pool.getPassword() != null ? pool.getPassword() : dataSourceProperties.determinePassword()
+        )));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!bus.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        for (Target target : targets) {
+            String name = targets.size() == 1
+                    ? "cache-invalidation-listener"
+                    : "cache-invalidation-listener-" + target.shard();
+            Thread worker = new Thread(() -> listenLoop(target), name);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        connections.values().forEach(CacheInvalidationListener::closeQuietly);
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void listenLoop(Target target) {
+        long backoff = 1_000;
+        boolean connectedBefore = false;
+
+        while (running) {
+            try (Connection conn = connect(target)) {
+                connections.put(target.shard(), conn);
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + bus.getChannel());
+                }
+                if (connectedBefore) {
+                    bus.clearAllLocal("canal de invalidação reconectado");
+                }
+                connectedBefore = true;
+                backoff = 1_000;
+                log.info("Escutando invalidações de cache no canal {} (shard {})", bus.getChannel(), target.shard());
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications == null || notifications.length == 0) {
+                        // Sem mensagens: confirma que a conexão continua viva
+                        try (Statement ping = conn.createStatement()) {
+                            ping.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            bus.onMessage(notification.getParameter());
+                        } catch (RuntimeException e) {
+                            log.error("Erro ao aplicar invalidação de cache: {}", notification.getParameter(), e);
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Conexão de invalidação de cache perdida (shard {}): {}", target.shard(), e.getMessage());
+                if (connectedBefore) {
+                    bus.clearAllLocal("canal de invalidação indisponível");
+                }
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } finally {
+                connections.remove(target.shard());
+            }
+        }
+    }
+
+    private static Connection connect(Target target) throws SQLException {
+        return DriverManager.getConnection(target.url(), target.username(), target.password());
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // encerrando
+        }
+    }
+
+    private record Target(String shard, String url, String username, String password) {
+    }
+}
@@ -0,0 +1,169 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.config.TenantContext;
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pré-carrega, após a subida, os caches por empresa (fechamentos, agenda, catálogo e
+ * prestadores) das empresas com agendamentos recentes, para que as primeiras requisições
+ * depois de um deploy não paguem todos os misses de uma vez.
+ *
+ * Roda com paralelismo limitado (cada carga usa uma conexão do pool por vez) e com prazo
+ * máximo; o estado é exposto no health "cacheWarmup", que faz parte do grupo readiness.
+ */
+@Slf4j
+@Component
+public class CacheWarmup {
+
+    public enum State { PENDING, RUNNING, DONE, TIMED_OUT, DISABLED }
+
+    private final AppointmentRepository appointmentRepository;
+    private final TenantShardMap shardMap;
+    private final CacheManager cacheManager;
+    private final List<CompanyCacheLoader> loaders;
+    private final boolean enabled;
+    private final int parallelism;
+    private final int maxCompanies;
+    private final int activeDays;
+    private final Duration timeout;
+
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile State state = State.PENDING;
+    private volatile int total;
+
+    public CacheWarmup(
+            AppointmentRepository appointmentRepository,
+            TenantShardMap shardMap,
+            CacheManager cacheManager,
+            List<CompanyCacheLoader> loaders,
+            @Value("${cache.warmup.enabled:true}") boolean enabled,
+            @Value("${cache.warmup.parallelism:2}") int parallelism,
+            @Value("${cache.warmup.max-companies:500}") int maxCompanies,
+            @Value("${cache.warmup.active-days:30}") int activeDays,
+            @Value("${cache.warmup.timeout:60s}") Duration timeout
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.shardMap = shardMap;
+        this.cacheManager = cacheManager;
+        this.loaders = loaders;
+        this.enabled = enabled;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxCompanies = maxCompanies;
+        this.activeDays = activeDays;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Dispara o warm-up em background, sem atrasar a subida.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        Thread thread = new Thread(this::run, "cache-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void run() {
+        state = State.RUNNING;
+        long startedAt = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread worker = new Thread(runnable, "cache-warmup-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+
+        try {
+            LocalDateTime since = LocalDateTime.now(ZoneOffset.UTC).minusDays(activeDays);
+            // Uma consulta por shard: cada um só conhece as próprias empresas
+            List<UUID> companyIds = new ArrayList<>();
+            shardMap.forEachShard(shard -> companyIds.addAll(
+                    appointmentRepository.findRecentlyActiveCompanyIds(since, Limit.of(maxCompanies))));
+            total = companyIds.size();
+            log.info("Warm-up de cache: {} empresas ativas, paralelismo {}", total, parallelism);
+
+            CompletableFuture<?>[] futures = companyIds.stream()
+                    .map(companyId -> CompletableFuture.runAsync(() -> warm(companyId), executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(futures).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+            state = State.DONE;
+        } catch (TimeoutException e) {
+            state = State.TIMED_OUT;
+            log.warn("Warm-up de cache interrompido pelo prazo de {}", timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.TIMED_OUT;
+        } catch (ExecutionException | RuntimeException e) {
+            // Falha no warm-up não impede a instância de atender: os caches carregam sob demanda
+            state = State.DONE;
+            log.error("Erro no warm-up de cache", e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.info("Warm-up de cache finalizado ({}): {}/{} empresas em {} ms ({} falhas)",
+                state, warmed.get(), total, (System.nanoTime() - startedAt) / 1_000_000, failed.get());
+    }
+
+    // A agenda usa o calendário de fechamentos em cache, então a ordem dos loaders não importa
+    private void warm(UUID companyId) {
+        TenantContext.Handle tenant = TenantContext.enterTenant(companyId);
+        try {
+            for (CompanyCacheLoader loader : loaders) {
+                Cache cache = Objects.requireNonNull(cacheManager.getCache(loader.cacheName()));
+                cache.get(companyId, () -> loader.load(companyId));
+            }
+            warmed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Falha no warm-up da empresa {}: {}", companyId, e.getMessage());
+        } finally {
+            tenant.close();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public int getWarmed() {
+        return warmed.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lasystems.lagenda.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health "cacheWarmup": OUT_OF_SERVICE enquanto o warm-up roda, UP quando termina
+ * (ou quando o prazo estoura). Incluído no grupo readiness.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheWarmupHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmup cacheWarmup;
+
+    @Override
+    public Health health() {
+        CacheWarmup.State state = cacheWarmup.getState();
+        Health.Builder builder = switch (state) {
+            case PENDING, RUNNING -> Health.outOfService();
+            case DONE, TIMED_OUT, DISABLED -> Health.up();
+        };
+        return builder
+                .withDetail("state", state)
+                .withDetail("warmed", cacheWarmup.getWarmed())
+                .withDetail("failed", cacheWarmup.getFailed())
+                .withDetail("total", cacheWarmup.getTotal())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.models.Company;
+import com.lasystems.lagenda.models.Service;
+import com.lasystems.lagenda.models.ServiceSpecialties;
+import com.lasystems.lagenda.service.ServiceCatalogService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Listener JPA de {@link Service} e {@link ServiceSpecialties}: invalida o
+ * {@link ServiceCatalog} da empresa após o commit que altera o catálogo.
+ */
+@Component
+public class CatalogChangeListener {
+
+    private final ServiceCatalogService serviceCatalogService;
+    private final CacheInvalidationBus invalidationBus;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes dos services
+    public CatalogChangeListener(
+            @Lazy ServiceCatalogService serviceCatalogService,
+            @Lazy CacheInvalidationBus invalidationBus
+    ) {
+        this.serviceCatalogService = serviceCatalogService;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Company company = switch (entity) {
+            case Service service -> service.getCompany();
+            case ServiceSpecialties link -> link.getCompany();
+            default -> null;
+        };
+        if (company == null || company.getId() == null) {
+            return;
+        }
+
+        UUID companyId = company.getId();
+        AfterCommit.run(() -> serviceCatalogService.evict(companyId));
+        invalidationBus.publish(ServiceCatalogService.CACHE_NAME, companyId);
+    }
+}
@@ -0,0 +1,143 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.models.CompanyClosure;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Calendário imutável de fechamentos de uma empresa, indexado por data.
+ *
+ * Os fechamentos ficam em arrays ordenados por (dia, início), com a faixa em segundos do dia
+ * (inclusiva). A busca do dia é binária, então tanto a verificação de um horário quanto a
+ * pergunta "há fechamento entre D1 e D2?" custam O(log n), sem acesso ao banco.
+ */
+public final class ClosureCalendar implements Weighted {
+
+    private static final int LAST_SECOND_OF_DAY = 24 * 60 * 60 - 1;
+
+    public static final ClosureCalendar EMPTY = new ClosureCalendar(new long[0], new int[0], new int[0], new int[0]);
+
+    private final long[] days;
+    private final int[] startSeconds;
+    private final int[] endSeconds;
+
+    // fullDayPrefix[i] = quantidade de fechamentos de dia inteiro em [0, i)
+    private final int[] fullDayPrefix;
+
+    private ClosureCalendar(long[] days, int[] startSeconds, int[] endSeconds, int[] fullDayPrefix) {
+        this.days = days;
+        this.startSeconds = startSeconds;
+        this.endSeconds = endSeconds;
+        this.fullDayPrefix = fullDayPrefix;
+    }
+
+    /**
+     * Monta o calendário a partir das entidades carregadas do banco.
+     */
+    public static ClosureCalendar of(Collection<CompanyClosure> closures) {
+        List<CompanyClosure> sorted = closures.stream()
+                .filter(c -> c.getDate() != null)
+                .sorted(Comparator.comparing(CompanyClosure::getDate)
+                        .thenComparing(c -> c.getStartTime() != null ? c.getStartTime() : LocalTime.MIN))
+                .toList();
+
+        if (sorted.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] days = new long[sorted.size()];
+        int[] starts = new int[sorted.size()];
+        int[] ends = new int[sorted.size()];
+        int[] fullDayPrefix = new int[sorted.size() + 1];
+
+        for (int i = 0; i < sorted.size(); i++) {
+            CompanyClosure closure = sorted.get(i);
+            days[i] = closure.getDate().toEpochDay();
+
+            // Mesma regra de CompanyClosure.overlapsWith: sem horário = dia inteiro (00:00 - 23:59:59)
+            boolean fullDay = closure.getStartTime() == null || closure.getEndTime() == null;
+            if (fullDay) {
+                starts[i] = 0;
+                ends[i] = LAST_SECOND_OF_DAY;
+            } else {
+                starts[i] = closure.getStartTime().toSecondOfDay();
+                ends[i] = closure.getEndTime().toSecondOfDay();
+            }
+            fullDayPrefix[i + 1] = fullDayPrefix[i] + (fullDay ? 1 : 0);
+        }
+
+        return new ClosureCalendar(days, starts, ends, fullDayPrefix);
+    }
+
+    /**
+     * Verifica se algum fechamento do dia de start se sobrepõe ao período.
+     * Mesma regra de CompanyClosure.overlapsWith (limites inclusivos, apenas o dia de start).
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        long day = start.toLocalDate().toEpochDay();
+        int startSecond = start.toLocalTime().toSecondOfDay();
+        int endSecond = end.toLocalDate().toEpochDay() == day
+                ? end.toLocalTime().toSecondOfDay()
+                : Integer.MAX_VALUE;
+
+        for (int i = lowerBound(day); i < days.length && days[i] == day; i++) {
+            if (endSecond >= startSeconds[i] && startSecond <= endSeconds[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica se existe qualquer fechamento (parcial ou de dia inteiro) entre as datas, inclusive.
+     */
+    public boolean hasClosureBetween(LocalDate from, LocalDate to) {
+        int index = lowerBound(from.toEpochDay());
+        return index < days.length && days[index] <= to.toEpochDay();
+    }
+
+    /**
+     * Quantidade de fechamentos de dia inteiro entre as datas, inclusive.
+     */
+    public int countFullDayClosuresBetween(LocalDate from, LocalDate to) {
+        int first = lowerBound(from.toEpochDay());
+        int last = lowerBound(to.toEpochDay() + 1);
+        return fullDayPrefix[last] - fullDayPrefix[first];
+    }
+
+    /**
+     * Indica se a empresa está fechada o dia inteiro na data.
+     */
+    public boolean isClosedAllDay(LocalDate date) {
+        return countFullDayClosuresBetween(date, date) > 0;
+    }
+
+    @Override
+    public int weight() {
+        return size() + 1;
+    }
+
+    public int size() {
+        return days.length;
+    }
+
+    // Primeiro índice com days[i] >= day (ou days.length)
+    private int lowerBound(long day) {
+        int low = 0;
+        int high = days.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,116 @@
+package com.lasystems.lagenda.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Endpoint de administração dos caches (/actuator/companycaches), restrito à authority caches:admin.
+ *
+ * GET    /actuator/companycaches               tamanho e estatísticas de cada cache
+ * GET    /actuator/companycaches/{companyId}   caches que têm a empresa carregada
+ * DELETE /actuator/companycaches/{companyId}   invalida a empresa (opcionalmente ?cache=nome)
+ * DELETE /actuator/companycaches?cache=nome    limpa um cache inteiro
+ *
+ * As invalidações são repassadas às demais instâncias por {@link CacheInvalidationBus}.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "companycaches")
+@RequiredArgsConstructor
+public class CompanyCacheEndpoint {
+
+    private final CacheManager cacheManager;
+    private final CacheInvalidationBus invalidationBus;
+
+    @ReadOperation
+    public Map<String, CacheStats> caches() {
+        Map<String, CacheStats> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                result.put(name, CacheStats.of(caffeineCache.getNativeCache()));
+            }
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public List<String> cachesForCompany(@Selector UUID companyId) {
+        List<String> names = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            // getIfPresent no cache nativo: Cache.get de um LoadingCache carregaria a empresa
+            if (cache instanceof CaffeineCache caffeineCache
+                    && caffeineCache.getNativeCache().getIfPresent(companyId) != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    @DeleteOperation
+    public List<String> evictCompany(@Selector UUID companyId, @Nullable String cache) {
+        List<String> names = cache != null
+                ? CacheInvalidationBus.withDependents(cache)
+                : new ArrayList<>(cacheManager.getCacheNames());
+
+        List<String> evicted = new ArrayList<>();
+        for (String name : names) {
+            Cache target = cacheManager.getCache(name);
+            if (target != null) {
+                target.evict(companyId);
+                invalidationBus.publish(name, companyId);
+                evicted.add(name);
+            }
+        }
+        log.info("Caches {} invalidados para a empresa {}", evicted, companyId);
+        return evicted;
+    }
+
+    @DeleteOperation
+    public void clear(String cache) {
+        Cache target = cacheManager.getCache(cache);
+        if (target == null) {
+            throw new IllegalArgumentException("Cache não encontrado: " + cache);
+        }
+        target.clear();
+        invalidationBus.publish(cache, CacheInvalidationBus.ALL_KEYS);
+        log.info("Cache {} limpo", cache);
+    }
+
+    public record CacheStats(
+            long size,
+            long hits,
+            long misses,
+            double hitRate,
+            long evictions,
+            double averageLoadPenaltyMillis
+    ) {
+        static CacheStats of(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            com.github.benmanes.caffeine.cache.stats.CacheStats stats = cache.stats();
+            return new CacheStats(
+                    cache.estimatedSize(),
+                    stats.hitCount(),
+                    stats.missCount(),
+                    stats.hitRate(),
+                    stats.evictionCount(),
+                    stats.averageLoadPenalty() / 1_000_000.0
+            );
+        }
+    }
+}
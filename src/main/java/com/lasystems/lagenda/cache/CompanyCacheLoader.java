@@ -0,0 +1,21 @@
+package com.lasystems.lagenda.cache;
+
+import java.util.UUID;
+
+/**
+ * Carregador de um cache indexado por empresa.
+ * Usado pelo refreshAfterWrite (recarga em background, servindo o valor antigo enquanto isso)
+ * e pelo endpoint de administração para saber quais caches são por empresa.
+ */
+public interface CompanyCacheLoader {
+
+    /**
+     * Nome do cache carregado.
+     */
+    String cacheName();
+
+    /**
+     * Carrega do banco o valor da empresa.
+     */
+    Object load(UUID companyId);
+}
@@ -0,0 +1,162 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import com.lasystems.lagenda.models.BusinessHour;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Snapshot imutável da agenda semanal de uma empresa.
+ *
+ * Horários comerciais ficam como faixas [início, fim] em minutos do dia por dia da semana
+ * (0=Domingo ... 6=Sábado, mesmo formato do banco) e os fechamentos no {@link ClosureCalendar}
+ * da empresa. Verificar um horário são buscas em arrays, sem acesso ao banco nem alocação.
+ */
+public final class CompanySchedule implements Weighted {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int[] EMPTY = new int[0];
+
+    private final UUID companyId;
+
+    // openRanges[dia] = {início0, fim0, início1, fim1, ...} em minutos do dia, ordenado
+    private final int[][] openRanges;
+
+    private final ClosureCalendar closures;
+
+    // Templates de slots por duração: slotTemplates.get(duração)[dia] = inícios em minutos do dia
+    private final ConcurrentMap<Integer, int[][]> slotTemplates = new ConcurrentHashMap<>();
+
+    private CompanySchedule(UUID companyId, int[][] openRanges, ClosureCalendar closures) {
+        this.companyId = companyId;
+        this.openRanges = openRanges;
+        this.closures = closures;
+    }
+
+    /**
+     * Compila o snapshot a partir das entidades carregadas do banco.
+     */
+    public static CompanySchedule compile(
+            UUID companyId,
+            Collection<BusinessHour> businessHours,
+            ClosureCalendar closures
+    ) {
+        int[][] openRanges = new int[7][];
+        for (int day = 0; day < 7; day++) {
+            final int dayOfWeek = day;
+            openRanges[day] = businessHours.stream()
+                    .filter(bh -> bh.getDayOfWeek() != null && bh.getDayOfWeek() == dayOfWeek)
+                    .sorted(Comparator.comparing(BusinessHour::getStartTime))
+                    .flatMapToInt(bh -> Arrays.stream(new int[]{
+                            toMinuteOfDay(bh.getStartTime()), toMinuteOfDay(bh.getEndTime())}))
+                    .toArray();
+        }
+
+        return new CompanySchedule(companyId, openRanges, closures);
+    }
+
+    public UUID getCompanyId() {
+        return companyId;
+    }
+
+    /**
+     * Verifica se o período está dentro de alguma faixa de horário comercial do dia de start.
+     * Considera apenas o horário (como a verificação original com LocalTime).
+     */
+    public boolean isWithinBusinessHours(LocalDateTime start, LocalDateTime end) {
+        int[] ranges = openRanges[toDayOfWeek(start.toLocalDate())];
+        int startSecond = start.toLocalTime().toSecondOfDay();
+        int endSecond = end.toLocalTime().toSecondOfDay();
+
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (startSecond >= ranges[i] * 60 && endSecond <= ranges[i + 1] * 60) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Verifica se algum fechamento do dia de start se sobrepõe ao período.
+     * Mesma regra de CompanyClosure.overlapsWith (limites inclusivos, apenas o dia de start).
+     */
+    public boolean isClosed(LocalDateTime start, LocalDateTime end) {
+        return closures.overlaps(start, end);
+    }
+
+    /**
+     * Indica se a empresa está fechada o dia inteiro na data (nenhum slot pode ser usado).
+     */
+    public boolean isClosedAllDay(LocalDate date) {
+        return closures.isClosedAllDay(date);
+    }
+
+    public ClosureCalendar getClosures() {
+        return closures;
+    }
+
+    /**
+     * Horários de início possíveis (minutos do dia) para a duração informada no dia da semana,
+     * em ordem crescente. O template é calculado uma vez por duração e reutilizado.
+     */
+    public int[] slotStarts(int dayOfWeek, int durationMinutes) {
+        return slotTemplates.computeIfAbsent(durationMinutes, this::buildSlotTemplate)[dayOfWeek];
+    }
+
+    /**
+     * Indica se a empresa tem horário comercial no dia da semana.
+     */
+    public boolean isOpenOn(int dayOfWeek) {
+        return openRanges[dayOfWeek].length > 0;
+    }
+
+    private int[][] buildSlotTemplate(int durationMinutes) {
+        int[][] template = new int[7][];
+        for (int day = 0; day < 7; day++) {
+            int[] ranges = openRanges[day];
+            if (ranges.length == 0) {
+                template[day] = EMPTY;
+                continue;
+            }
+
+            int[] buffer = new int[(MINUTES_PER_DAY / AppointmentsConstants.SLOT_INTERVAL_MINUTES + 1) * (ranges.length / 2)];
+            int count = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                for (int slot = ranges[i];
+                     slot + durationMinutes <= ranges[i + 1];
+                     slot += AppointmentsConstants.SLOT_INTERVAL_MINUTES) {
+                    buffer[count++] = slot;
+                }
+            }
+
+            int[] slots = Arrays.copyOf(buffer, count);
+            Arrays.sort(slots);
+            template[day] = slots;
+        }
+        return template;
+    }
+
+    /**
+     * Dia da semana no formato do banco (0=Domingo ... 6=Sábado).
+     */
+    public static int toDayOfWeek(LocalDate date) {
+        return date.getDayOfWeek().getValue() % 7;
+    }
+
+    private static int toMinuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    @Override
+    public int weight() {
+        return closures.size() + 1;
+    }
+}
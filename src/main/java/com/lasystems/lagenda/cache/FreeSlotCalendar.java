@@ -0,0 +1,203 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Calendário materializado de horários livres de uma empresa, em um horizonte de dias
+ * a partir de {@link #getHorizonStart()}.
+ *
+ * Guarda os períodos ocupados (agendamentos ativos) indexados por dia e materializa, sob
+ * demanda e uma única vez por (dia, duração), a lista de inícios livres da empresa,
+ * partindo dos templates de slots do {@link CompanySchedule}. A mesma regra da busca
+ * ao vivo: um horário é livre se nenhum agendamento ativo da empresa o sobrepõe.
+ *
+ * Imutável: agendamentos gravados geram uma nova instância ({@link #withBusy},
+ * {@link #withoutAppointment}) que reaproveita o que foi materializado nos dias não afetados.
+ */
+public final class FreeSlotCalendar implements Weighted {
+
+    private final UUID companyId;
+    private final CompanySchedule schedule;
+    private final LocalDate horizonStart;
+    private final int horizonDays;
+    private final Instant builtAt;
+
+    private final Map<UUID, BusyIntervalDto> busyById;
+    private final Map<LocalDate, List<BusyIntervalDto>> busyByDay;
+
+    // Materialização por (dia, duração): chave = epochDay << 16 | duração
+    private final ConcurrentMap<Long, List<LocalTime>> freeSlots;
+
+    private FreeSlotCalendar(
+            UUID companyId,
+            CompanySchedule schedule,
+            LocalDate horizonStart,
+            int horizonDays,
+            Instant builtAt,
+            Map<UUID, BusyIntervalDto> busyById,
+            ConcurrentMap<Long, List<LocalTime>> freeSlots
+    ) {
+        this.companyId = companyId;
+        this.schedule = schedule;
+        this.horizonStart = horizonStart;
+        this.horizonDays = horizonDays;
+        this.builtAt = builtAt;
+        this.busyById = busyById;
+        this.busyByDay = indexByDay(busyById.values());
+        this.freeSlots = freeSlots;
+    }
+
+    /**
+     * Monta o calendário a partir dos agendamentos ativos do horizonte.
+     */
+    public static FreeSlotCalendar of(
+            UUID companyId,
+            CompanySchedule schedule,
+            LocalDate horizonStart,
+            int horizonDays,
+            Collection<BusyIntervalDto> busy
+    ) {
+        Map<UUID, BusyIntervalDto> busyById = new LinkedHashMap<>();
+        busy.forEach(interval -> busyById.put(interval.appointmentId(), interval));
+        return new FreeSlotCalendar(companyId, schedule, horizonStart, horizonDays, Instant.now(),
+                Collections.unmodifiableMap(busyById), new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Inclui (ou substitui, em remarcações) o período de um agendamento ativo.
+     */
+    public FreeSlotCalendar withBusy(BusyIntervalDto interval) {
+        Map<UUID, BusyIntervalDto> busy = new LinkedHashMap<>(busyById);
+        BusyIntervalDto previous = busy.put(interval.appointmentId(), interval);
+
+        Set<LocalDate> affected = new HashSet<>(daysOf(interval));
+        if (previous != null) {
+            affected.addAll(daysOf(previous));
+        }
+        return copy(busy, affected);
+    }
+
+    /**
+     * Remove o período de um agendamento cancelado, concluído ou excluído.
+     */
+    public FreeSlotCalendar withoutAppointment(UUID appointmentId) {
+        BusyIntervalDto previous = busyById.get(appointmentId);
+        if (previous == null) {
+            return this;
+        }
+        Map<UUID, BusyIntervalDto> busy = new LinkedHashMap<>(busyById);
+        busy.remove(appointmentId);
+        return copy(busy, new HashSet<>(daysOf(previous)));
+    }
+
+    /**
+     * Indica se o dia está dentro do horizonte materializado.
+     */
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(horizonStart) && date.isBefore(horizonStart.plusDays(horizonDays));
+    }
+
+    /**
+     * Inícios livres da empresa no dia para a duração, em ordem crescente.
+     * O dia deve estar no horizonte ({@link #covers(LocalDate)}).
+     */
+    public List<LocalTime> freeSlots(LocalDate date, int durationMinutes) {
+        return freeSlots.computeIfAbsent(slotKey(date, durationMinutes),
+                key -> computeFreeSlots(date, durationMinutes));
+    }
+
+    public UUID getCompanyId() {
+        return companyId;
+    }
+
+    public LocalDate getHorizonStart() {
+        return horizonStart;
+    }
+
+    /**
+     * Momento da última carga completa a partir do banco.
+     */
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    @Override
+    public int weight() {
+        return busyById.size() + freeSlots.size() + 1;
+    }
+
+    private List<LocalTime> computeFreeSlots(LocalDate date, int durationMinutes) {
+        int[] slotStarts = schedule.slotStarts(CompanySchedule.toDayOfWeek(date), durationMinutes);
+        List<BusyIntervalDto> dayBusy = busyByDay.getOrDefault(date, List.of());
+
+        List<LocalTime> free = new ArrayList<>(slotStarts.length);
+        for (int minuteOfDay : slotStarts) {
+            LocalTime time = LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+            LocalDateTime start = date.atTime(time);
+            LocalDateTime end = start.plusMinutes(durationMinutes);
+            if (isFree(dayBusy, start, end)) {
+                free.add(time);
+            }
+        }
+        return Collections.unmodifiableList(free);
+    }
+
+    private static boolean isFree(List<BusyIntervalDto> dayBusy, LocalDateTime start, LocalDateTime end) {
+        for (BusyIntervalDto interval : dayBusy) {
+            if (interval.overlaps(start, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FreeSlotCalendar copy(Map<UUID, BusyIntervalDto> busy, Set<LocalDate> affectedDays) {
+        ConcurrentMap<Long, List<LocalTime>> kept = new ConcurrentHashMap<>(freeSlots);
+        kept.keySet().removeIf(key -> affectedDays.contains(LocalDate.ofEpochDay(key >> 16)));
+        return new FreeSlotCalendar(companyId, schedule, horizonStart, horizonDays, builtAt,
+                Collections.unmodifiableMap(busy), kept);
+    }
+
+    private static long slotKey(LocalDate date, int durationMinutes) {
+        return date.toEpochDay() << 16 | durationMinutes;
+    }
+
+    // Um período que atravessa a meia-noite ocupa os dois dias
+    private static List<LocalDate> daysOf(BusyIntervalDto interval) {
+        List<LocalDate> days = new ArrayList<>(2);
+        LocalDate day = interval.start().toLocalDate();
+        LocalDate last = interval.end().minusNanos(1).toLocalDate();
+        while (!day.isAfter(last)) {
+            days.add(day);
+            day = day.plusDays(1);
+        }
+        return days;
+    }
+
+    private static Map<LocalDate, List<BusyIntervalDto>> indexByDay(Collection<BusyIntervalDto> busy) {
+        Map<LocalDate, List<BusyIntervalDto>> byDay = new HashMap<>();
+        for (BusyIntervalDto interval : busy) {
+            for (LocalDate day : daysOf(interval)) {
+                byDay.computeIfAbsent(day, d -> new ArrayList<>()).add(interval);
+            }
+        }
+        return byDay;
+    }
+}
@@ -0,0 +1,95 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.providers.ProviderDirectoryRowDto;
+import com.lasystems.lagenda.dtos.providers.ProviderSpecialtyRowDto;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Diretório imutável de prestadores de uma empresa.
+ *
+ * Os prestadores recebem índices densos (0..n-1) e cada especialidade guarda um {@link BitSet}
+ * com os prestadores habilitados: "prestadores da especialidade S" é uma leitura do mapa,
+ * sem join no banco.
+ */
+public final class ProviderDirectory implements Weighted {
+
+    private static final BitSet NONE = new BitSet(0);
+
+    private final UUID[] ids;
+    private final String[] calendarIds;
+    private final Map<UUID, Integer> indexById;
+    private final Map<UUID, BitSet> providersBySpecialty;
+
+    private ProviderDirectory(UUID[] ids, String[] calendarIds,
+                              Map<UUID, Integer> indexById, Map<UUID, BitSet> providersBySpecialty) {
+        this.ids = ids;
+        this.calendarIds = calendarIds;
+        this.indexById = indexById;
+        this.providersBySpecialty = providersBySpecialty;
+    }
+
+    /**
+     * Monta o diretório a partir das linhas de prestadores (na ordem recebida) e de especialidades.
+     */
+    public static ProviderDirectory of(List<ProviderDirectoryRowDto> providers, List<ProviderSpecialtyRowDto> specialties) {
+        int size = providers.size();
+        UUID[] ids = new UUID[size];
+        String[] calendarIds = new String[size];
+        Map<UUID, Integer> indexById = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            ProviderDirectoryRowDto row = providers.get(i);
+            ids[i] = row.id();
+            calendarIds[i] = row.calendarId();
+            indexById.put(row.id(), i);
+        }
+
+        Map<UUID, BitSet> providersBySpecialty = new HashMap<>();
+        for (ProviderSpecialtyRowDto row : specialties) {
+            Integer index = indexById.get(row.providerId());
+            if (index != null) {
+                providersBySpecialty.computeIfAbsent(row.specialtyId(), id -> new BitSet(size)).set(index);
+            }
+        }
+
+        return new ProviderDirectory(ids, calendarIds, Map.copyOf(indexById), Map.copyOf(providersBySpecialty));
+    }
+
+    /**
+     * Prestadores habilitados na especialidade (cópia, pode ser alterada pelo chamador).
+     */
+    public BitSet qualifiedFor(UUID specialtyId) {
+        return (BitSet) providersBySpecialty.getOrDefault(specialtyId, NONE).clone();
+    }
+
+    /**
+     * Ids dos prestadores marcados no bitset, na ordem do diretório.
+     */
+    public List<UUID> providerIds(BitSet providers) {
+        List<UUID> result = new ArrayList<>(providers.cardinality());
+        for (int i = providers.nextSetBit(0); i >= 0; i = providers.nextSetBit(i + 1)) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    public String getCalendarId(UUID providerId) {
+        Integer index = indexById.get(providerId);
+        return index != null ? calendarIds[index] : null;
+    }
+
+    @Override
+    public int weight() {
+        return size() + 1;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+}
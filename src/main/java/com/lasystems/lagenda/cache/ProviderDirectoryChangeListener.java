@@ -0,0 +1,51 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.models.Company;
+import com.lasystems.lagenda.models.Provider;
+import com.lasystems.lagenda.models.ProviderSpecialist;
+import com.lasystems.lagenda.service.ProviderDirectoryService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Listener JPA de {@link Provider} e {@link ProviderSpecialist}: invalida o
+ * {@link ProviderDirectory} da empresa após o commit que altera prestadores ou especialidades.
+ */
+@Component
+public class ProviderDirectoryChangeListener {
+
+    private final ProviderDirectoryService providerDirectoryService;
+    private final CacheInvalidationBus invalidationBus;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes dos services
+    public ProviderDirectoryChangeListener(
+            @Lazy ProviderDirectoryService providerDirectoryService,
+            @Lazy CacheInvalidationBus invalidationBus
+    ) {
+        this.providerDirectoryService = providerDirectoryService;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Company company = switch (entity) {
+            case Provider provider -> provider.getCompany();
+            case ProviderSpecialist link -> link.getCompany();
+            default -> null;
+        };
+        if (company == null || company.getId() == null) {
+            return;
+        }
+
+        UUID companyId = company.getId();
+        AfterCommit.run(() -> providerDirectoryService.evict(companyId));
+        invalidationBus.publish(ProviderDirectoryService.CACHE_NAME, companyId);
+    }
+}
@@ -0,0 +1,82 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.appointments.AvailabilityChangeEvent;
+import com.lasystems.lagenda.models.BusinessHour;
+import com.lasystems.lagenda.models.Company;
+import com.lasystems.lagenda.models.CompanyClosure;
+import com.lasystems.lagenda.service.AvailabilityStreamService;
+import com.lasystems.lagenda.service.CompanyClosureService;
+import com.lasystems.lagenda.service.CompanyScheduleService;
+import com.lasystems.lagenda.service.FreeSlotCalendarService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Listener JPA de {@link BusinessHour} e {@link CompanyClosure}: invalida o
+ * {@link CompanySchedule} (e, para fechamentos, o {@link ClosureCalendar}) da empresa
+ * após o commit que altera os dados de agenda.
+ */
+@Component
+public class ScheduleChangeListener {
+
+    private final CompanyScheduleService companyScheduleService;
+    private final CompanyClosureService companyClosureService;
+    private final CacheInvalidationBus invalidationBus;
+    private final AvailabilityQueryCache availabilityQueryCache;
+    private final FreeSlotCalendarService freeSlotCalendarService;
+    private final AvailabilityStreamService availabilityStreamService;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes dos services
+    public ScheduleChangeListener(
+            @Lazy CompanyScheduleService companyScheduleService,
+            @Lazy CompanyClosureService companyClosureService,
+            @Lazy CacheInvalidationBus invalidationBus,
+            @Lazy AvailabilityQueryCache availabilityQueryCache,
+            @Lazy FreeSlotCalendarService freeSlotCalendarService,
+            @Lazy AvailabilityStreamService availabilityStreamService
+    ) {
+        this.companyScheduleService = companyScheduleService;
+        this.companyClosureService = companyClosureService;
+        this.invalidationBus = invalidationBus;
+        this.availabilityQueryCache = availabilityQueryCache;
+        this.freeSlotCalendarService = freeSlotCalendarService;
+        this.availabilityStreamService = availabilityStreamService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Company company = switch (entity) {
+            case BusinessHour businessHour -> businessHour.getCompany();
+            case CompanyClosure closure -> closure.getCompany();
+            default -> null;
+        };
+        if (company == null || company.getId() == null) {
+            return;
+        }
+
+        UUID companyId = company.getId();
+        boolean closureChanged = entity instanceof CompanyClosure;
+        AfterCommit.run(() -> evict(companyId, closureChanged));
+        // As demais instâncias recompõem a agenda a partir dos fechamentos
+        invalidationBus.publish(closureChanged ? CompanyClosureService.CACHE_NAME : CompanyScheduleService.CACHE_NAME, companyId);
+    }
+
+    // O calendário de fechamentos sai antes do snapshot, que é recompilado a partir dele
+    private void evict(UUID companyId, boolean closureChanged) {
+        if (closureChanged) {
+            companyClosureService.evict(companyId);
+        }
+        companyScheduleService.evict(companyId);
+        freeSlotCalendarService.evict(companyId);
+        availabilityQueryCache.invalidateCompany(companyId);
+        availabilityStreamService.publish(new AvailabilityChangeEvent(
+                AvailabilityChangeEvent.SCHEDULE, companyId, null, null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.models.Company;
+import com.lasystems.lagenda.models.Plan;
+import com.lasystems.lagenda.models.Provider;
+import com.lasystems.lagenda.models.Service;
+import com.lasystems.lagenda.models.Specialist;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA das entidades com cache de segundo nível: publica a entidade alterada no
+ * {@link CacheInvalidationBus} para que as outras instâncias a removam do cache do
+ * Hibernate. Na própria instância o Hibernate já atualiza o cache no commit.
+ */
+@Component
+public class SecondLevelCacheChangeListener {
+
+    private final CacheInvalidationBus invalidationBus;
+
+    // Lazy: o listener é criado junto com o EntityManagerFactory, antes do barramento
+    public SecondLevelCacheChangeListener(@Lazy CacheInvalidationBus invalidationBus) {
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Object id = switch (entity) {
+            case Plan plan -> plan.getId();
+            case Company company -> company.getId();
+            case Specialist specialist -> specialist.getId();
+            case Service service -> service.getId();
+            case Provider provider -> provider.getId();
+            default -> null;
+        };
+        if (id == null) {
+            return;
+        }
+
+        invalidationBus.publish(CacheInvalidationBus.ENTITY_PREFIX + Hibernate.getClass(entity).getSimpleName(), id);
+    }
+}
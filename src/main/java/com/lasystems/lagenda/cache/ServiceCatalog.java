@@ -0,0 +1,140 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.services.ServiceCatalogRowDto;
+import com.lasystems.lagenda.dtos.services.ServiceSpecialtyRowDto;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Catálogo imutável de serviços de uma empresa: duração, preço, nome e especialidades.
+ * Substitui as consultas de duração total, preço total e especialidade comum
+ * feitas a cada criação, alteração ou busca de horário.
+ *
+ * Ids desconhecidos (de outra empresa ou removidos) são ignorados, como no SUM/IN das queries originais.
+ */
+public final class ServiceCatalog implements Weighted {
+
+    /**
+     * Dados de um serviço do catálogo.
+     */
+    public record Entry(
+            UUID id,
+            String name,
+            BigDecimal price,
+            Integer durationMinutes,
+            Set<UUID> specialtyIds
+    ) {
+    }
+
+    private final Map<UUID, Entry> entries;
+
+    private ServiceCatalog(Map<UUID, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Monta o catálogo a partir das linhas de serviços e de vínculos com especialidades.
+     */
+    public static ServiceCatalog of(List<ServiceCatalogRowDto> services, List<ServiceSpecialtyRowDto> specialties) {
+        Map<UUID, Set<UUID>> specialtiesByService = new HashMap<>();
+        for (ServiceSpecialtyRowDto row : specialties) {
+            specialtiesByService.computeIfAbsent(row.serviceId(), id -> new LinkedHashSet<>()).add(row.specialtyId());
+        }
+
+        Map<UUID, Entry> entries = new HashMap<>(services.size() * 2);
+        for (ServiceCatalogRowDto row : services) {
+            entries.put(row.id(), new Entry(
+                    row.id(),
+                    row.name(),
+                    row.price(),
+                    row.durationMinutes(),
+                    Set.copyOf(specialtiesByService.getOrDefault(row.id(), Set.of()))
+            ));
+        }
+
+        return new ServiceCatalog(Map.copyOf(entries));
+    }
+
+    public Optional<Entry> find(UUID serviceId) {
+        return Optional.ofNullable(entries.get(serviceId));
+    }
+
+    /**
+     * Soma das durações dos serviços (ids repetidos contam uma vez).
+     *
+     * @return total em minutos, ou null se nenhum serviço tiver duração (como o SUM do banco)
+     */
+    public Integer totalDuration(Collection<UUID> serviceIds) {
+        Integer total = null;
+        for (UUID id : distinct(serviceIds)) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.durationMinutes() != null) {
+                total = (total == null ? 0 : total) + entry.durationMinutes();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Soma dos preços dos serviços (ids repetidos contam uma vez; preços nulos são ignorados).
+     */
+    public BigDecimal totalPrice(Collection<UUID> serviceIds) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (UUID id : distinct(serviceIds)) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.price() != null) {
+                total = total.add(entry.price());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Especialidade mais frequente entre os serviços (mesmo critério de
+     * ServiceRepository.findCommonSpecialtyForServices).
+     *
+     * @return id da especialidade, ou null se nenhum serviço tiver especialidade
+     */
+    public UUID commonSpecialtyId(Collection<UUID> serviceIds) {
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (UUID id : distinct(serviceIds)) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                entry.specialtyIds().forEach(specialtyId -> counts.merge(specialtyId, 1, Integer::sum));
+            }
+        }
+
+        UUID best = null;
+        int bestCount = 0;
+        for (Map.Entry<UUID, Integer> count : counts.entrySet()) {
+            if (count.getValue() > bestCount) {
+                best = count.getKey();
+                bestCount = count.getValue();
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int weight() {
+        return size() + 1;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static Set<UUID> distinct(Collection<UUID> serviceIds) {
+        return serviceIds instanceof Set<UUID> set ? set : new LinkedHashSet<>(serviceIds);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.cache;
+
+/**
+ * Valor de cache com peso aproximado, usado quando o cache é limitado por maximumWeight.
+ */
+public interface Weighted {
+
+    /**
+     * Peso relativo da entrada (ex.: quantidade de itens do snapshot), no mínimo 1.
+     */
+    int weight();
+}
@@ -0,0 +1,150 @@
+package com.lasystems.lagenda.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controle de admissão das requisições HTTP, dimensionado pelo pool de conexões.
+ * <p>
+ * Com o pool do Hikari pequeno, deixar todas as requisições entrarem só move a fila
+ * para o getConnection (segurando thread e, no Tomcat com threads de plataforma,
+ * esgotando o pool de workers). Aqui no máximo {@code admission.max-concurrent}
+ * requisições executam ao mesmo tempo; as demais esperam no semáforo (barato com
+ * virtual threads) até {@code admission.queue-timeout}. Quando já há
+ * {@code admission.max-queued} esperando, ou o prazo estoura, a resposta é 503 com
+ * Retry-After.
+ * <p>
+ * Roda antes do Spring Security: a validação da API Key também vai ao banco.
+ * Health do actuator fica de fora para o orquestrador enxergar a instância ocupada.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final boolean enabled;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public AdmissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${admission.enabled:true}") boolean enabled,
+            @Value("${admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${admission.max-queued:200}") int maxQueued,
+            @Value("${admission.queue-timeout:2s}") Duration queueTimeout
+    ) {
+        this.enabled = enabled;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+        this.permits = new Semaphore(maxConcurrent, true);
+
+        Gauge.builder("http.admission.in_flight", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Requisições admitidas em execução")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.queued", queued, AtomicInteger::get)
+                .description("Requisições aguardando admissão")
+                .register(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("http.admission.rejected")
+                .description("Requisições recusadas com 503 pelo controle de admissão")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("http.admission.rejected")
+                .description("Requisições recusadas com 503 pelo controle de admissão")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info("Controle de admissão: {} simultâneas, até {} na fila por no máximo {}",
+                    maxConcurrent, maxQueued, queueTimeout);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/health") || path.startsWith("/actuator/health");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        if (!permits.tryAcquire()) {
+            if (!awaitPermit(request, response)) {
+                return;
+            }
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Espera por uma vaga; responde 503 e retorna false se não conseguir.
+     */
+    private boolean awaitPermit(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            reject(request, response, "fila cheia");
+            return false;
+        }
+
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        if (!acquired) {
+            rejectedTimeout.increment();
+            reject(request, response, "tempo de espera esgotado");
+        }
+        return acquired;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String reason) throws IOException {
+        log.debug("Requisição {} {} recusada: {}", request.getMethod(), request.getRequestURI(), reason);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Server busy, retry later\"}");
+    }
+}
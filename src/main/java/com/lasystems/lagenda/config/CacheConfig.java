@@ -1,50 +1,78 @@
 package com.lasystems.lagenda.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
+import com.lasystems.lagenda.cache.Weighted;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.UUID;
 
 /**
  * Configuração de cache para melhorar performance.
- * Usa Caffeine como provider de cache.
+ * Usa Caffeine como provider de cache, com uma spec por cache (ver {@link CacheSpecProperties}).
  *
- * IMPORTANTE: Certifique-se de ter as seguintes dependências no pom.xml:
- * - spring-boot-starter-cache
- * - caffeine (com.github.ben-manes.caffeine)
+ * Todos os caches registram estatísticas; o Spring Boot Actuator as publica no Micrometer
+ * (cache.gets hit/miss, cache.evictions, cache.size, cache.load.duration) para os caches
+ * existentes na subida.
  */
+@Slf4j
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
 public class CacheConfig {
 
     /**
      * Configura o gerenciador de cache com Caffeine.
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "businessHours",
-                "companyClosures",
-                "providers",
-                "specialties"
-        );
+    public CacheManager cacheManager(
+            CacheSpecProperties properties,
+            ObjectProvider<CompanyCacheLoader> loaders
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(caffeineCacheBuilder(properties.getDefaultSpec()));
 
-        cacheManager.setCaffeine(caffeineCacheBuilder());
+        properties.getSpecs().forEach((name, spec) -> {
+            cacheManager.registerCustomCache(name, buildCache(name, spec, loaders));
+            log.info("Cache {} configurado: {}", name, spec);
+        });
 
         return cacheManager;
     }
 
     /**
-     * Configura o builder do Caffeine com políticas de expiração.
+     * Configura o builder do Caffeine a partir da spec (com estatísticas sempre ligadas).
      */
-    Caffeine<Object, Object> caffeineCacheBuilder() {
-        return Caffeine.newBuilder()
-                .maximumSize(500)
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .recordStats();
+    Caffeine<Object, Object> caffeineCacheBuilder(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec).recordStats();
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((key, value) -> value instanceof Weighted weighted ? Math.max(1, weighted.weight()) : 1);
+        }
+        return builder;
     }
-}
\ No newline at end of file
+
+    private Cache<Object, Object> buildCache(String name, String spec, ObjectProvider<CompanyCacheLoader> loaders) {
+        Caffeine<Object, Object> builder = caffeineCacheBuilder(spec);
+        if (!spec.contains("refreshAfterWrite")) {
+            return builder.build();
+        }
+
+        // refreshAfterWrite: a entrada antiga continua sendo servida enquanto a recarga
+        // roda em background. O loader é resolvido na primeira recarga (os services
+        // dependem do CacheManager). A recarga roda fora da requisição, então o shard
+        // vem da própria chave (a empresa).
+        return builder.build(key -> TenantContext.callAsTenant((UUID) key, () -> loaders.orderedStream()
+                .filter(loader -> loader.cacheName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Sem carregador para o cache " + name))
+                .load((UUID) key)));
+    }
+}
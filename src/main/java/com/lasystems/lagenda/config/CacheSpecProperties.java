@@ -0,0 +1,33 @@
+package com.lasystems.lagenda.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Especificações Caffeine por cache (prefixo "cache").
+ *
+ * Cada valor segue o formato do CaffeineSpec, por exemplo:
+ * cache.specs.companySchedules=maximumSize=2000,expireAfterAccess=6h,refreshAfterWrite=15m
+ *
+ * Suporta maximumSize ou maximumWeight (peso via {@link com.lasystems.lagenda.cache.Weighted}),
+ * expireAfterWrite ou expireAfterAccess e refreshAfterWrite (recarga em background).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecProperties {
+
+    /**
+     * Spec dos caches não listados em specs.
+     */
+    private String defaultSpec = "maximumSize=500,expireAfterWrite=1h";
+
+    /**
+     * Spec por nome de cache.
+     */
+    private Map<String, String> specs = new LinkedHashMap<>();
+}
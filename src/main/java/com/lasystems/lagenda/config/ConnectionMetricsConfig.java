@@ -0,0 +1,32 @@
+package com.lasystems.lagenda.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instala o {@link EndpointMetricsTrackerFactory} no pool Hikari antes de ele iniciar.
+ * Com um tracker já definido, o actuator não registra o seu; as métricas hikaricp.*
+ * continuam vindo do tracker delegado.
+ */
+@Configuration
+public class ConnectionMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor endpointConnectionMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari
+                        && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    hikari.setMetricsTrackerFactory(new EndpointMetricsTrackerFactory(meterRegistry));
+                }
+                return bean;
+            }
+        };
+    }
+}
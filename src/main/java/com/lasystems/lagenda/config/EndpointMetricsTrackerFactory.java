@@ -0,0 +1,107 @@
+package com.lasystems.lagenda.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas do Hikari por endpoint: além das métricas padrão (hikaricp.*), registra a
+ * espera para obter conexão ({@code db.connection.acquire}) e o tempo com a conexão em
+ * mãos ({@code db.connection.hold}), marcados com o padrão da rota ({@code uri}) e o
+ * método HTTP da requisição corrente.
+ * <p>
+ * O Hikari chama o tracker na própria thread que pega/devolve a conexão, então a
+ * requisição é lida do RequestContextHolder. Fora de requisição (jobs, warm-up) a rota
+ * é NONE; antes do mapeamento do handler (ex.: validação da API Key) é UNKNOWN.
+ */
+public class EndpointMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    static final String NO_REQUEST = "NONE";
+    static final String UNMAPPED = "UNKNOWN";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public EndpointMetricsTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        // Chamado só quando o pool inicia, com o registry já disponível
+        MeterRegistry registry = meterRegistry.getObject();
+        IMetricsTracker delegate = new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+        return new EndpointMetricsTracker(delegate, registry, poolName);
+    }
+
+    private static final class EndpointMetricsTracker implements IMetricsTracker {
+
+        private final IMetricsTracker delegate;
+        private final MeterRegistry registry;
+        private final String poolName;
+
+        EndpointMetricsTracker(IMetricsTracker delegate, MeterRegistry registry, String poolName) {
+            this.delegate = delegate;
+            this.registry = registry;
+            this.poolName = poolName;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            timer("db.connection.acquire", "Espera para obter conexão do pool, por endpoint")
+                    .record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            timer("db.connection.hold", "Tempo com a conexão fora do pool, por endpoint")
+                    .record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            delegate.recordConnectionTimeout();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        private Timer timer(String name, String description) {
+            String uri = NO_REQUEST;
+            String method = NO_REQUEST;
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes instanceof ServletRequestAttributes servletAttributes) {
+                Object pattern = servletAttributes.getRequest()
+                        .getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                uri = pattern != null ? pattern.toString() : UNMAPPED;
+                method = servletAttributes.getRequest().getMethod();
+            }
+
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("pool", poolName)
+                    .tag("uri", uri)
+                    .tag("method", method)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.lasystems.lagenda.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource com réplica de leitura, ativo quando datasource.replica.url está definida.
+ * <p>
+ * Substitui o DataSource do Spring Boot por um {@link ReplicaRoutingDataSource} atrás de
+ * um {@link LazyConnectionDataSourceProxy}. O pool primário continua configurado em
+ * spring.datasource.* e o da réplica em datasource.replica.hikari.*. Flyway, JPA e
+ * JdbcTemplate usam o DataSource roteado; fora de transação readOnly tudo vai ao primário.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, ReplicaProperties replica) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword())
+                .build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaProperties replica
+    ) {
+        return new ReplicaLagMonitor(replicaDataSource, replica.getMaxLag());
+    }
+
+    @Bean
+    public ReplicaReadPins replicaReadPins(ReplicaProperties replica) {
+        return new ReplicaReadPins(replica.getMaxLag());
+    }
+
+    @Bean
+    public ReplicaHealthIndicator replicaHealthIndicator(ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaHealthIndicator(replicaLagMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("replicaDataSource") DataSource replicaDataSource,
+            ReplicaLagMonitor replicaLagMonitor,
+            ReplicaReadPins replicaReadPins,
+            ReplicaProperties replica
+    ) {
+        replica.validate();
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                replicaLagMonitor, replicaReadPins, replica.getReadYourWrites());
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,33 @@
+package com.lasystems.lagenda.config;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Health "replica": UP com as leituras na réplica, DEGRADED quando voltaram ao primário
+ * (a aplicação segue atendendo; ver management.endpoint.health.status.*).
+ */
+public class ReplicaHealthIndicator implements HealthIndicator {
+
+    static final Status DEGRADED = new Status("DEGRADED", "Leituras no primário");
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicaHealthIndicator(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = lagMonitor.isReplicaUsable()
+                ? Health.up().withDetail("routing", "replica")
+                : Health.status(DEGRADED).withDetail("routing", "primary");
+        builder.withDetail("lagSeconds", lagMonitor.getLagSeconds())
+                .withDetail("maxLagSeconds", lagMonitor.getMaxLag().toSeconds());
+        if (lagMonitor.getLastError() != null) {
+            builder.withDetail("reason", lagMonitor.getLastError());
+        }
+        return builder.build();
+    }
+}
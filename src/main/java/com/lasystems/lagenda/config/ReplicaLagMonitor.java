@@ -0,0 +1,105 @@
+package com.lasystems.lagenda.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Mede periodicamente o atraso de replicação da réplica de leitura e decide se ela
+ * pode receber leituras. Até a primeira medição, ou se a réplica não responder ou
+ * passar de {@code datasource.replica.max-lag}, as leituras vão para o primário.
+ * <p>
+ * Métricas: {@code db.replica.lag} (segundos) e {@code db.replica.usable} (1/0).
+ */
+@Slf4j
+public class ReplicaLagMonitor implements MeterBinder {
+
+    /**
+     * Atraso em segundos; 0 sem WAL pendente ou fora de recovery (ex.: réplica lógica),
+     * NULL se a réplica nunca aplicou uma transação.
+     */
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END
+            """;
+
+    private static final int QUERY_TIMEOUT_SECONDS = 2;
+
+    private final JdbcTemplate replicaJdbc;
+    private final Duration maxLag;
+
+    private volatile boolean usable;
+    private volatile double lagSeconds = Double.NaN;
+    private volatile String lastError = "ainda não verificada";
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag) {
+        this.replicaJdbc = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbc.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-millis:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replicaJdbc.queryForObject(LAG_QUERY, Double.class);
+            if (lag == null) {
+                lagSeconds = Double.NaN;
+                usable = false;
+                lastError = "réplica sem transações aplicadas";
+            } else {
+                lagSeconds = lag;
+                usable = lag * 1000 <= maxLag.toMillis();
+                lastError = usable ? null : String.format("atraso de %.1fs acima de %ss", lag, maxLag.toSeconds());
+            }
+        } catch (RuntimeException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            lastError = e.getMessage();
+        }
+
+        if (wasUsable != usable) {
+            if (usable) {
+                log.info("Réplica de leitura disponível (atraso {}s)", lagSeconds);
+            } else {
+                log.warn("Leituras voltando ao primário: {}", lastError);
+            }
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Duration getMaxLag() {
+        return maxLag;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Atraso de replicação da réplica de leitura")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("db.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+                .description("1 se as leituras estão indo para a réplica, 0 se voltaram ao primário")
+                .register(registry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.lasystems.lagenda.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Réplica de leitura (prefixo "datasource.replica").
+ *
+ * Só é usada quando datasource.replica.url está definida; usuário e senha, se omitidos,
+ * são os do primário. O pool da réplica é configurado em datasource.replica.hikari.*.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReplicaProperties {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    /**
+     * Atraso máximo de replicação aceito; acima disso as leituras voltam ao primário.
+     */
+    private Duration maxLag = Duration.ofSeconds(10);
+
+    /**
+     * Janela em que as leituras da empresa que acabou de gravar ficam no primário.
+     * Zero desliga o read-your-writes; se ligado, não pode ser menor que maxLag, senão a
+     * empresa volta à réplica enquanto ela ainda pode estar sem a escrita.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(15);
+
+    /**
+     * Recusa na subida uma janela de read-your-writes menor que o atraso aceito.
+     */
+    public void validate() {
+        boolean enabled = !readYourWrites.isZero() && !readYourWrites.isNegative();
+        if (enabled && readYourWrites.compareTo(maxLag) < 0) {
+            throw new IllegalStateException(String.format(
+                    "datasource.replica.read-your-writes (%s) menor que datasource.replica.max-lag (%s)",
+                    readYourWrites, maxLag));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lasystems.lagenda.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Empresas cujas leituras ficam no primário por {@code datasource.replica.max-lag} depois
+ * de uma invalidação de cache, nesta instância ou em outra.
+ * <p>
+ * Os caches por empresa e o de segundo nível recarregam em transações readOnly: sem isso,
+ * a instância que recebeu a invalidação relê da réplica o estado anterior à escrita e o
+ * mantém em cache até a próxima expiração. Invalidações sem empresa (entidades, limpeza
+ * geral, canal reconectado) prendem todas as empresas.
+ */
+public class ReplicaReadPins {
+
+    private final Duration window;
+    private final Cache<UUID, Boolean> tenants;
+    private volatile long allUntilNanos = System.nanoTime();
+
+    public ReplicaReadPins(Duration window) {
+        this.window = window;
+        this.tenants = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    public void pin(UUID companyId) {
+        tenants.put(companyId, Boolean.TRUE);
+    }
+
+    public void pinAll() {
+        allUntilNanos = System.nanoTime() + window.toNanos();
+    }
+
+    /**
+     * Se as leituras da empresa (null fora de requisição) devem ir ao primário.
+     */
+    public boolean isPinned(UUID companyId) {
+        if (System.nanoTime() - allUntilNanos < 0) {
+            return true;
+        }
+        return companyId != null && tenants.getIfPresent(companyId) != null;
+    }
+}
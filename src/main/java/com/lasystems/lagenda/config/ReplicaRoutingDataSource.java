@@ -0,0 +1,75 @@
+package com.lasystems.lagenda.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Envia transações readOnly para a réplica e o resto para o primário.
+ * <p>
+ * Precisa ficar atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * o gerenciador de transação pede a conexão antes de marcar a transação como readOnly,
+ * e o proxy só busca a conexão real no primeiro comando, quando a marcação já existe.
+ * <p>
+ * Leituras voltam ao primário quando {@link ReplicaLagMonitor} considera a réplica
+ * indisponível, quando a empresa está presa ao primário após uma invalidação de cache
+ * ({@link ReplicaReadPins}) e, com read-your-writes ligado, quando a empresa autenticada
+ * abriu uma transação de escrita dentro da janela configurada.
+ * <p>
+ * Os destinos ({@link Target}) são definidos por quem cria a instância, seguido de
+ * afterPropertiesSet (ver {@link ReplicaDataSourceConfig}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReplicaReadPins readPins;
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReplicaReadPins readPins, Duration readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readPins = readPins;
+        this.recentWriters = readYourWrites.isZero() || readYourWrites.isNegative()
+                ? null
+                : Caffeine.newBuilder().expireAfterWrite(readYourWrites).build();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID tenant = currentTenant();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (tenant != null && recentWriters != null
+                    && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recentWriters.put(tenant, Boolean.TRUE);
+            }
+            return Target.PRIMARY;
+        }
+
+        if (!lagMonitor.isReplicaUsable() || readPins.isPinned(tenant)) {
+            return Target.PRIMARY;
+        }
+        if (tenant != null && recentWriters != null && recentWriters.getIfPresent(tenant) != null) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+
+    /**
+     * Empresa da requisição corrente (principal da API Key) ou do escopo aberto em
+     * {@link TenantContext} (warm-up, recarga em background); null fora dos dois.
+     */
+    private static UUID currentTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UUID companyId
+                ? companyId
+                : TenantContext.currentTenant();
+    }
+}
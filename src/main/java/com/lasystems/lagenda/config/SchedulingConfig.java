@@ -0,0 +1,14 @@
+package com.lasystems.lagenda.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita os jobs agendados (@Scheduled).
+ * Com spring.threads.virtual.enabled=true cada execução roda em uma virtual thread;
+ * caso contrário, o pool é configurado em spring.task.scheduling.*.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
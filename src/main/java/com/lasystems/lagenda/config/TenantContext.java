@@ -0,0 +1,98 @@
+package com.lasystems.lagenda.config;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Empresa (ou shard explícito) da unidade de trabalho corrente, usada por
+ * {@link TenantShardRoutingDataSource} para escolher o banco.
+ * <p>
+ * Nas requisições é definida por {@link TenantContextFilter}; em threads próprias (jobs,
+ * warm-up, recarga de cache em background, streaming) quem dispara o trabalho define o
+ * escopo. Sem escopo, tudo vai para o shard padrão.
+ */
+public final class TenantContext {
+
+    private record Scope(UUID tenant, String shard) {
+    }
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * Abre o escopo da empresa na thread atual; fechar o handle restaura o anterior.
+     */
+    public static Handle enterTenant(UUID companyId) {
+        return enter(new Scope(companyId, null));
+    }
+
+    /**
+     * Executa em nome da empresa: o shard é o dela no mapa.
+     */
+    public static <T> T callAsTenant(UUID companyId, Supplier<T> work) {
+        Handle tenant = enterTenant(companyId);
+        try {
+            return work.get();
+        } finally {
+            tenant.close();
+        }
+    }
+
+    public static void runAsTenant(UUID companyId, Runnable work) {
+        Handle tenant = enterTenant(companyId);
+        try {
+            work.run();
+        } finally {
+            tenant.close();
+        }
+    }
+
+    /**
+     * Abre o escopo de um shard específico (jobs de manutenção, cópia entre shards).
+     */
+    public static Handle enterShard(String shard) {
+        return enter(new Scope(null, shard));
+    }
+
+    public static void runOnShard(String shard, Runnable work) {
+        Handle scope = enterShard(shard);
+        try {
+            work.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    public static UUID currentTenant() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.tenant() : null;
+    }
+
+    public static String currentShard() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.shard() : null;
+    }
+
+    private static Handle enter(Scope scope) {
+        Scope previous = CURRENT.get();
+        CURRENT.set(scope);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Escopo aberto; {@link #close()} não lança exceção.
+     */
+    @FunctionalInterface
+    public interface Handle extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
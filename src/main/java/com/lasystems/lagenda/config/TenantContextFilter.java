@@ -0,0 +1,75 @@
+package com.lasystems.lagenda.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Define a empresa da requisição no {@link TenantContext}: a da API Key autenticada ou,
+ * sem ela, o parâmetro companyId. Todas as conexões da requisição vão para o shard
+ * dessa empresa.
+ * <p>
+ * Roda depois do Spring Security (a validação da API Key lê o shard padrão). As rotas
+ * de API Keys, bootstrap e actuator são do plano de controle e ficam no shard padrão.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+public class TenantContextFilter extends OncePerRequestFilter {
+
+    private static final String COMPANY_ID_PARAM = "companyId";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/api/keys") || path.startsWith("/bootstrap") || path.startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        UUID tenant = resolveTenant(request);
+        if (tenant == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TenantContext.Handle scope = TenantContext.enterTenant(tenant);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+        }
+    }
+
+    private static UUID resolveTenant(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UUID companyId) {
+            return companyId;
+        }
+
+        String companyId = request.getParameter(COMPANY_ID_PARAM);
+        if (companyId == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(companyId);
+        } catch (IllegalArgumentException e) {
+            // Formato inválido: o controller responde com o erro de validação
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.lasystems.lagenda.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Roteamento por empresa entre shards, ativo quando há {@code datasource.shards.pools.*}.
+ * <p>
+ * O bean "dataSource" (o do Spring Boot ou o roteado para a réplica) passa a ser o shard
+ * padrão dentro de um {@link TenantShardRoutingDataSource}; JPA, JdbcTemplate e Flyway
+ * continuam usando o mesmo bean. As migrações dos demais shards rodam em
+ * {@link TenantShardPools}.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(TenantShardProperties.class)
+public class TenantShardConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Bean
+    public TenantShardPools tenantShardPools(
+            TenantShardProperties properties,
+            DataSourceProperties dataSourceProperties,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<FlywayProperties> flywayProperties
+    ) {
+        return new TenantShardPools(properties, dataSourceProperties, meterRegistry, flywayProperties.getIfAvailable());
+    }
+
+    @Bean
+    static BeanPostProcessor tenantShardDataSourcePostProcessor(
+            Environment environment,
+            ObjectProvider<TenantShardPools> pools,
+            ObjectProvider<TenantShardMap> shardMap
+    ) {
+        boolean enabled = Binder.get(environment)
+                .bind("datasource.shards", TenantShardProperties.class)
+                .map(TenantShardProperties::isEnabled)
+                .orElse(false);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource) {
+                    log.info("Roteamento por shard de empresa ativo");
+                    return new LazyConnectionDataSourceProxy(
+                            new TenantShardRoutingDataSource(dataSource, pools, shardMap));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.lasystems.lagenda.config;
+
+import com.lasystems.lagenda.dtos.TenantShardMoveResponse;
+import com.lasystems.lagenda.service.TenantShardMoveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Endpoint de administração dos shards (/actuator/tenantshards), restrito à authority shards:admin.
+ *
+ * GET  /actuator/tenantshards               shards configurados, empresas fora do shard padrão
+ *                                           e a movimentação em andamento (ou a última)
+ * GET  /actuator/tenantshards/{companyId}   shard e estado da empresa
+ * POST /actuator/tenantshards/{companyId}   move a empresa (corpo: {"shard": "nome"})
+ *
+ * A movimentação roda em background: o POST responde 202 (ou 409 se já houver uma em
+ * andamento) e o andamento é acompanhado pelo GET; ver {@link TenantShardMoveService}.
+ */
+@Component
+@Endpoint(id = "tenantshards")
+@RequiredArgsConstructor
+public class TenantShardEndpoint {
+
+    private final TenantShardMap shardMap;
+    private final TenantShardMoveService moveService;
+
+    @ReadOperation
+    public ShardsDescriptor shards() {
+        return new ShardsDescriptor(
+                shardMap.isEnabled(), shardMap.shardNames(), shardMap.getAssignments(), moveService.getStatus());
+    }
+
+    @ReadOperation
+    public TenantShardMap.Assignment shardForCompany(@Selector UUID companyId) {
+        return shardMap.assignmentOf(companyId);
+    }
+
+    @WriteOperation
+    public WebEndpointResponse<TenantShardMoveResponse> move(@Selector UUID companyId, String shard) {
+        boolean started = moveService.start(companyId, shard);
+        return new WebEndpointResponse<>(moveService.getStatus(),
+                (started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).value());
+    }
+
+    public record ShardsDescriptor(
+            boolean enabled,
+            List<String> shards,
+            Map<UUID, TenantShardMap.Assignment> assignments,
+            TenantShardMoveResponse move
+    ) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.lasystems.lagenda.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Mapa empresa -> shard, lido da tabela tenant_shards do shard padrão e mantido
+ * inteiro em memória: o roteamento de cada conexão é uma leitura de mapa, sem query.
+ * <p>
+ * Empresas sem linha ficam no shard padrão. O mapa é relido periodicamente e, após
+ * uma mudança, imediatamente em todas as instâncias via barramento de invalidação
+ * ({@link #INVALIDATION_NAME}).
+ */
+@Slf4j
+@Component
+public class TenantShardMap implements SmartInitializingSingleton {
+
+    /**
+     * O DataSource principal da aplicação.
+     */
+    public static final String DEFAULT_SHARD = "primary";
+
+    /**
+     * Nome publicado no barramento de invalidação quando o mapa muda.
+     */
+    public static final String INVALIDATION_NAME = "tenantShards";
+
+    public enum State { ACTIVE, MOVING }
+
+    public record Assignment(String shard, State state) {
+    }
+
+    private static final Assignment DEFAULT_ASSIGNMENT = new Assignment(DEFAULT_SHARD, State.ACTIVE);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantShardProperties properties;
+
+    private volatile Map<UUID, Assignment> assignments = Map.of();
+
+    public TenantShardMap(JdbcTemplate jdbcTemplate, TenantShardProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * Carga inicial, depois das migrações e antes de a aplicação atender. Instala também
+     * os triggers de cerca de escrita (V6/V7) em cada shard, usados na movimentação.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (isEnabled()) {
+            forEachShard(shard -> {
+                Integer installed = jdbcTemplate.queryForObject("SELECT tenant_write_guard_install()", Integer.class);
+                if (installed != null && installed > 0) {
+                    log.info("Shard {}: cerca de escrita instalada em {} tabelas", shard, installed);
+                }
+            });
+            reload();
+            log.info("Shards: {} ({} empresas fora do padrão)", shardNames(), assignments.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.shards.refresh-millis:60000}")
+    public void scheduledReload() {
+        if (isEnabled()) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        TenantContext.runOnShard(DEFAULT_SHARD, () -> {
+            List<Map.Entry<UUID, Assignment>> rows = jdbcTemplate.query(
+                    "SELECT company_id, shard, state FROM tenant_shards",
+                    (rs, rowNum) -> Map.entry(
+                            rs.getObject("company_id", UUID.class),
+                            new Assignment(rs.getString("shard"), State.valueOf(rs.getString("state")))
+                    ));
+            assignments = rows.stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+        });
+    }
+
+    public Assignment assignmentOf(UUID companyId) {
+        return assignments.getOrDefault(companyId, DEFAULT_ASSIGNMENT);
+    }
+
+    public String shardOf(UUID companyId) {
+        return assignmentOf(companyId).shard();
+    }
+
+    /**
+     * Empresas com shard ou estado diferente do padrão.
+     */
+    public Map<UUID, Assignment> getAssignments() {
+        return assignments;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Shard padrão seguido dos shards configurados.
+     */
+    public List<String> shardNames() {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_SHARD);
+        names.addAll(properties.getPools().keySet());
+        return names;
+    }
+
+    /**
+     * Executa o trabalho uma vez em cada shard (só no padrão, com o roteamento desligado).
+     */
+    public void forEachShard(Consumer<String> work) {
+        for (String shard : shardNames()) {
+            TenantContext.runOnShard(shard, () -> work.accept(shard));
+        }
+    }
+}
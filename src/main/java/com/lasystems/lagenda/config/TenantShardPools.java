@@ -0,0 +1,92 @@
+package com.lasystems.lagenda.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pools Hikari dos shards adicionais ({@code datasource.shards.pools.*}).
+ * <p>
+ * Na criação aplica as migrações do Flyway em cada shard, com a mesma configuração
+ * do banco principal (inclusive o lock de sessão), para todos terem o mesmo schema.
+ */
+@Slf4j
+public class TenantShardPools implements DisposableBean {
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+
+    public TenantShardPools(
+            TenantShardProperties properties,
+            DataSourceProperties primary,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            FlywayProperties flyway
+    ) {
+        properties.getPools().forEach((name, pool) -> {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("LagendaShard-" + name);
+            dataSource.setDriverClassName(primary.determineDriverClassName());
+            dataSource.setJdbcUrl(pool.getUrl());
+            dataSource.setUsername(pool.getUsername() != null ? pool.getUsername() : primary.determineUsername());
+            dataSource.setPassword(pool.getPassword() != null ? pool.getPassword() : primary.determinePassword());
+            dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+            dataSource.setMinimumIdle(pool.getMinimumIdle());
+            dataSource.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+            dataSource.setMetricsTrackerFactory(new EndpointMetricsTrackerFactory(meterRegistry));
+            pools.put(name, dataSource);
+
+            if (flyway != null && flyway.isEnabled()) {
+                migrate(name, dataSource, flyway);
+            }
+        });
+    }
+
+    /**
+     * Pool do shard; falha se o mapa apontar para um shard não configurado.
+     */
+    public DataSource get(String shard) {
+        HikariDataSource dataSource = pools.get(shard);
+        if (dataSource == null) {
+            throw new IllegalStateException("Shard não configurado: " + shard);
+        }
+        return dataSource;
+    }
+
+    public boolean contains(String shard) {
+        return pools.containsKey(shard);
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static void migrate(String name, DataSource dataSource, FlywayProperties flyway) {
+        // spring.flyway.postgresql.transactional-lock: os índices CONCURRENTLY da V2 não
+        // rodam sob o lock transacional
+        Map<String, String> extensions = new HashMap<>();
+        Boolean transactionalLock = flyway.getPostgresql().getTransactionalLock();
+        if (transactionalLock != null) {
+            extensions.put("flyway.postgresql.transactional.lock", transactionalLock.toString());
+        }
+
+        var result = Flyway.configure()
+                .configuration(extensions)
+                .dataSource(dataSource)
+                .locations(flyway.getLocations().toArray(String[]::new))
+                .baselineOnMigrate(flyway.isBaselineOnMigrate())
+                .baselineVersion(flyway.getBaselineVersion())
+                .load()
+                .migrate();
+        log.info("Shard {}: {} migrações aplicadas", name, result.migrationsExecuted);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lasystems.lagenda.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shards por empresa (prefixo "datasource.shards").
+ *
+ * O DataSource principal é o shard "primary" e guarda o mapa empresa -> shard
+ * (tabela tenant_shards), as API Keys e os planos. Cada entrada de pools define um
+ * shard adicional, por exemplo:
+ * datasource.shards.pools.big1.url=jdbc:postgresql://shard1:5432/lagenda
+ * Sem pools configurados o roteamento fica desligado.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.shards")
+public class TenantShardProperties {
+
+    /**
+     * Shards adicionais por nome.
+     */
+    private Map<String, Pool> pools = new LinkedHashMap<>();
+
+    /**
+     * Intervalo da recarga periódica do mapa (tenant_shards), em milissegundos.
+     */
+    private long refreshMillis = 60_000;
+
+    /**
+     * Folga somada ao intervalo de recarga nas esperas da movimentação.
+     */
+    private Duration moveDrain = Duration.ofSeconds(5);
+
+    /**
+     * Tempo para uma mudança no mapa chegar a todas as instâncias, mesmo as que perderam
+     * a notificação: uma recarga periódica completa mais a folga.
+     */
+    public Duration getMapPropagation() {
+        return Duration.ofMillis(refreshMillis).plus(moveDrain);
+    }
+
+    public boolean isEnabled() {
+        return !pools.isEmpty();
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        private String url;
+
+        /**
+         * Se omitidos, usuário e senha são os do DataSource principal.
+         */
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 5;
+
+        private int minimumIdle = 1;
+
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,91 @@
+package com.lasystems.lagenda.config;
+
+import com.lasystems.lagenda.exceptions.TenantMovingException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * Escolhe o banco de cada conexão pelo {@link TenantContext}: shard explícito, shard da
+ * empresa no {@link TenantShardMap} ou, sem escopo, o DataSource padrão.
+ * <p>
+ * Fica atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * para a decisão acontecer no primeiro comando, já com a transação marcada (ou não)
+ * como readOnly: enquanto a empresa está MOVING transações de escrita são recusadas.
+ * Comandos fora de transação passam; uma escrita entre eles é barrada no banco pela
+ * cerca de {@link com.lasystems.lagenda.service.TenantShardMoveService}.
+ * <p>
+ * Os pools e o mapa são resolvidos sob demanda, porque este DataSource é criado antes
+ * deles (o mapa lê o próprio shard padrão).
+ */
+public class TenantShardRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource defaultDataSource;
+    private final ObjectProvider<TenantShardPools> pools;
+    private final ObjectProvider<TenantShardMap> shardMap;
+
+    public TenantShardRoutingDataSource(
+            DataSource defaultDataSource,
+            ObjectProvider<TenantShardPools> pools,
+            ObjectProvider<TenantShardMap> shardMap
+    ) {
+        this.defaultDataSource = defaultDataSource;
+        this.pools = pools;
+        this.shardMap = shardMap;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTargetDataSource().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+
+    DataSource determineTargetDataSource() {
+        String shard = currentShard();
+        return TenantShardMap.DEFAULT_SHARD.equals(shard) ? defaultDataSource : pools.getObject().get(shard);
+    }
+
+    private String currentShard() {
+        String explicit = TenantContext.currentShard();
+        if (explicit != null) {
+            return explicit;
+        }
+
+        UUID tenant = TenantContext.currentTenant();
+        if (tenant == null) {
+            return TenantShardMap.DEFAULT_SHARD;
+        }
+
+        TenantShardMap.Assignment assignment = shardMap.getObject().assignmentOf(tenant);
+        if (assignment.state() == TenantShardMap.State.MOVING
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new TenantMovingException(tenant);
+        }
+        return assignment.shard();
+    }
+
+    // Permite ao Spring Boot chegar ao pool Hikari padrão (métricas, health)
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return defaultDataSource.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || defaultDataSource.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,137 @@
+package com.lasystems.lagenda.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detecta virtual threads presas ao carrier (bloqueio dentro de synchronized ou de
+ * código nativo) via evento JFR {@code jdk.VirtualThreadPinned}.
+ * <p>
+ * Cada ocorrência acima de {@code threads.pinning.threshold} entra no timer
+ * {@code threads.virtual.pinned}, marcado com o primeiro frame da aplicação na pilha
+ * (ou o frame do topo, se a pilha não passar pela aplicação). O primeiro registro de
+ * cada ponto sai em WARN com a pilha; os seguintes só em DEBUG.
+ * <p>
+ * Só liga com {@code spring.threads.virtual.enabled=true}.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.lasystems.lagenda.";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${threads.pinning.monitor.enabled:true}") boolean monitorEnabled,
+            @Value("${threads.pinning.threshold:20ms}") Duration threshold
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = virtualThreads && monitorEnabled;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::onPinned);
+            recording.startAsync();
+            stream = recording;
+            log.info("Monitor de pinning de virtual threads ativo (limiar {})", threshold);
+        } catch (RuntimeException e) {
+            // JFR indisponível (ex.: JVM sem suporte): segue sem o monitor
+            log.warn("Não foi possível iniciar o monitor de pinning: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null
+                ? event.getStackTrace().getFrames()
+                : List.of();
+        String site = site(frames);
+
+        Timer.builder("threads.virtual.pinned")
+                .description("Tempo em que uma virtual thread ficou presa ao carrier")
+                .tag("site", site)
+                .register(meterRegistry)
+                .record(event.getDuration());
+
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread presa ao carrier por {} ms em {}\n{}",
+                    event.getDuration().toMillis(), site, format(event.getStackTrace()));
+        } else if (log.isDebugEnabled()) {
+            log.debug("Virtual thread presa ao carrier por {} ms em {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return shortName(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown" : shortName(frames.get(0));
+    }
+
+    private static String shortName(RecordedFrame frame) {
+        String type = frame.getMethod().getType().getName();
+        return type.substring(type.lastIndexOf('.') + 1) + "." + frame.getMethod().getName();
+    }
+
+    private static String format(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append("\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber()).append('\n');
+        }
+        if (frames.size() > LOGGED_FRAMES || stackTrace.isTruncated()) {
+            sb.append("\t...\n");
+        }
+        return sb.toString();
+    }
+}
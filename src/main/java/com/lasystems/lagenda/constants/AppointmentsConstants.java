@@ -10,6 +10,20 @@ public final class AppointmentsConstants {
     public static final int DEFAULT_SLOT_DURATION_MINUTES = 60;
     public static final int MAX_SEARCH_DAYS_AHEAD = 5;
     public static final int SLOT_INTERVAL_MINUTES = 60;
+    public static final int BEST_SLOT_SEARCH_WEEKS = 4;
+
+    /**
+     * Duração máxima de um agendamento. Usada como limite inferior em start_appointment
+     * nas buscas de conflito, para que o planner descarte as partições mensais antigas.
+     */
+    public static final int MAX_APPOINTMENT_DURATION_HOURS = 24;
+
+    // Verificação em lote (POST /appointments/availability/batch)
+    public static final int MAX_BATCH_AVAILABILITY_CANDIDATES = 50;
+
+    // Paginação da agenda
+    public static final int AGENDA_DEFAULT_PAGE_SIZE = 50;
+    public static final int AGENDA_MAX_PAGE_SIZE = 200;
 
     // Timezone
     public static final String DEFAULT_TIMEZONE = "America/Sao_Paulo";
@@ -1,27 +1,40 @@
 package com.lasystems.lagenda.controllers;
 
+import com.lasystems.lagenda.cache.AvailabilityVersions;
 import com.lasystems.lagenda.constants.AppointmentsConstants;
 import com.lasystems.lagenda.dtos.SchedulingResult;
 import com.lasystems.lagenda.dtos.appointments.AvailableTimesDto;
 import com.lasystems.lagenda.dtos.request.AppointmentChangeRequest;
 import com.lasystems.lagenda.dtos.request.AppointmentChangeStatusRequest;
 import com.lasystems.lagenda.dtos.request.AppointmentRequest;
+import com.lasystems.lagenda.dtos.request.BatchAvailabilityRequest;
 import com.lasystems.lagenda.dtos.*;
+import com.lasystems.lagenda.exceptions.InvalidParameterException;
 import com.lasystems.lagenda.models.Appointment;
 import com.lasystems.lagenda.models.enums.AppointmentStatus;
+import com.lasystems.lagenda.service.AppointmentExportService;
 import com.lasystems.lagenda.service.AppointmentService;
+import com.lasystems.lagenda.service.AvailabilitySearchService;
+import com.lasystems.lagenda.service.AvailabilityStreamService;
+import com.lasystems.lagenda.service.MissedAppointmentsJobService;
 import com.lasystems.lagenda.validators.UUIDValidator;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Controller REST para gerenciamento de agendamentos.
@@ -33,7 +46,76 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AppointmentController {
 
+    /**
+     * Indica que a busca parou pelo prazo (availability.search.budget) antes de percorrer todo o período.
+     */
+    static final String SEARCH_PARTIAL_HEADER = "X-Search-Partial";
+
     private final AppointmentService appointmentService;
+    private final AppointmentExportService appointmentExportService;
+    private final MissedAppointmentsJobService missedAppointmentsJobService;
+    private final AvailabilityVersions availabilityVersions;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final AvailabilitySearchService availabilitySearchService;
+
+    /**
+     * Lista a agenda da empresa em um período, paginada por cursor (keyset).
+     * <p>
+     * GET /appointments?companyId=uuid&providerId=uuid&from=...&to=...&size=50
+     * Para a próxima página, repetir com cursorStart/cursorId retornados.
+     *
+     * @return página da agenda
+     */
+    @GetMapping
+    public ResponseEntity<AgendaPageResponse> listAgenda(
+            @RequestParam String companyId,
+            @RequestParam(required = false) String providerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorStart,
+            @RequestParam(required = false) String cursorId,
+            @RequestParam(defaultValue = "" + AppointmentsConstants.AGENDA_DEFAULT_PAGE_SIZE) int size
+    ) {
+        log.debug("Listando agenda: company={}, provider={}, from={}, to={}", companyId, providerId, from, to);
+
+        UUID cId = UUIDValidator.parseOrThrow(companyId, "companyId");
+        UUID pId = providerId != null ? UUIDValidator.parseOrThrow(providerId, "providerId") : null;
+        UUID cursor = cursorId != null ? UUIDValidator.parseOrThrow(cursorId, "cursorId") : null;
+
+        return ResponseEntity.ok(appointmentService.listAgenda(cId, pId, from, to, cursorStart, cursor, size));
+    }
+
+    /**
+     * Exporta os agendamentos da empresa no período (CSV ou NDJSON) em streaming.
+     * <p>
+     * GET /appointments/export?companyId=uuid&from=...&to=...&format=csv
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAppointments(
+            @RequestParam String companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "csv") String format
+    ) {
+        UUID cId = UUIDValidator.parseOrThrow(companyId, "companyId");
+        AppointmentExportService.Format exportFormat = AppointmentExportService.Format.fromParam(format);
+
+        if (!to.isAfter(from)) {
+            throw new InvalidParameterException("Período inválido: 'to' deve ser posterior a 'from'");
+        }
+
+        log.info("Exportação de agendamentos solicitada: company={}, format={}", cId, exportFormat);
+
+        StreamingResponseBody body = out -> appointmentExportService.export(cId, from, to, exportFormat, out);
+
+        String filename = String.format("appointments-%s-%s.%s",
+                from.toLocalDate(), to.toLocalDate(), exportFormat.getExtension());
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
 
     /**
      * Cria um novo agendamento.
@@ -126,12 +208,14 @@ public class AppointmentController {
         UUID providerId = request.providerId() != null
                 ? UUIDValidator.parseOrThrow(request.providerId(), "providerId")
                 : null;
+        int durationMinutes = appointmentService.resolveDurationMinutes(
+                companyId, UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
 
         boolean available = appointmentService.isAvailable(
                 companyId,
                 providerId,
                 request.start(),
-                request.start().plusHours(1),
+                request.start().plusMinutes(durationMinutes),
                 specialtyId
         );
 
@@ -160,16 +244,23 @@ public class AppointmentController {
     ) {
         log.info("Buscando melhor slot disponível");
 
-        return appointmentService.findBestSlot(request)
+        SlotSearchResult result = availabilitySearchService.findBestSlot(request);
+        return result.asOptional()
                 .map(slot -> {
                     BestSlotResponse response = new BestSlotResponse(
                             slot.providerId(),
                             "Provider Name", // TODO: Buscar nome do provider
-                            slot.startTime()
+                            slot.startTime(),
+                            result.partial()
                     );
-                    return ResponseEntity.ok(response);
+                    return ResponseEntity.ok()
+                            .header(SEARCH_PARTIAL_HEADER, String.valueOf(result.partial()))
+                            .body(response);
                 })
-                .orElse(ResponseEntity.notFound().build());
+                // 404 parcial: nada encontrado dentro do prazo, mas o período não foi todo percorrido
+                .orElse(ResponseEntity.notFound()
+                        .header(SEARCH_PARTIAL_HEADER, String.valueOf(result.partial()))
+                        .build());
     }
 
     /**
@@ -190,7 +281,7 @@ public class AppointmentController {
         UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
         List<UUID> serviceIds = UUIDValidator.parseList(request.serviceIds(), "serviceIds");
 
-        return appointmentService.findNextAvailableTimes(
+        return availabilitySearchService.findNextAvailableTimes(
                         companyId,
                         serviceIds,
                         request.start().toLocalDate()
@@ -211,23 +302,175 @@ public class AppointmentController {
     }
 
     /**
-     * Finaliza agendamentos passados que ainda estão como SCHEDULED.
+     * Verifica vários horários candidatos em uma única requisição.
+     * <p>
+     * POST /appointments/availability/batch
+     *
+     * @return veredito e motivo de cada candidato, na ordem da requisição
+     */
+    @PostMapping("/availability/batch")
+    public ResponseEntity<BatchAvailabilityResponse> checkAvailabilityBatch(
+            @RequestBody @Valid BatchAvailabilityRequest request
+    ) {
+        log.debug("Verificando disponibilidade em lote: {} candidatos", request.candidates().size());
+        return ResponseEntity.ok(appointmentService.checkAvailabilityBatch(request));
+    }
+
+    /**
+     * Stream SSE das mudanças de disponibilidade da empresa (reservas, cancelamentos,
+     * horários e fechamentos), opcionalmente filtrado por prestador e período.
+     * <p>
+     * GET /appointments/availability/stream?companyId=uuid[&providerId=uuid&from=2025-01-01&to=2025-01-31]
+     */
+    @GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(
+            @RequestParam String companyId,
+            @RequestParam(required = false) String providerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        UUID cId = UUIDValidator.parseOrThrow(companyId, "companyId");
+        UUID pId = providerId != null ? UUIDValidator.parseOrThrow(providerId, "providerId") : null;
+        return availabilityStreamService.subscribe(cId, pId, from, to);
+    }
+
+    // ==================== CONSULTAS GET CACHEÁVEIS ====================
+    //
+    // Variantes por query string das consultas acima. Respondem com ETag forte (versão de
+    // disponibilidade da empresa + parâmetros) e Cache-Control curto; If-None-Match com o
+    // mesmo ETag recebe 304 sem recalcular a busca.
+
+    /**
+     * GET /appointments/check-availability?companyId=..&specialistId=..&start=..&serviceIds=a,b[&providerId=..]
+     */
+    @GetMapping(value = "/check-availability", params = "companyId")
+    public ResponseEntity<AvailabilityResponse> checkAvailabilityByQuery(
+            @RequestParam String companyId,
+            @RequestParam String specialistId,
+            @RequestParam(required = false) String providerId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam List<String> serviceIds,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AppointmentRequest request = new AppointmentRequest(
+                null, companyId, start, serviceIds, specialistId, providerId, null);
+        String etag = etag("check-availability", request);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(checkAvailability(request), etag);
+    }
+
+    /**
+     * GET /appointments/find-best-slot?companyId=..&serviceIds=a,b[&start=..&providerId=..&specialistId=..]
+     */
+    @GetMapping(value = "/find-best-slot", params = "companyId")
+    public ResponseEntity<BestSlotResponse> findBestSlotByQuery(
+            @RequestParam String companyId,
+            @RequestParam List<String> serviceIds,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) String providerId,
+            @RequestParam(required = false) String specialistId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AppointmentRequest request = new AppointmentRequest(
+                null, companyId, start, serviceIds, specialistId, providerId, null);
+        String etag = etag("find-best-slot", request);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        ResponseEntity<BestSlotResponse> response = findBestSlot(request);
+        // Resultado parcial depende do tempo de execução: não deve ser reaproveitado
+        if (Boolean.parseBoolean(response.getHeaders().getFirst(SEARCH_PARTIAL_HEADER))) {
+            return response;
+        }
+        return cacheable(response, etag);
+    }
+
+    /**
+     * GET /appointments/next-available?companyId=..&serviceIds=a,b&start=..
+     */
+    @GetMapping(value = "/next-available", params = "companyId")
+    public ResponseEntity<NextAvailableTimesResponse> getNextAvailableTimesByQuery(
+            @RequestParam String companyId,
+            @RequestParam List<String> serviceIds,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        AppointmentRequest request = new AppointmentRequest(
+                null, companyId, start, serviceIds, null, null, null);
+        String etag = etag("next-available", request);
+        if (matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return cacheable(getNextAvailableTimes(request), etag);
+    }
+
+    // A versão é lida antes da busca: uma gravação concorrente gera outro ETag na próxima consulta
+    private String etag(String query, AppointmentRequest request) {
+        return availabilityVersions.etag(
+                UUIDValidator.parseOrThrow(request.companyId(), "companyId"),
+                query,
+                request.start(),
+                request.serviceIds().stream().sorted().toList(),
+                request.specialistId(),
+                request.providerId()
+        );
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(availabilityVersions.cacheControl())
+                .varyBy(HttpHeaders.AUTHORIZATION, "X-API-Key")
+                .build();
+    }
+
+    private <T> ResponseEntity<T> cacheable(ResponseEntity<T> response, String etag) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .cacheControl(availabilityVersions.cacheControl())
+                .varyBy(HttpHeaders.AUTHORIZATION, "X-API-Key")
+                .body(response.getBody());
+    }
+
+    /**
+     * Dispara em background a finalização de agendamentos passados que ainda estão como SCHEDULED.
      *
-     * @return resposta com total de agendamentos atualizados
+     * @return situação do job (202 se iniciado, 409 se já estiver rodando)
      */
     @PostMapping("/finalize-missed")
     public ResponseEntity<FinalizeMissedAppointmentsResponse> finalizeMissedAppointments() {
-        log.info("Finalizando agendamentos perdidos");
+        log.info("Disparando finalização de agendamentos perdidos");
 
-        List<Appointment> finalized = appointmentService.finalizeMissedAppointments();
+        boolean started = missedAppointmentsJobService.trigger();
 
-        FinalizeMissedAppointmentsResponse response = new FinalizeMissedAppointmentsResponse(
-                String.format("Total de %d agendamentos finalizados", finalized.size()),
-                finalized.size(),
-                finalized.stream().map(Appointment::getId).toList()
-        );
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .body(missedAppointmentsJobService.getStatus());
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Situação da última execução da finalização de agendamentos perdidos.
+     *
+     * @return totais e ids mais recentes finalizados
+     */
+    @GetMapping("/finalize-missed/status")
+    public ResponseEntity<FinalizeMissedAppointmentsResponse> finalizeMissedStatus() {
+        return ResponseEntity.ok(missedAppointmentsJobService.getStatus());
     }
 
     /**
@@ -242,34 +485,6 @@ public class AppointmentController {
     ) {
         log.debug("Buscando agendamento por ID: {}", id);
 
-        Appointment appointment = appointmentService.findById(id);
-
-        AppointmentDetailResponse response = new AppointmentDetailResponse(
-                appointment.getId(),
-                new ClientSummary(
-                        appointment.getClient().getId(),
-                        appointment.getClient().getName(),
-                        appointment.getClient().getPhone()
-                ),
-                new ProviderSummary(
-                        appointment.getProvider().getId(),
-                        appointment.getProvider().getName(),
-                        appointment.getProvider().getCalendarId()
-                ),
-                appointment.getStart(),
-                appointment.getEnd(),
-                appointment.getStatus().name(),
-                appointment.getAppointmentServices().stream()
-                        .map(s -> new ServiceSummary(
-                                s.getService().getId(),
-                                s.getService().getName(),
-                                s.getService().getPrice(),
-                                s.getService().getDurationMinutes()
-                        ))
-                        .collect(Collectors.toList()),
-                appointment.getNotes()
-        );
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(appointmentService.getAppointmentDetail(id));
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.lasystems.lagenda.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record AgendaItemResponse(
+        UUID id,
+        LocalDateTime start,
+        LocalDateTime end,
+        String status,
+        ClientSummary client,
+        ProviderSummary provider,
+        List<String> services
+) {
+}
@@ -0,0 +1,18 @@
+package com.lasystems.lagenda.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Página da agenda com cursor (keyset) para a próxima página.
+ * nextCursorStart/nextCursorId são nulos quando não há mais registros.
+ */
+public record AgendaPageResponse(
+        List<AgendaItemResponse> items,
+        int size,
+        boolean hasMore,
+        LocalDateTime nextCursorStart,
+        UUID nextCursorId
+) {
+}
@@ -0,0 +1,25 @@
+package com.lasystems.lagenda.dtos;
+
+import com.lasystems.lagenda.dtos.appointments.AvailabilityReason;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record BatchAvailabilityResponse(
+        List<Item> results
+) {
+
+    /**
+     * Veredito de um candidato, na mesma posição (index) da requisição.
+     */
+    public record Item(
+            int index,
+            UUID providerId,
+            LocalDateTime start,
+            LocalDateTime end,
+            boolean available,
+            AvailabilityReason reason
+    ) {
+    }
+}
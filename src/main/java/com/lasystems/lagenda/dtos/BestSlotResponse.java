@@ -6,6 +6,7 @@ import java.util.UUID;
 public record BestSlotResponse(
         UUID providerId,
         String providerName,
-        LocalDateTime startTime
+        LocalDateTime startTime,
+        boolean partial
 ) {
 }
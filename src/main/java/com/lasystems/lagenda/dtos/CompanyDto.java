@@ -1,16 +1,13 @@
 package com.lasystems.lagenda.dtos;
 
-import com.lasystems.lagenda.models.Specialist;
-
 import java.util.List;
 import java.util.UUID;
 
-public interface CompanyDto {
-
-        UUID getId();
-        String getName();
-        String getCategory();
-        List<SpecialistDto> getSpecialties();
-        List<CompanyProviders> getProviders();
-
+public record CompanyDto(
+        UUID id,
+        String name,
+        String category,
+        List<SpecialistDto> specialties,
+        List<CompanyProviders> providers
+) {
 }
@@ -1,8 +1,8 @@
 package com.lasystems.lagenda.dtos;
 
-public interface CompanyProviders {
-
-    String getName();
-    String getCalendarId();
-    String getPhone();
+public record CompanyProviders(
+        String name,
+        String calendarId,
+        String phone
+) {
 }
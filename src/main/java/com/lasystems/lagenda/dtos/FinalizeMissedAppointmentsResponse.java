@@ -1,11 +1,20 @@
 package com.lasystems.lagenda.dtos;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Situação do job de finalização de agendamentos perdidos.
+ * updatedIds traz apenas os ids mais recentes (lista limitada).
+ */
 public record FinalizeMissedAppointmentsResponse(
         String message,
-        int totalUpdated,
+        String status,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long totalUpdated,
+        int chunks,
         List<UUID> updatedIds
 ) {
 }
@@ -2,8 +2,8 @@ package com.lasystems.lagenda.dtos;
 
 import java.util.UUID;
 
-public interface ProviderMinAppointmentsDto {
-    UUID getId();
-    String getCalendarId();
-
+public record ProviderMinAppointmentsDto(
+        UUID id,
+        String calendarId
+) {
 }
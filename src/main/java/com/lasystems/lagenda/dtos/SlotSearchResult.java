@@ -0,0 +1,20 @@
+package com.lasystems.lagenda.dtos;
+
+import java.util.Optional;
+
+/**
+ * Resultado da busca de melhor slot.
+ *
+ * @param slot    slot encontrado (null se nenhum)
+ * @param partial true se a busca parou pelo prazo antes de percorrer todo o período
+ */
+public record SlotSearchResult(SchedulingResult slot, boolean partial) {
+
+    public static SlotSearchResult of(Optional<SchedulingResult> slot, boolean partial) {
+        return new SlotSearchResult(slot.orElse(null), partial);
+    }
+
+    public Optional<SchedulingResult> asOptional() {
+        return Optional.ofNullable(slot);
+    }
+}
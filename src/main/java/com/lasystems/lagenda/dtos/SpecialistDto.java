@@ -2,10 +2,9 @@ package com.lasystems.lagenda.dtos;
 
 import java.util.UUID;
 
-public interface SpecialistDto {
-
-    UUID getId();
-    String getName();
-    String getDescription();
-
+public record SpecialistDto(
+        UUID id,
+        String name,
+        String description
+) {
 }
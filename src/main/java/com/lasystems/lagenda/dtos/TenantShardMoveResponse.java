@@ -0,0 +1,23 @@
+package com.lasystems.lagenda.dtos;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Situação da movimentação de uma empresa entre shards (em andamento ou a última).
+ * status: IDLE, RUNNING, COMPLETED ou FAILED; step só durante a execução.
+ * copiedRows traz a quantidade de linhas copiadas por tabela, na ordem da cópia.
+ */
+public record TenantShardMoveResponse(
+        String status,
+        String step,
+        UUID companyId,
+        String source,
+        String target,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        Map<String, Long> copiedRows,
+        String error
+) {
+}
@@ -0,0 +1,23 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import com.lasystems.lagenda.models.enums.AppointmentStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Linha plana da agenda (sem serviços), montada direto pela query JPQL.
+ */
+public record AgendaRowDto(
+        UUID id,
+        LocalDateTime start,
+        LocalDateTime end,
+        AppointmentStatus status,
+        UUID clientId,
+        String clientName,
+        String clientPhone,
+        UUID providerId,
+        String providerName,
+        String providerCalendarId
+) {
+}
@@ -0,0 +1,15 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Serviço vinculado a um agendamento da página da agenda.
+ */
+public record AgendaServiceRowDto(
+        UUID appointmentId,
+        UUID serviceId,
+        String name,
+        BigDecimal priceService
+) {
+}
@@ -0,0 +1,13 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Chave de ordenação (start, id) usada na paginação por keyset.
+ */
+public record AppointmentKeyDto(
+        UUID id,
+        LocalDateTime start
+) {
+}
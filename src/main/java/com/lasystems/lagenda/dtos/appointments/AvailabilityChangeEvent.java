@@ -0,0 +1,24 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Evento de mudança de disponibilidade enviado no stream SSE.
+ *
+ * @param type       BOOKED, RELEASED, SCHEDULE (horários/fechamentos) ou CHANGED (origem remota, sem detalhe)
+ * @param providerId prestador afetado (null: qualquer prestador)
+ * @param date       dia afetado (null: qualquer dia)
+ */
+public record AvailabilityChangeEvent(
+        String type,
+        UUID companyId,
+        UUID providerId,
+        LocalDate date
+) {
+
+    public static final String BOOKED = "BOOKED";
+    public static final String RELEASED = "RELEASED";
+    public static final String SCHEDULE = "SCHEDULE";
+    public static final String CHANGED = "CHANGED";
+}
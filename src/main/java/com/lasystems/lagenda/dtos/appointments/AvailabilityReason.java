@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+/**
+ * Motivo do veredito de disponibilidade de um horário.
+ */
+public enum AvailabilityReason {
+    AVAILABLE,
+    IN_THE_PAST,
+    OUTSIDE_BUSINESS_HOURS,
+    COMPANY_CLOSED,
+    CONFLICT
+}
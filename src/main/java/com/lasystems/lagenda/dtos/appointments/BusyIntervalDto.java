@@ -0,0 +1,19 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Período ocupado por um agendamento ativo (SCHEDULED ou CONFIRMED).
+ */
+public record BusyIntervalDto(
+        UUID appointmentId,
+        UUID providerId,
+        LocalDateTime start,
+        LocalDateTime end
+) {
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return end.isAfter(otherStart) && start.isBefore(otherEnd);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.dtos.appointments;
+
+import java.util.UUID;
+
+/**
+ * Quantidade de agendamentos ativos de um prestador em um período.
+ */
+public record ProviderLoadDto(
+        UUID providerId,
+        long appointments
+) {
+}
@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.dtos.providers;
+
+import java.util.UUID;
+
+/**
+ * Prestador da empresa carregado para o diretório em memória.
+ */
+public record ProviderDirectoryRowDto(
+        UUID id,
+        String calendarId
+) {
+}
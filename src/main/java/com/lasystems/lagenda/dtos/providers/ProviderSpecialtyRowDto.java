@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.dtos.providers;
+
+import java.util.UUID;
+
+/**
+ * Vínculo prestador → especialidade carregado para o diretório em memória.
+ */
+public record ProviderSpecialtyRowDto(
+        UUID providerId,
+        UUID specialtyId
+) {
+}
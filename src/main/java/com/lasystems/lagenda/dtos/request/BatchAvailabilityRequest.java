@@ -0,0 +1,32 @@
+package com.lasystems.lagenda.dtos.request;
+
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record BatchAvailabilityRequest(
+        @NotNull(message = "CompanyId é obrigatório")
+        String companyId,
+        @NotEmpty(message = "Informe ao menos um horário candidato")
+        @Size(max = AppointmentsConstants.MAX_BATCH_AVAILABILITY_CANDIDATES,
+                message = "Máximo de " + AppointmentsConstants.MAX_BATCH_AVAILABILITY_CANDIDATES + " candidatos por requisição")
+        List<@Valid Candidate> candidates
+) {
+
+    /**
+     * Horário candidato; sem providerId, vale a regra da empresa (qualquer agendamento conflita).
+     */
+    public record Candidate(
+            String providerId,
+            @NotNull(message = "Data e hora do candidato é obrigatória")
+            LocalDateTime start,
+            @NotNull(message = "ServiceId é obrigatório")
+            List<String> serviceIds
+    ) {
+    }
+}
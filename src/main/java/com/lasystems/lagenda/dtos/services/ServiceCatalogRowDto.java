@@ -0,0 +1,15 @@
+package com.lasystems.lagenda.dtos.services;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Serviço da empresa carregado para o catálogo em memória.
+ */
+public record ServiceCatalogRowDto(
+        UUID id,
+        String name,
+        BigDecimal price,
+        Integer durationMinutes
+) {
+}
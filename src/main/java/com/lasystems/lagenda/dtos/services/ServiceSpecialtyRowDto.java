@@ -0,0 +1,12 @@
+package com.lasystems.lagenda.dtos.services;
+
+import java.util.UUID;
+
+/**
+ * Vínculo serviço → especialidade carregado para o catálogo em memória.
+ */
+public record ServiceSpecialtyRowDto(
+        UUID serviceId,
+        UUID specialtyId
+) {
+}
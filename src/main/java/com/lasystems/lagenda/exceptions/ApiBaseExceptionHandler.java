@@ -136,6 +136,20 @@ public class ApiBaseExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, body, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
     }
 
+    @ExceptionHandler(InvalidParameterException.class)
+    public ResponseEntity<?> handlerInvalidParameterException(InvalidParameterException ex, WebRequest request) {
+
+        String title = getMessageResource("title.param.invalid");
+        String detail = ex.getMessage();
+        String userMessage = getMessageResource("userMessage.param.invalid");
+
+        ApiBaseEntityException body = createProblemBuilder(HttpStatus.BAD_REQUEST, title, detail)
+                .userMessage(userMessage)
+                .build();
+
+        return handleExceptionInternal(ex, body, new HttpHeaders(), HttpStatus.BAD_REQUEST, request);
+    }
+
     @ExceptionHandler(SlotNotAvailableException.class)
     public ResponseEntity<?> handlerSlotNotAvailableException(SlotNotAvailableException ex, WebRequest request) {
 
@@ -178,6 +192,38 @@ public class ApiBaseExceptionHandler extends ResponseEntityExceptionHandler {
         return handleExceptionInternal(ex, body, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
     }
 
+    @ExceptionHandler(TenantMovingException.class)
+    public ResponseEntity<?> handlerTenantMovingException(TenantMovingException ex, WebRequest request) {
+
+        String title = getMessageResource("title.tenantMoving");
+        String detail = ex.getMessage();
+        String userMessage = ex.getMessage();
+
+        ApiBaseEntityException body = createProblemBuilder(HttpStatus.SERVICE_UNAVAILABLE, title, detail)
+                .userMessage(userMessage)
+                .build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "5");
+        return handleExceptionInternal(ex, body, headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    @ExceptionHandler(StreamSubscribersLimitException.class)
+    public ResponseEntity<?> handlerStreamSubscribersLimitException(StreamSubscribersLimitException ex, WebRequest request) {
+
+        String title = getMessageResource("title.streamSubscribersLimit");
+        String detail = ex.getMessage();
+        String userMessage = ex.getMessage();
+
+        ApiBaseEntityException body = createProblemBuilder(HttpStatus.SERVICE_UNAVAILABLE, title, detail)
+                .userMessage(userMessage)
+                .build();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        return handleExceptionInternal(ex, body, headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
 //    @ExceptionHandler(DadosDuplicadosException.class)
 //    public ResponseEntity<?> handlerDadosDuplicados(DadosDuplicadosException ex, WebRequest request) {
 //
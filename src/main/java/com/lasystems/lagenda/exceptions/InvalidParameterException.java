@@ -0,0 +1,10 @@
+package com.lasystems.lagenda.exceptions;
+
+/**
+ * Exceção lançada quando um parâmetro da requisição tem valor fora do permitido.
+ */
+public class InvalidParameterException extends RuntimeException {
+    public InvalidParameterException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.lasystems.lagenda.exceptions;
+
+
+/**
+ * Exceção lançada quando o stream de disponibilidade já atingiu o limite de assinantes.
+ */
+public class StreamSubscribersLimitException extends RuntimeException {
+    public StreamSubscribersLimitException(int maxSubscribers) {
+        super(String.format("Limite de %d assinantes do stream de disponibilidade atingido, tente novamente mais tarde", maxSubscribers));
+    }
+}
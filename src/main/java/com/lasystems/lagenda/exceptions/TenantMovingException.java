@@ -0,0 +1,13 @@
+package com.lasystems.lagenda.exceptions;
+
+import java.util.UUID;
+
+
+/**
+ * Exceção lançada quando a empresa está sendo movida entre shards e a operação precisa escrever.
+ */
+public class TenantMovingException extends RuntimeException {
+    public TenantMovingException(UUID companyId) {
+        super(String.format("Empresa %s em migração de banco, tente novamente em instantes", companyId));
+    }
+}
@@ -1,5 +1,6 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.AppointmentChangeListener;
 import com.lasystems.lagenda.models.enums.AppointmentStatus;
 import jakarta.persistence.*;
 import lombok.*;
@@ -14,8 +15,12 @@ import java.util.*;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_company_start_id", columnList = "company_id, start_appointment, id"),
+        @Index(name = "idx_appointments_provider_start_id", columnList = "provider_id, start_appointment, id")
+})
 @Entity
+@EntityListeners(AppointmentChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 @Getter
 @Setter
@@ -54,6 +59,12 @@ public class Appointment extends BaseModel {
     @Builder.Default
     private Set<AppointmentService> appointmentServices = new HashSet<>();
 
+    /**
+     * Início como estava no banco ao carregar; usado para invalidar o dia antigo em remarcações.
+     */
+    @Transient
+    private LocalDateTime loadedStart;
+
     public void addService(Service service) {
         var linkId = new AppointmentServiceId(this.id, service.getId(), this.company.getId());
         var link = AppointmentService.builder()
@@ -8,7 +8,7 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "appointment_services", schema = "public")
+@Table(name = "appointment_services")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class AppointmentService {
 
@@ -1,5 +1,6 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.ScheduleChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -13,6 +14,7 @@ import java.util.UUID;
 @Setter
 @Table(name = "business_hours")
 @Entity
+@EntityListeners(ScheduleChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class BusinessHour extends BaseModel {
 
@@ -34,7 +34,8 @@ public class Client extends BaseModel {
     @Column(name = "phone", columnDefinition = "text")
     private String phone;
     @OneToMany(mappedBy = "client")
-    @SQLRestriction("end_appointment >= (current_timestamp AT TIME ZONE 'UTC')::date")
+    // Status ativos + limite constante em end_appointment: usa idx_appointments_active_client_end
+    @SQLRestriction("status IN ('SCHEDULED', 'CONFIRMED') AND end_appointment >= (current_timestamp AT TIME ZONE 'UTC')::date")
     private List<Appointment> appointments = new ArrayList<>();
     @Column(columnDefinition = "jsonb", name = "conversation_history")
     private String conversationHistory;
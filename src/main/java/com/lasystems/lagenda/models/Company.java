@@ -1,10 +1,13 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.SecondLevelCacheChangeListener;
 
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,6 +16,9 @@ import java.util.UUID;
 @Setter
 @Table(name = "companies")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
+@EntityListeners(SecondLevelCacheChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class Company extends BaseModel {
 
@@ -24,8 +30,10 @@ public class Company extends BaseModel {
     private String name;
     private String category;
     @OneToMany(mappedBy = "company")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company-specialties")
     private List<Specialist> specialties;
     @OneToMany(mappedBy = "company")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company-providers")
     private List<Provider> providers;
 
 }
@@ -1,6 +1,7 @@
 package com.lasystems.lagenda.models;
 
 
+import com.lasystems.lagenda.cache.ScheduleChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -15,6 +16,7 @@ import java.util.UUID;
 @Setter
 @Table(name = "company_closures")
 @Entity
+@EntityListeners(ScheduleChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class CompanyClosure extends BaseModel {
 
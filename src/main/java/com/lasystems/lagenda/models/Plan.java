@@ -1,18 +1,28 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.SecondLevelCacheChangeListener;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.beans.Transient;
 import java.time.Instant;
 
 /**
  * Plano de assinatura da empresa.
+ * Cache de segundo nível NONSTRICT_READ_WRITE: alterações são raras e uma leitura
+ * levemente atrasada de preço/nome é aceitável.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "plan")
+@EntityListeners(SecondLevelCacheChangeListener.class)
 @Table(name = "plans")
 @Getter
 @Setter
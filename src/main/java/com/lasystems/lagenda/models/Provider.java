@@ -1,10 +1,14 @@
 package com.lasystems.lagenda.models;
 
 
+import com.lasystems.lagenda.cache.ProviderDirectoryChangeListener;
+import com.lasystems.lagenda.cache.SecondLevelCacheChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.List;
@@ -15,6 +19,9 @@ import java.util.UUID;
 @Setter
 @Table(name = "providers")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "provider")
+@EntityListeners({ProviderDirectoryChangeListener.class, SecondLevelCacheChangeListener.class})
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class Provider extends BaseModel {
 
@@ -1,6 +1,7 @@
 package com.lasystems.lagenda.models;
 
 
+import com.lasystems.lagenda.cache.ProviderDirectoryChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import java.util.UUID;
 @Setter
 @Table(name = "provider_specialties")
 @Entity
+@EntityListeners(ProviderDirectoryChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class ProviderSpecialist extends BaseModel {
 
@@ -1,8 +1,12 @@
 package com.lasystems.lagenda.models;
 
 
+import com.lasystems.lagenda.cache.CatalogChangeListener;
+import com.lasystems.lagenda.cache.SecondLevelCacheChangeListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
@@ -16,6 +20,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "service")
+@EntityListeners({CatalogChangeListener.class, SecondLevelCacheChangeListener.class})
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class Service extends BaseModel {
 
@@ -1,5 +1,6 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.CatalogChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -11,6 +12,7 @@ import java.util.UUID;
 @Setter
 @Table(name = "service_specialties")
 @Entity
+@EntityListeners(CatalogChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class ServiceSpecialties extends BaseModel {
 
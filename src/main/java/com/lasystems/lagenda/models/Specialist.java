@@ -1,9 +1,12 @@
 package com.lasystems.lagenda.models;
 
+import com.lasystems.lagenda.cache.SecondLevelCacheChangeListener;
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.UUID;
 
@@ -11,6 +14,9 @@ import java.util.UUID;
 @Setter
 @Table(name = "specialties")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "specialist")
+@EntityListeners(SecondLevelCacheChangeListener.class)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true, callSuper=false)
 public class Specialist extends BaseModel {
 
@@ -1,6 +1,13 @@
 package com.lasystems.lagenda.repository;
 
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import com.lasystems.lagenda.dtos.appointments.AgendaRowDto;
+import com.lasystems.lagenda.dtos.appointments.AgendaServiceRowDto;
+import com.lasystems.lagenda.dtos.appointments.AppointmentKeyDto;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.dtos.appointments.ProviderLoadDto;
 import com.lasystems.lagenda.models.Appointment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -11,12 +18,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, UUID>, JpaSpecificationExecutor<Appointment> {
 
     /**
      * Verifica se existe agendamento conflitante.
+     * Despacha para a query específica (empresa ou prestador), evitando o
+     * predicado (:providerId IS NULL OR ...) que impede o uso de índice.
      *
      * @param companyId   ID da empresa
      * @param providerId  ID do prestador (pode ser null)
@@ -24,22 +34,109 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>,
      * @param end         Fim do novo agendamento
      * @return true se HOUVER conflito (ou seja, NÃO está disponível)
      */
+    default boolean hasOverlappingAppointment(UUID companyId, UUID providerId, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime windowStart = overlapWindowStart(start);
+        return providerId != null
+                ? hasOverlappingAppointmentForProvider(companyId, providerId, windowStart, start, end)
+                : hasOverlappingAppointmentForCompany(companyId, windowStart, start, end);
+    }
+
+    /**
+     * Limite inferior em start_appointment para buscas de conflito: nenhum agendamento
+     * que comece antes disso pode terminar depois de :start. Permite o pruning das
+     * partições mensais de appointments.
+     */
+    static LocalDateTime overlapWindowStart(LocalDateTime start) {
+        return start.minusHours(AppointmentsConstants.MAX_APPOINTMENT_DURATION_HOURS);
+    }
+
+    /**
+     * Conflito com qualquer agendamento ativo da empresa.
+     * Usa o índice parcial idx_appointments_active_company_end.
+     */
     @Query("""
-        SELECT CASE WHEN COUNT(a) > 0 THEN TRUE ELSE FALSE END
+        SELECT COUNT(a) > 0
         FROM Appointment a
         WHERE a.company.id = :companyId
-          AND (:providerId IS NULL OR a.provider.id = :providerId)
-          AND a.status NOT IN ('CANCELLED', 'COMPLETED')
+          AND a.status IN ('SCHEDULED', 'CONFIRMED')
+          AND a.end > :start
+          AND a.start >= :windowStart
           AND a.start < :end
+        """)
+    boolean hasOverlappingAppointmentForCompany(
+            @Param("companyId") UUID companyId,
+            @Param("windowStart") LocalDateTime windowStart,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Conflito com agendamento ativo do prestador.
+     * Usa o índice parcial idx_appointments_active_provider_end.
+     */
+    @Query("""
+        SELECT COUNT(a) > 0
+        FROM Appointment a
+        WHERE a.provider.id = :providerId
+          AND a.company.id = :companyId
+          AND a.status IN ('SCHEDULED', 'CONFIRMED')
           AND a.end > :start
+          AND a.start >= :windowStart
+          AND a.start < :end
         """)
-    boolean hasOverlappingAppointment(
+    boolean hasOverlappingAppointmentForProvider(
             @Param("companyId") UUID companyId,
             @Param("providerId") UUID providerId,
+            @Param("windowStart") LocalDateTime windowStart,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
 
+    /**
+     * Dentre os prestadores informados, os que têm agendamento ativo conflitante com o período.
+     */
+    default List<UUID> findBusyProviderIds(List<UUID> providerIds, LocalDateTime start, LocalDateTime end) {
+        return findBusyProviderIds(providerIds, overlapWindowStart(start), start, end);
+    }
+
+    /**
+     * Usa o índice parcial idx_appointments_active_provider_end.
+     */
+    @Query("""
+        SELECT DISTINCT a.provider.id
+        FROM Appointment a
+        WHERE a.provider.id IN :providerIds
+          AND a.status IN ('SCHEDULED', 'CONFIRMED')
+          AND a.end > :start
+          AND a.start >= :windowStart
+          AND a.start < :end
+        """)
+    List<UUID> findBusyProviderIds(
+            @Param("providerIds") List<UUID> providerIds,
+            @Param("windowStart") LocalDateTime windowStart,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Agendamentos ativos por prestador em [dayStart, dayEnd); prestadores sem agendamento não aparecem.
+     * Usa o índice (provider_id, start_appointment, id).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.ProviderLoadDto(a.provider.id, COUNT(a))
+        FROM Appointment a
+        WHERE a.provider.id IN :providerIds
+          AND a.status IN ('SCHEDULED', 'CONFIRMED')
+          AND a.start >= :dayStart
+          AND a.start < :dayEnd
+        GROUP BY a.provider.id
+        """)
+    List<ProviderLoadDto> countActiveAppointmentsByProviders(
+            @Param("providerIds") List<UUID> providerIds,
+            @Param("dayStart") LocalDateTime dayStart,
+            @Param("dayEnd") LocalDateTime dayEnd
+    );
+
     @Query("SELECT COUNT(a) FROM Appointment a WHERE a.provider.id = :providerId AND a.start >= :startOfDay AND a.start < :nextStartOfDay")
     int countAppointmentsByProviderAndDate(
             @Param("providerId") UUID providerId,
@@ -47,25 +144,177 @@ public interface AppointmentRepository extends JpaRepository<Appointment, UUID>,
             @Param("nextStartOfDay") LocalDateTime nextStartOfDay
     );
 
-    @Query("SELECT a FROM Appointment a WHERE FUNCTION('DATE', a.start) < current_date AND a.status = 'SCHEDULED'")
-    List<Appointment> pastAppointmentsScheduled();
+    /**
+     * Próximo bloco de agendamentos SCHEDULED que começaram antes de :before,
+     * por keyset em (start, id). Usa range simples em start_appointment (indexável).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.AppointmentKeyDto(a.id, a.start)
+        FROM Appointment a
+        WHERE a.status = 'SCHEDULED'
+          AND a.start < :before
+          AND a.start >= :cursorStart
+          AND (a.start > :cursorStart OR a.id > :cursorId)
+        ORDER BY a.start, a.id
+        """)
+    List<AppointmentKeyDto> findPastScheduledChunk(
+            @Param("before") LocalDateTime before,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") UUID cursorId,
+            Limit limit
+    );
 
+    /**
+     * Cancela um bloco limitado de agendamentos que ainda estejam SCHEDULED.
+     *
+     * @return total de registros alterados
+     */
     @Transactional
     @Modifying
-    @Query("UPDATE Appointment a SET a.status = 'CANCELLED' WHERE a.id IN :ids")
-    void cancelAppointmentsBatch(@Param("ids") List<UUID> ids);
+    @Query("UPDATE Appointment a SET a.status = 'CANCELLED' WHERE a.id IN :ids AND a.status = 'SCHEDULED'")
+    int cancelAppointmentsBatch(@Param("ids") List<UUID> ids);
+
+    /**
+     * Conflito com agendamento ativo do cliente.
+     */
+    default boolean hasOverlappingAppointmentForClient(UUID clientId, LocalDateTime start, LocalDateTime end) {
+        return hasOverlappingAppointmentForClient(clientId, overlapWindowStart(start), start, end);
+    }
 
+    /**
+     * Usa o índice parcial idx_appointments_active_client_end.
+     */
     @Query("""
     SELECT COUNT(a) > 0 FROM Appointment a
     WHERE a.client.id = :clientId
       AND a.status IN ('SCHEDULED', 'CONFIRMED')
-      AND a.start < :end
       AND a.end > :start
+      AND a.start >= :windowStart
+      AND a.start < :end
     """)
     boolean hasOverlappingAppointmentForClient(
             @Param("clientId") UUID clientId,
+            @Param("windowStart") LocalDateTime windowStart,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end
     );
 
+    /**
+     * Página da agenda da empresa por keyset em (start, id).
+     * O cursor inicial é (from, UUID zero); a condição em start é um range simples
+     * para usar o índice (company_id, start_appointment, id).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.AgendaRowDto(
+            a.id, a.start, a.end, a.status,
+            c.id, c.name, c.phone,
+            p.id, p.name, p.calendarId)
+        FROM Appointment a
+        JOIN a.client c
+        JOIN a.provider p
+        WHERE a.company.id = :companyId
+          AND a.start >= :cursorStart
+          AND (a.start > :cursorStart OR a.id > :cursorId)
+          AND a.start < :to
+        ORDER BY a.start, a.id
+        """)
+    List<AgendaRowDto> findAgendaPage(
+            @Param("companyId") UUID companyId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") UUID cursorId,
+            @Param("to") LocalDateTime to,
+            Limit limit
+    );
+
+    /**
+     * Página da agenda de um prestador por keyset em (start, id).
+     * Usa o índice (provider_id, start_appointment, id).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.AgendaRowDto(
+            a.id, a.start, a.end, a.status,
+            c.id, c.name, c.phone,
+            p.id, p.name, p.calendarId)
+        FROM Appointment a
+        JOIN a.client c
+        JOIN a.provider p
+        WHERE a.company.id = :companyId
+          AND a.provider.id = :providerId
+          AND a.start >= :cursorStart
+          AND (a.start > :cursorStart OR a.id > :cursorId)
+          AND a.start < :to
+        ORDER BY a.start, a.id
+        """)
+    List<AgendaRowDto> findAgendaPageByProvider(
+            @Param("companyId") UUID companyId,
+            @Param("providerId") UUID providerId,
+            @Param("cursorStart") LocalDateTime cursorStart,
+            @Param("cursorId") UUID cursorId,
+            @Param("to") LocalDateTime to,
+            Limit limit
+    );
+
+    /**
+     * Serviços dos agendamentos de uma página (uma única query para a página toda).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.AgendaServiceRowDto(
+            aps.id.appointmentId, s.id, s.name, aps.priceService)
+        FROM AppointmentService aps
+        JOIN aps.service s
+        WHERE aps.id.appointmentId IN :appointmentIds
+        """)
+    List<AgendaServiceRowDto> findAgendaServices(@Param("appointmentIds") List<UUID> appointmentIds);
+
+    /**
+     * Empresas com agendamentos a partir de :since, das mais movimentadas para as menos.
+     * Range em start_appointment: só as partições recentes são lidas.
+     */
+    @Query("""
+        SELECT a.company.id
+        FROM Appointment a
+        WHERE a.start >= :since
+        GROUP BY a.company.id
+        ORDER BY COUNT(a) DESC
+        """)
+    List<UUID> findRecentlyActiveCompanyIds(@Param("since") LocalDateTime since, Limit limit);
+
+    /**
+     * Agendamento com cliente, prestador e serviços em uma única query, para montar o
+     * detalhe dentro da transação (sem lazy loading depois dela).
+     */
+    @Query("""
+        SELECT DISTINCT a
+        FROM Appointment a
+        JOIN FETCH a.client
+        JOIN FETCH a.provider
+        LEFT JOIN FETCH a.appointmentServices link
+        LEFT JOIN FETCH link.service
+        WHERE a.id = :id
+        """)
+    Optional<Appointment> findDetailById(@Param("id") UUID id);
+
+    /**
+     * Períodos ocupados (agendamentos ativos) da empresa que sobrepõem [from, to).
+     */
+    default List<BusyIntervalDto> findBusyIntervals(UUID companyId, LocalDateTime from, LocalDateTime to) {
+        return findBusyIntervals(companyId, overlapWindowStart(from), from, to);
+    }
+
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.appointments.BusyIntervalDto(a.id, a.provider.id, a.start, a.end)
+        FROM Appointment a
+        WHERE a.company.id = :companyId
+          AND a.status IN ('SCHEDULED', 'CONFIRMED')
+          AND a.end > :from
+          AND a.start >= :windowStart
+          AND a.start < :to
+        """)
+    List<BusyIntervalDto> findBusyIntervals(
+            @Param("companyId") UUID companyId,
+            @Param("windowStart") LocalDateTime windowStart,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to
+    );
+
 }
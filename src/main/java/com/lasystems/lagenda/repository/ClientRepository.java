@@ -32,7 +32,16 @@ public interface ClientRepository extends JpaRepository<Client, UUID>, JpaSpecif
 //        ORDER BY c.name
 //    """)
 //    ClientDto findByPhone(@Param("phone") String phone);
-    @EntityGraph(attributePaths = {"appointments"})
+
+    /**
+     * Cliente com agendamentos, serviços de cada agendamento e o serviço em uma única query,
+     * para montar a resposta dentro da transação (sem lazy loading depois dela).
+     */
+    @EntityGraph(attributePaths = {
+            "appointments",
+            "appointments.appointmentServices",
+            "appointments.appointmentServices.service"
+    })
     Optional<Client> findByPhone(String phone);
 
 }
@@ -1,7 +1,10 @@
 package com.lasystems.lagenda.repository;
 
 import com.lasystems.lagenda.models.Plan;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
@@ -11,7 +14,8 @@ import java.util.Optional;
 public interface PlanRepository extends JpaRepository<Plan, String> {
 
     /**
-     * Busca plano pelo ID do Stripe.
+     * Busca plano pelo ID do Stripe (resultado no cache de queries do Hibernate).
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Plan> findByStripePriceId(String stripePriceId);
 }
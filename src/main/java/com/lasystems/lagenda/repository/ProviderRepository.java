@@ -2,7 +2,8 @@ package com.lasystems.lagenda.repository;
 
 import com.lasystems.lagenda.dtos.ProviderAvailableDto;
 import com.lasystems.lagenda.dtos.ProviderDto;
-import com.lasystems.lagenda.dtos.ProviderMinAppointmentsDto;
+import com.lasystems.lagenda.dtos.providers.ProviderDirectoryRowDto;
+import com.lasystems.lagenda.dtos.providers.ProviderSpecialtyRowDto;
 import com.lasystems.lagenda.models.Provider;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -10,10 +11,7 @@ import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 public interface ProviderRepository extends JpaRepository<Provider, UUID>, JpaSpecificationExecutor<Provider> {
@@ -21,30 +19,10 @@ public interface ProviderRepository extends JpaRepository<Provider, UUID>, JpaSp
     @Query("""
     SELECT c.name as name, c.calendarId as calendarId, c.phone as phone
     FROM Provider c
-    LEFT JOIN c.appointments a
     WHERE c.company.id = :id
     """)
     List<ProviderDto> findProvidersByCompany(@Param("id") UUID id);
 
-    @Query(value = """
-        SELECT p.id AS id, p.calendar_id AS calendarId
-            FROM providers p
-                LEFT JOIN appointments a ON a.provider_id = p.id
-                    AND a.status IN ('SCHEDULED', 'CONFIRMED')
-                    AND (a.start_appointment AT TIME ZONE 'America/Sao_Paulo')::date = :date
-                    AND a.company_id = :companyId
-                INNER JOIN provider_specialties ps ON p.id = ps.provider_id AND ps.specialty_id = :specialtyId
-            WHERE p.company_id = :companyId
-            GROUP BY p.id, p.calendar_id
-            ORDER BY COUNT(a.id) ASC
-            LIMIT 1
-        """, nativeQuery = true)
-    Optional<ProviderMinAppointmentsDto> findProviderWithLeastAppointments(
-            @Param("companyId") UUID companyId,
-            @Param("specialtyId") UUID specialtyId,
-            @Param("date") LocalDate date
-    );
-
 //    @Query(
 //            value = """
 //        SELECT p.id AS id, p.name AS name, p.calendarId AS calendarId
@@ -74,32 +52,24 @@ public interface ProviderRepository extends JpaRepository<Provider, UUID>, JpaSp
 //            @Param("endTime") LocalDateTime endTime
 //    );
 
+    /**
+     * Prestadores da empresa para o diretório em memória (ProviderDirectory).
+     */
     @Query("""
-        SELECT p FROM Provider p
-        JOIN ProviderSpecialist ps ON ps.provider = p AND ps.specialist.id = :specialtyId
+        SELECT new com.lasystems.lagenda.dtos.providers.ProviderDirectoryRowDto(p.id, p.calendarId)
+        FROM Provider p
         WHERE p.company.id = :companyId
-          AND NOT EXISTS (
-            SELECT 1 FROM Appointment a
-            WHERE a.provider = p
-              AND a.status IN ('SCHEDULED', 'CONFIRMED')
-              AND a.start < :end
-              AND a.end > :start
-          )
+        ORDER BY p.id
         """)
-    List<Provider> findAvailableProviders(
-            @Param("companyId") UUID companyId,
-            @Param("specialtyId") UUID specialtyId,
-            @Param("start") LocalDateTime start,
-            @Param("end") LocalDateTime end
-    );
+    List<ProviderDirectoryRowDto> findDirectoryRows(@Param("companyId") UUID companyId);
 
+    /**
+     * Vínculos prestador → especialidade da empresa para o diretório em memória.
+     */
     @Query("""
-        SELECT p FROM Provider p
-        JOIN ProviderSpecialist ps ON ps.provider = p AND ps.specialist.id = :specialtyId
-        WHERE p.company.id = :companyId
+        SELECT new com.lasystems.lagenda.dtos.providers.ProviderSpecialtyRowDto(ps.provider.id, ps.specialist.id)
+        FROM ProviderSpecialist ps
+        WHERE ps.provider.company.id = :companyId
         """)
-    List<Provider> findProvidersBySpecialty(
-            @Param("companyId") UUID companyId,
-            @Param("specialtyId") UUID specialtyId
-    );
+    List<ProviderSpecialtyRowDto> findDirectorySpecialtyRows(@Param("companyId") UUID companyId);
 }
@@ -1,5 +1,7 @@
 package com.lasystems.lagenda.repository;
 
+import com.lasystems.lagenda.dtos.services.ServiceCatalogRowDto;
+import com.lasystems.lagenda.dtos.services.ServiceSpecialtyRowDto;
 import com.lasystems.lagenda.models.Service;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -28,4 +30,26 @@ public interface ServiceRepository extends JpaRepository<Service, UUID>, JpaSpec
 
     @Query("SELECT SUM(s.durationMinutes) FROM Service s WHERE s.id IN :serviceIds")
     Integer getTotalDuration(@Param("serviceIds") List<UUID> serviceIds);
+
+    /**
+     * Serviços da empresa para o catálogo em memória (ServiceCatalog).
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.services.ServiceCatalogRowDto(
+            s.id, s.name, s.price, s.durationMinutes)
+        FROM Service s
+        WHERE s.company.id = :companyId
+        """)
+    List<ServiceCatalogRowDto> findCatalogRows(@Param("companyId") UUID companyId);
+
+    /**
+     * Vínculos serviço → especialidade da empresa para o catálogo em memória.
+     */
+    @Query("""
+        SELECT new com.lasystems.lagenda.dtos.services.ServiceSpecialtyRowDto(
+            ssp.service.id, ssp.specialist.id)
+        FROM ServiceSpecialties ssp
+        WHERE ssp.specialist.company.id = :companyId
+        """)
+    List<ServiceSpecialtyRowDto> findCatalogSpecialtyRows(@Param("companyId") UUID companyId);
 }
@@ -1,8 +1,11 @@
 package com.lasystems.lagenda.repository;
 
 import com.lasystems.lagenda.models.Specialist;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
@@ -10,9 +13,11 @@ import java.util.UUID;
 
 public interface SpecialtyRepository extends JpaRepository<Specialist, UUID> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT s FROM Specialist s WHERE s.id = :id AND s.company.id = :companyId")
     Optional<Specialist> findByIdAndCompany(@Param("id") UUID id, @Param("companyId") UUID companyId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT COUNT(s) > 0 FROM Specialist s WHERE s.id = :id AND s.company.id = :companyId")
     boolean existsByIdAndCompany(@Param("id") UUID id, @Param("companyId") UUID companyId);
 }
@@ -55,7 +55,13 @@ public class SecurityConfig {
                 // Configurar autorização de endpoints
                 .authorizeHttpRequests(auth -> auth
                         // Endpoints públicos (sem autenticação)
-                        .requestMatchers("/health", "/actuator/**").permitAll()
+                        .requestMatchers("/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        // Administração de caches: só API keys com a permissão caches:admin
+                        .requestMatchers("/actuator/companycaches/**").hasAuthority("caches:admin")
+                        // Movimentação de empresas entre shards: permissão shards:admin
+                        .requestMatchers("/actuator/tenantshards/**").hasAuthority("shards:admin")
+                        // Métricas (inclui estatísticas de cache) só com autenticação
+                        .requestMatchers("/actuator/**").authenticated()
                         .requestMatchers("/debug/**").permitAll() // REMOVER EM PRODUÇÃO!
                         .requestMatchers("/bootstrap/**").permitAll() // Bootstrap inicial
 
@@ -0,0 +1,283 @@
+package com.lasystems.lagenda.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.lasystems.lagenda.config.TenantContext;
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import com.lasystems.lagenda.exceptions.InvalidParameterException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+/**
+ * Exportação de agendamentos (um registro por serviço, com price_service).
+ * Lê com cursor JDBC forward-only e escreve direto no OutputStream, sem passar
+ * pelo contexto de persistência: o uso de heap é constante independente do volume.
+ */
+@Slf4j
+@Service
+public class AppointmentExportService {
+
+    /**
+     * Formatos de exportação suportados.
+     */
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return name().toLowerCase();
+        }
+
+        /**
+         * Formato a partir do parâmetro da requisição (sem diferenciar maiúsculas).
+         */
+        public static Format fromParam(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidParameterException(
+                    String.format("Formato de exportação inválido: '%s' (use csv ou ndjson)", value));
+        }
+    }
+
+    private static final String[] COLUMNS = {
+            "appointment_id", "start", "end", "status", "client_name", "client_phone",
+            "provider_name", "service_name", "price_service"
+    };
+
+    private static final ZoneId ZONE = ZoneId.of(AppointmentsConstants.DEFAULT_TIMEZONE);
+
+    // Datas no horário de São Paulo, como no restante da API (inclusive no período from/to).
+    // Inclui o histórico movido para o arquivo frio (appointments_archive).
+    private static final String EXPORT_SQL = """
+            SELECT a.id,
+                   a.start_appointment AT TIME ZONE 'America/Sao_Paulo' AS start_local,
+                   a.end_appointment AT TIME ZONE 'America/Sao_Paulo' AS end_local,
+                   a.status,
+                   c.name AS client_name,
+                   c.phone AS client_phone,
+                   p.name AS provider_name,
+                   s.name AS service_name,
+                   aps.price_service
+            FROM (
+                SELECT id, client_id, provider_id, status, start_appointment, end_appointment
+                FROM appointments
+                WHERE company_id = ? AND start_appointment >= ? AND start_appointment < ?
+                UNION ALL
+                SELECT id, client_id, provider_id, status, start_appointment, end_appointment
+                FROM appointments_archive
+                WHERE company_id = ? AND start_appointment >= ? AND start_appointment < ?
+            ) a
+            JOIN clients c ON c.id = a.client_id
+            JOIN providers p ON p.id = a.provider_id
+            JOIN (
+                SELECT appointment_id, service_id, price_service FROM appointment_services
+                UNION ALL
+                SELECT appointment_id, service_id, price_service FROM appointment_services_archive
+            ) aps ON aps.appointment_id = a.id
+            JOIN services s ON s.id = aps.service_id
+            ORDER BY a.start_appointment, a.id
+            """;
+
+    private final DataSource dataSource;
+    private final int fetchSize;
+
+    public AppointmentExportService(
+            DataSource dataSource,
+            @Value("${export.appointments.fetch-size:1000}") int fetchSize
+    ) {
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Escreve os agendamentos da empresa no período [from, to), em horário de São Paulo,
+     * no stream informado.
+     *
+     * @return total de linhas exportadas
+     */
+    public long export(
+            UUID companyId,
+            LocalDateTime from,
+            LocalDateTime to,
+            Format format,
+            OutputStream out
+    ) throws IOException {
+        log.info("Exportando agendamentos: company={}, from={}, to={}, format={}", companyId, from, to, format);
+
+        // Roda na thread do StreamingResponseBody, fora do escopo aberto pelo filtro
+        TenantContext.Handle tenant = TenantContext.enterTenant(companyId);
+        try (Connection connection = dataSource.getConnection()) {
+            // O driver do PostgreSQL só usa cursor (respeitando fetchSize) fora de autocommit
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+
+            try (PreparedStatement ps = connection.prepareStatement(
+                    EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                // Mesmo filtro para a tabela quente e para o arquivo
+                for (int offset = 0; offset <= 3; offset += 3) {
+                    ps.setObject(offset + 1, companyId);
+                    ps.setObject(offset + 2, from.atZone(ZONE).toOffsetDateTime());
+                    ps.setObject(offset + 3, to.atZone(ZONE).toOffsetDateTime());
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    long rows = format == Format.CSV ? writeCsv(rs, out) : writeNdjson(rs, out);
+                    connection.commit();
+                    log.info("Exportação concluída: company={}, linhas={}", companyId, rows);
+                    return rows;
+                }
+            } catch (SQLException | IOException | RuntimeException e) {
+                rollbackQuietly(connection, e);
+                throw e;
+            } finally {
+                restoreQuietly(connection, autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Erro ao exportar agendamentos", e);
+        } finally {
+            tenant.close();
+        }
+    }
+
+    // Falha no rollback não pode esconder o erro original
+    private static void rollbackQuietly(Connection connection, Exception cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Devolve a conexão como veio: só o Hikari restaura autocommit e readOnly por conta própria.
+    // Uma conexão já quebrada não pode esconder o resultado da exportação
+    private static void restoreQuietly(Connection connection, boolean autoCommit) {
+        try {
+            connection.setReadOnly(false);
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException e) {
+            log.warn("Falha ao restaurar a conexão após a exportação: {}", e.getMessage());
+        }
+    }
+
+    private long writeCsv(ResultSet rs, OutputStream out) throws SQLException, IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write('\n');
+
+        long rows = 0;
+        while (rs.next()) {
+            writer.write(rs.getString(1));
+            writer.write(',');
+            writer.write(formatDateTime(rs.getObject(2, LocalDateTime.class)));
+            writer.write(',');
+            writer.write(formatDateTime(rs.getObject(3, LocalDateTime.class)));
+            writer.write(',');
+            writeCsvValue(writer, rs.getString(4));
+            writer.write(',');
+            writeCsvValue(writer, rs.getString(5));
+            writer.write(',');
+            writeCsvValue(writer, rs.getString(6));
+            writer.write(',');
+            writeCsvValue(writer, rs.getString(7));
+            writer.write(',');
+            writeCsvValue(writer, rs.getString(8));
+            writer.write(',');
+            BigDecimal price = rs.getBigDecimal(9);
+            writer.write(price != null ? price.toPlainString() : "");
+            writer.write('\n');
+            rows++;
+        }
+
+        writer.flush();
+        return rows;
+    }
+
+    private long writeNdjson(ResultSet rs, OutputStream out) throws SQLException, IOException {
+        long rows = 0;
+
+        try (JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // Não fechar o stream da resposta junto com o gerador
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            while (rs.next()) {
+                json.writeStartObject();
+                json.writeStringField(COLUMNS[0], rs.getString(1));
+                json.writeStringField(COLUMNS[1], formatDateTime(rs.getObject(2, LocalDateTime.class)));
+                json.writeStringField(COLUMNS[2], formatDateTime(rs.getObject(3, LocalDateTime.class)));
+                json.writeStringField(COLUMNS[3], rs.getString(4));
+                json.writeStringField(COLUMNS[4], rs.getString(5));
+                json.writeStringField(COLUMNS[5], rs.getString(6));
+                json.writeStringField(COLUMNS[6], rs.getString(7));
+                json.writeStringField(COLUMNS[7], rs.getString(8));
+                BigDecimal price = rs.getBigDecimal(9);
+                if (price != null) {
+                    json.writeNumberField(COLUMNS[8], price);
+                } else {
+                    json.writeNullField(COLUMNS[8]);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                rows++;
+            }
+
+            json.flush();
+        }
+
+        return rows;
+    }
+
+    private static String formatDateTime(LocalDateTime value) {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * Escreve valor CSV escapando aspas, vírgulas e quebras de linha (RFC 4180).
+     */
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
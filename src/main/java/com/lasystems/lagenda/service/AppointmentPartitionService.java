@@ -0,0 +1,103 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.config.TenantShardMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manutenção das partições mensais de appointments (ver V3__partition_appointments.sql).
+ * Cria antecipadamente as partições dos próximos meses e move o histórico
+ * COMPLETED/CANCELLED anterior à janela de retenção para appointments_archive,
+ * mantendo as partições quentes pequenas. Com shards por empresa, roda em cada shard.
+ */
+@Slf4j
+@Service
+public class AppointmentPartitionService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantShardMap shardMap;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public AppointmentPartitionService(
+            JdbcTemplate jdbcTemplate,
+            TenantShardMap shardMap,
+            @Value("${jobs.appointment-partitions.months-ahead:3}") int monthsAhead,
+            @Value("${jobs.appointment-partitions.retention-months:12}") int retentionMonths
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardMap = shardMap;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Garante as partições futuras logo na subida, antes do primeiro agendamento.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Execução agendada (padrão: diariamente às 01:30).
+     */
+    @Scheduled(cron = "${jobs.appointment-partitions.cron:0 30 1 * * *}")
+    public void scheduledRun() {
+        ensurePartitions();
+        archiveHistory();
+    }
+
+    /**
+     * Cria as partições do mês atual até monthsAhead meses à frente.
+     *
+     * @return quantidade de partições criadas
+     */
+    public int ensurePartitions() {
+        AtomicInteger total = new AtomicInteger();
+        shardMap.forEachShard(shard -> {
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT appointments_ensure_partitions(now(), ?)", Integer.class, monthsAhead);
+            if (created != null && created > 0) {
+                log.info("Partições de appointments criadas no shard {}: {}", shard, created);
+                total.addAndGet(created);
+            }
+        });
+        return total.get();
+    }
+
+    /**
+     * Move para o arquivo frio o histórico anterior ao primeiro dia do mês
+     * de corte (mês atual - retentionMonths) e remove as partições que ficaram vazias.
+     *
+     * @return quantidade de agendamentos arquivados
+     */
+    public long archiveHistory() {
+        // Limite em UTC, mesma convenção do hibernate.jdbc.time_zone
+        OffsetDateTime cutoff = LocalDate.now(ZoneOffset.UTC)
+                .withDayOfMonth(1)
+                .minusMonths(retentionMonths)
+                .atStartOfDay()
+                .atOffset(ZoneOffset.UTC);
+
+        AtomicLong total = new AtomicLong();
+        shardMap.forEachShard(shard -> {
+            Long archived = jdbcTemplate.queryForObject(
+                    "SELECT appointments_archive_before(?)", Long.class, cutoff);
+            log.info("Agendamentos arquivados no shard {} anteriores a {}: {}", shard, cutoff, archived);
+            total.addAndGet(archived != null ? archived : 0L);
+        });
+        return total.get();
+    }
+}
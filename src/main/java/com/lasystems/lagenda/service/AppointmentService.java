@@ -1,25 +1,37 @@
 package com.lasystems.lagenda.service;
 
+import com.lasystems.lagenda.cache.CompanySchedule;
+import com.lasystems.lagenda.cache.FreeSlotCalendar;
+import com.lasystems.lagenda.cache.ProviderDirectory;
+import com.lasystems.lagenda.cache.ServiceCatalog;
 import com.lasystems.lagenda.constants.AppointmentsConstants;
-import com.lasystems.lagenda.dtos.ProviderMinAppointmentsDto;
-import com.lasystems.lagenda.dtos.SchedulingResult;
+import com.lasystems.lagenda.dtos.*;
+import com.lasystems.lagenda.dtos.appointments.AgendaRowDto;
+import com.lasystems.lagenda.dtos.appointments.AgendaServiceRowDto;
+import com.lasystems.lagenda.dtos.appointments.AvailabilityReason;
 import com.lasystems.lagenda.dtos.appointments.AvailableTimesDto;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.dtos.appointments.ProviderLoadDto;
 import com.lasystems.lagenda.dtos.request.AppointmentChangeRequest;
 import com.lasystems.lagenda.dtos.request.AppointmentRequest;
+import com.lasystems.lagenda.dtos.request.BatchAvailabilityRequest;
 import com.lasystems.lagenda.exceptions.EntityNotFoundException;
+import com.lasystems.lagenda.exceptions.InvalidParameterException;
 import com.lasystems.lagenda.exceptions.NoProviderAvailableException;
 import com.lasystems.lagenda.models.*;
 import com.lasystems.lagenda.models.enums.AppointmentStatus;
 import com.lasystems.lagenda.repository.AppointmentRepository;
-import com.lasystems.lagenda.repository.ProviderRepository;
-import com.lasystems.lagenda.repository.ServiceRepository;
 import com.lasystems.lagenda.util.ConvertAndFormatUtil;
+import com.lasystems.lagenda.util.SearchDeadline;
 import com.lasystems.lagenda.validators.UUIDValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -39,13 +51,15 @@ public class AppointmentService {
 
     private final AppointmentRepository appointmentRepository;
     private final AppointmentValidationService validationService;
-    private final ProviderRepository providerRepository;
-    private final ServiceRepository serviceRepository;
     private final ClientService clientService;
     private final ProviderService providerService;
     private final ServiceService serviceService;
-    private final BusinessHourService businessHourService;
+    private final CompanyScheduleService companyScheduleService;
+    private final ServiceCatalogService serviceCatalogService;
+    private final ProviderDirectoryService providerDirectoryService;
     private final N8nIntegrationService n8nIntegrationService;
+    private final FreeSlotCalendarService freeSlotCalendarService;
+    private final SlotSearchBudget slotSearchBudget;
 
     /**
      * Cria um novo agendamento.
@@ -54,13 +68,16 @@ public class AppointmentService {
     public Appointment createAppointment(AppointmentRequest request) {
         log.info("Iniciando criação de agendamento para cliente {}", request.clientId());
 
-        // 1. Resolver prestador (fornecido ou automático)
-        Provider provider = resolveProvider(request);
+        // 1. Duração e preço vêm do catálogo em memória, antes de qualquer ida ao banco
+        UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
+        List<UUID> serviceIds = UUIDValidator.parseList(request.serviceIds(), "serviceIds");
+        ServiceCatalog catalog = serviceCatalogService.getCatalog(companyId);
+        int durationMinutes = catalog.totalDuration(serviceIds);
 
-        // 2. Buscar serviços e cliente
-        List<com.lasystems.lagenda.models.Service> services =
-                serviceService.findAllById(request.serviceIds());
-        int durationMinutes = serviceRepository.getTotalDuration(UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
+        // 2. Prestador (fornecido ou escolhido pelo diretório em memória) e serviços saem do
+        // cache de segundo nível quando aquecido; só o cliente é sempre lido do banco
+        Provider provider = resolveProvider(request);
+        List<com.lasystems.lagenda.models.Service> services = serviceService.findAllByIdCached(serviceIds);
         Client client = clientService.findById(request.clientId());
 
         // 3. Calcular período do agendamento
@@ -68,9 +85,10 @@ public class AppointmentService {
         LocalDateTime end = start.plusMinutes(durationMinutes);
         UUID specialtyId = UUIDValidator.parseOrThrow(request.specialistId(), "specialistId");
 
-        // 4. Validar disponibilidade
+        // 4. Validar duração e disponibilidade
+        validationService.validateDuration(start, end);
         validationService.validateSlotAvailability(
-                UUID.fromString(request.companyId()),
+                companyId,
                 provider.getId(),
                 start,
                 end,
@@ -80,7 +98,7 @@ public class AppointmentService {
         validationService.validateClientAvailability(client.getId(), start, end);
 
         // 5. Criar agendamento
-        Appointment appointment = buildAppointment(client, provider, services, start, end);
+        Appointment appointment = buildAppointment(client, provider, services, catalog.totalPrice(serviceIds), start, end);
         Appointment saved = save(appointment);
 
         // 6. Notificar sistemas externos
@@ -100,12 +118,16 @@ public class AppointmentService {
         Appointment appointment = findById(request.appointmentId());
 
         Set<com.lasystems.lagenda.models.AppointmentService> appointmentServices = appointment.getAppointmentServices();  //serviceService.findAllById(request.serviceIds());
-        int durationMinutes = serviceRepository.getTotalDuration(UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
+        ServiceCatalog catalog = serviceCatalogService.getCatalog(appointment.getCompany().getId());
+        int durationMinutes = catalog.totalDuration(UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
 
         LocalDateTime newStart = request.start();
         LocalDateTime newEnd = newStart.plusMinutes(durationMinutes);
         UUID specialtyId = UUIDValidator.parseOrThrow(request.specialistId(), "specialistId");
 
+        // A duração depende dos serviços, então é validada mesmo sem mudança de horário
+        validationService.validateDuration(newStart, newEnd);
+
         // Validar disponibilidade apenas se horário mudou
         if (!validationService.isSameTimeSlot(appointment.getStart(), newStart)) {
             validationService.validateSlotAvailability(
@@ -118,7 +140,10 @@ public class AppointmentService {
         }
 
         // Atualizar dados
-        updateAppointmentDetails(appointment, appointmentServices, newStart, newEnd);
+        BigDecimal totalPrice = catalog.totalPrice(appointmentServices.stream()
+                .map(link -> link.getId().getServiceId())
+                .toList());
+        updateAppointmentDetails(appointment, appointmentServices, totalPrice, newStart, newEnd);
         Appointment updated = save(appointment);
 
         // Notificar atualização
@@ -147,32 +172,9 @@ public class AppointmentService {
         return updated;
     }
 
-    /**
-     * Finaliza agendamentos passados que ainda estão como SCHEDULED.
-     */
-    @Transactional
-    public List<Appointment> finalizeMissedAppointments() {
-        log.info("Finalizando agendamentos perdidos");
-
-        List<Appointment> pastAppointments = appointmentRepository.pastAppointmentsScheduled();
-
-        if (pastAppointments.isEmpty()) {
-            log.info("Nenhum agendamento perdido encontrado");
-            return List.of();
-        }
-
-        List<UUID> ids = pastAppointments.stream()
-                .map(Appointment::getId)
-                .toList();
-
-        appointmentRepository.cancelAppointmentsBatch(ids);
-
-        log.info("Total de {} agendamentos finalizados", ids.size());
-        return pastAppointments;
-    }
-
     /**
      * Busca o próximo dia com horários disponíveis.
+     * Sem coalescência: os endpoints passam por {@link AvailabilitySearchService}.
      */
     @Transactional(readOnly = true)
     public Optional<AvailableTimesDto> findNextAvailableTimes(
@@ -182,11 +184,18 @@ public class AppointmentService {
     ) {
         log.debug("Buscando próximos horários disponíveis para company={}", companyId);
 
-        int durationMinutes = serviceRepository.getTotalDuration(serviceIds);
+        int durationMinutes = serviceCatalogService.getCatalog(companyId).totalDuration(serviceIds);
         LocalDate date = targetDate;
 
+        // Com o calendário materializado cada dia é uma consulta em memória; sem ele, busca ao vivo
+        Optional<FreeSlotCalendar> calendar = freeSlotCalendarService.findUsable(
+                companyId, targetDate, targetDate.plusDays(AppointmentsConstants.MAX_SEARCH_DAYS_AHEAD - 1));
+
         for (int i = 0; i < AppointmentsConstants.MAX_SEARCH_DAYS_AHEAD; i++) {
-            List<LocalTime> available = getAvailableTimesForDay(companyId, date, durationMinutes);
+            LocalDate day = date;
+            List<LocalTime> available = calendar
+                    .map(c -> c.freeSlots(day, durationMinutes))
+                    .orElseGet(() -> getAvailableTimesForDay(companyId, day, durationMinutes));
             if (!available.isEmpty()) {
                 return Optional.of(new AvailableTimesDto(date, available));
             }
@@ -197,32 +206,168 @@ public class AppointmentService {
     }
 
     /**
-     * Encontra o melhor slot disponível baseado nos critérios da requisição.
+     * Encontra o melhor slot disponível dentro do prazo informado. Se o prazo vencer, devolve
+     * o melhor resultado encontrado até ali, marcado como parcial.
+     * Sem coalescência: os endpoints passam por {@link AvailabilitySearchService}.
      */
     @Transactional(readOnly = true)
-    public Optional<SchedulingResult> findBestSlot(AppointmentRequest request) {
+    public SlotSearchResult findBestSlot(AppointmentRequest request, Duration budget) {
         log.debug("Buscando melhor slot para request: {}", request);
 
 //        UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
         UUID specialtyId = getOrInferSpecialtyId(request);
 
-        Integer totalDuration = serviceRepository.getTotalDuration(
-                UUIDValidator.parseList(request.serviceIds(), "serviceIds")
-        );
+        Integer totalDuration = serviceCatalogService
+                .getCatalog(UUIDValidator.parseOrThrow(request.companyId(), "companyId"))
+                .totalDuration(UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
         if (totalDuration == null) {
             totalDuration = AppointmentsConstants.DEFAULT_SLOT_DURATION_MINUTES;
         }
 
+        SearchDeadline deadline = slotSearchBudget.start(budget);
+        String scenario;
+        Optional<SchedulingResult> slot;
+
         // Determinar cenário e buscar slot apropriado
         if (request.start() != null && request.providerId() != null) {
-            return findBestSlotWithDateTimeAndProvider(request, specialtyId, totalDuration);
+            scenario = "date-time-provider";
+            slot = findBestSlotWithDateTimeAndProvider(request, specialtyId, totalDuration, deadline);
         } else if (request.start() != null) {
-            return findBestSlotWithDateTime(request, specialtyId, totalDuration);
+            scenario = "date-time";
+            slot = findBestSlotWithDateTime(request, specialtyId, totalDuration);
         } else if (request.providerId() != null) {
-            return findBestSlotWithProvider(request, specialtyId, totalDuration);
+            scenario = "provider";
+            slot = findBestSlotWithProvider(request, specialtyId, totalDuration, deadline);
         } else {
-            return findBestSlotAutomatic(request, specialtyId, totalDuration);
+            scenario = "automatic";
+            slot = findBestSlotAutomatic(request, specialtyId, totalDuration, deadline);
+        }
+
+        if (deadline.wasHit()) {
+            slotSearchBudget.recordTruncated(scenario);
+            log.info("Busca de melhor slot ({}) interrompida pelo prazo de {}", scenario, budget);
+        }
+        return SlotSearchResult.of(slot, deadline.wasHit());
+    }
+
+    /**
+     * Verifica vários horários candidatos de uma vez: uma única consulta dos agendamentos
+     * que cobrem todos os candidatos e as verificações em memória (horário comercial e
+     * fechamentos vêm dos snapshots em cache).
+     */
+    @Transactional(readOnly = true)
+    public BatchAvailabilityResponse checkAvailabilityBatch(BatchAvailabilityRequest request) {
+        UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
+
+        List<BatchAvailabilityRequest.Candidate> candidates = request.candidates();
+        List<LocalDateTime> ends = new ArrayList<>(candidates.size());
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (BatchAvailabilityRequest.Candidate candidate : candidates) {
+            int duration = resolveDurationMinutes(companyId, UUIDValidator.parseList(candidate.serviceIds(), "serviceIds"));
+            LocalDateTime end = candidate.start().plusMinutes(duration);
+            ends.add(end);
+            from = from == null || candidate.start().isBefore(from) ? candidate.start() : from;
+            to = to == null || end.isAfter(to) ? end : to;
+        }
+
+        List<BusyIntervalDto> busy = appointmentRepository.findBusyIntervals(companyId, from, to);
+
+        List<BatchAvailabilityResponse.Item> results = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            BatchAvailabilityRequest.Candidate candidate = candidates.get(i);
+            UUID providerId = candidate.providerId() != null
+                    ? UUIDValidator.parseOrThrow(candidate.providerId(), "providerId")
+                    : null;
+            AvailabilityReason reason = validationService.evaluateSlot(
+                    companyId, providerId, candidate.start(), ends.get(i), busy);
+            results.add(new BatchAvailabilityResponse.Item(
+                    i,
+                    providerId,
+                    candidate.start(),
+                    ends.get(i),
+                    reason == AvailabilityReason.AVAILABLE,
+                    reason
+            ));
+        }
+
+        log.debug("Verificação em lote: company={}, candidatos={}", companyId, candidates.size());
+        return new BatchAvailabilityResponse(results);
+    }
+
+    /**
+     * Lista a agenda da empresa (opcionalmente de um prestador) em um período,
+     * paginada por keyset em (start, id).
+     * Executa sempre duas queries: a página de agendamentos e os serviços da página.
+     *
+     * @param cursorStart início do último item da página anterior (null na primeira página)
+     * @param cursorId    id do último item da página anterior (null na primeira página)
+     */
+    @Transactional(readOnly = true)
+    public AgendaPageResponse listAgenda(
+            UUID companyId,
+            UUID providerId,
+            LocalDateTime from,
+            LocalDateTime to,
+            LocalDateTime cursorStart,
+            UUID cursorId,
+            int size
+    ) {
+        if (from == null || to == null || !to.isAfter(from)) {
+            throw new InvalidParameterException("Período inválido: 'to' deve ser posterior a 'from'");
+        }
+        if ((cursorStart == null) != (cursorId == null)) {
+            throw new InvalidParameterException("cursorStart e cursorId devem ser informados juntos");
+        }
+
+        int pageSize = Math.max(1, Math.min(size, AppointmentsConstants.AGENDA_MAX_PAGE_SIZE));
+
+        // Primeira página: cursor em (from, UUID zero), que precede qualquer id real
+        LocalDateTime seekStart = cursorStart != null ? cursorStart : from;
+        UUID seekId = cursorId != null ? cursorId : new UUID(0L, 0L);
+
+        // Busca um item a mais para saber se existe próxima página
+        Limit limit = Limit.of(pageSize + 1);
+        List<AgendaRowDto> rows = providerId != null
+                ? appointmentRepository.findAgendaPageByProvider(companyId, providerId, seekStart, seekId, to, limit)
+                : appointmentRepository.findAgendaPage(companyId, seekStart, seekId, to, limit);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        Map<UUID, List<String>> servicesByAppointment = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<UUID> ids = rows.stream().map(AgendaRowDto::id).toList();
+            for (AgendaServiceRowDto service : appointmentRepository.findAgendaServices(ids)) {
+                servicesByAppointment
+                        .computeIfAbsent(service.appointmentId(), k -> new ArrayList<>())
+                        .add(service.name());
+            }
         }
+
+        List<AgendaItemResponse> items = rows.stream()
+                .map(row -> new AgendaItemResponse(
+                        row.id(),
+                        row.start(),
+                        row.end(),
+                        row.status().name(),
+                        new ClientSummary(row.clientId(), row.clientName(), row.clientPhone()),
+                        new ProviderSummary(row.providerId(), row.providerName(), row.providerCalendarId()),
+                        servicesByAppointment.getOrDefault(row.id(), List.of())
+                ))
+                .toList();
+
+        AgendaRowDto last = hasMore ? rows.get(rows.size() - 1) : null;
+
+        return new AgendaPageResponse(
+                items,
+                items.size(),
+                hasMore,
+                last != null ? last.start() : null,
+                last != null ? last.id() : null
+        );
     }
 
     // ==================== MÉTODOS PRIVADOS ====================
@@ -249,7 +394,7 @@ public class AppointmentService {
             );
         }
 
-        return providerService.findById(bestProvider.get().getId().toString());
+        return providerService.findById(bestProvider.get().id().toString());
     }
 
     /**
@@ -259,6 +404,7 @@ public class AppointmentService {
             Client client,
             Provider provider,
             List<com.lasystems.lagenda.models.Service> services,
+            BigDecimal totalPrice,
             LocalDateTime start,
             LocalDateTime end
     ) {
@@ -272,7 +418,7 @@ public class AppointmentService {
                 start.format(timeFormatter),
                 services.stream().map(com.lasystems.lagenda.models.Service::getName)
                         .collect(Collectors.joining(", ")),
-                ConvertAndFormatUtil.calcularValorTotalFormatado(services)
+                ConvertAndFormatUtil.formatarMoeda(totalPrice)
         );
 
         Appointment appointment = Appointment.builder()
@@ -296,6 +442,7 @@ public class AppointmentService {
     private void updateAppointmentDetails(
             Appointment appointment,
             Set<com.lasystems.lagenda.models.AppointmentService> appointmentServices,
+            BigDecimal totalPrice,
             LocalDateTime start,
             LocalDateTime end
     ) {
@@ -309,7 +456,7 @@ public class AppointmentService {
                 start.format(timeFormatter),
                 appointmentServices.stream().map(a -> a.getService().getName())
                         .collect(Collectors.joining(", ")),
-                ConvertAndFormatUtil.calcularValorTotalFormatado(appointmentServices.stream().map(com.lasystems.lagenda.models.AppointmentService::getService).toList())
+                ConvertAndFormatUtil.formatarMoeda(totalPrice)
         );
 
         appointment.setStart(start);
@@ -350,30 +497,18 @@ public class AppointmentService {
             LocalDate date,
             int durationMinutes
     ) {
-        Integer dayOfWeek = businessHourService.toDatabaseDayOfWeek(date.getDayOfWeek());
-        List<BusinessHour> businessHours =
-                businessHourService.findByCompanyIdAndDayOfWeek(companyId, dayOfWeek);
-
-        if (businessHours.isEmpty()) {
-            return List.of();
-        }
-
-        List<LocalTime> slots = new ArrayList<>();
-
-        for (BusinessHour bh : businessHours) {
-            LocalTime slotTime = bh.getStartTime();
-
-            while (slotTime.plusMinutes(durationMinutes).isBefore(bh.getEndTime()) ||
-                    slotTime.plusMinutes(durationMinutes).equals(bh.getEndTime())) {
-                slots.add(slotTime);
-                slotTime = slotTime.plusMinutes(AppointmentsConstants.SLOT_INTERVAL_MINUTES);
+        // Template de slots já ordenado, pré-compilado por duração no snapshot da empresa
+        int[] slotStarts = companyScheduleService.getSchedule(companyId)
+                .slotStarts(CompanySchedule.toDayOfWeek(date), durationMinutes);
+
+        List<LocalTime> available = new ArrayList<>(slotStarts.length);
+        for (int minuteOfDay : slotStarts) {
+            LocalTime time = LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+            if (isTimeSlotAvailable(companyId, date, time, durationMinutes)) {
+                available.add(time);
             }
         }
-
-        return slots.stream()
-                .filter(time -> isTimeSlotAvailable(companyId, date, time, durationMinutes))
-                .sorted()
-                .toList();
+        return available;
     }
 
     /**
@@ -399,10 +534,9 @@ public class AppointmentService {
             return UUIDValidator.parseOrThrow(request.specialistId(), "specialistId");
         }
 
-        UUID specialtyId = serviceRepository.findCommonSpecialtyForServices(
-                UUIDValidator.parseList(request.serviceIds(), "serviceIds"),
-                UUIDValidator.parseOrThrow(request.companyId(), "companyId")
-        );
+        UUID specialtyId = serviceCatalogService
+                .getCatalog(UUIDValidator.parseOrThrow(request.companyId(), "companyId"))
+                .commonSpecialtyId(UUIDValidator.parseList(request.serviceIds(), "serviceIds"));
 
         if (specialtyId == null) {
             throw new IllegalArgumentException("Não foi possível determinar a especialidade");
@@ -417,7 +551,8 @@ public class AppointmentService {
     private Optional<SchedulingResult> findBestSlotWithDateTimeAndProvider(
             AppointmentRequest request,
             UUID specialtyId,
-            int duration
+            int duration,
+            SearchDeadline deadline
     ) {
         LocalDateTime start = request.start();
         LocalDateTime end = start.plusMinutes(duration);
@@ -429,7 +564,7 @@ public class AppointmentService {
             return Optional.of(new SchedulingResult(providerId, start));
         } catch (Exception e) {
             log.debug("Slot não disponível, buscando próximo: {}", e.getMessage());
-            return findNextAvailableForProvider(companyId, providerId, specialtyId, start.toLocalDate(), duration);
+            return findNextAvailableForProvider(companyId, providerId, specialtyId, start.toLocalDate(), duration, deadline);
         }
     }
 
@@ -445,19 +580,34 @@ public class AppointmentService {
         LocalDateTime end = start.plusMinutes(duration);
         UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
 
-        List<Provider> availableProviders = providerRepository.findAvailableProviders(
-                companyId, specialtyId, start, end
-        );
+        // Candidatos da especialidade pelo diretório em memória; o banco só informa quem está ocupado
+        ProviderDirectory directory = providerDirectoryService.getDirectory(companyId);
+        List<UUID> qualified = directory.providerIds(directory.qualifiedFor(specialtyId));
+        if (qualified.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<UUID> busy = new HashSet<>(appointmentRepository.findBusyProviderIds(qualified, start, end));
+        List<UUID> availableProviders = qualified.stream()
+                .filter(id -> !busy.contains(id))
+                .toList();
 
         if (availableProviders.isEmpty()) {
             return Optional.empty();
         }
 
-        Provider bestProvider = availableProviders.stream()
-                .min(Comparator.comparingInt(p -> countAppointmentsOnDate(p.getId(), start)))
-                .orElse(availableProviders.get(0));
+        // Menos agendamentos ativos no dia, contados para todos os disponíveis em uma consulta
+        LocalDateTime startOfDay = start.toLocalDate().atStartOfDay();
+        Map<UUID, Long> load = appointmentRepository.countActiveAppointmentsByProviders(
+                        availableProviders, startOfDay, startOfDay.plusDays(1)
+                ).stream()
+                .collect(Collectors.toMap(ProviderLoadDto::providerId, ProviderLoadDto::appointments));
 
-        return Optional.of(new SchedulingResult(bestProvider.getId(), start));
+        UUID bestProvider = availableProviders.stream()
+                .min(Comparator.comparingLong(id -> load.getOrDefault(id, 0L)))
+                .orElseThrow();
+
+        return Optional.of(new SchedulingResult(bestProvider, start));
     }
 
     /**
@@ -466,12 +616,13 @@ public class AppointmentService {
     private Optional<SchedulingResult> findBestSlotWithProvider(
             AppointmentRequest request,
             UUID specialtyId,
-            int duration
+            int duration,
+            SearchDeadline deadline
     ) {
         UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
         UUID providerId = UUIDValidator.parseOrThrow(request.providerId(), "providerId");
 
-        return findNextAvailableForProvider(companyId, providerId, specialtyId, LocalDate.now(), duration);
+        return findNextAvailableForProvider(companyId, providerId, specialtyId, LocalDate.now(), duration, deadline);
     }
 
     /**
@@ -480,18 +631,24 @@ public class AppointmentService {
     private Optional<SchedulingResult> findBestSlotAutomatic(
             AppointmentRequest request,
             UUID specialtyId,
-            int duration
+            int duration,
+            SearchDeadline deadline
     ) {
         UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
         LocalDate searchDate = LocalDate.now();
-        LocalDate maxDate = searchDate.plusWeeks(4);
+        LocalDate maxDate = searchDate.plusWeeks(AppointmentsConstants.BEST_SLOT_SEARCH_WEEKS);
 
-        while (searchDate.isBefore(maxDate)) {
-            List<Provider> providers = providerRepository.findProvidersBySpecialty(companyId, specialtyId);
+        // Prestadores da especialidade resolvidos uma vez (bitset do diretório), não a cada dia
+        ProviderDirectory directory = providerDirectoryService.getDirectory(companyId);
+        List<UUID> providerIds = directory.providerIds(directory.qualifiedFor(specialtyId));
 
-            for (Provider provider : providers) {
+        while (searchDate.isBefore(maxDate)) {
+            for (UUID providerId : providerIds) {
+                if (deadline.expired()) {
+                    return Optional.empty();
+                }
                 Optional<SchedulingResult> result = findFirstAvailableSlotForProviderOnDate(
-                        companyId, provider.getId(), specialtyId, searchDate, duration
+                        companyId, providerId, specialtyId, searchDate, duration, deadline
                 );
 
                 if (result.isPresent()) {
@@ -513,17 +670,21 @@ public class AppointmentService {
             UUID providerId,
             UUID specialtyId,
             LocalDate startDate,
-            int duration
+            int duration,
+            SearchDeadline deadline
     ) {
         if (startDate.isBefore(LocalDate.now())) {
             startDate = LocalDate.now();
         }
 
-        LocalDate maxDate = startDate.plusWeeks(4);
+        LocalDate maxDate = startDate.plusWeeks(AppointmentsConstants.BEST_SLOT_SEARCH_WEEKS);
 
         while (startDate.isBefore(maxDate)) {
+            if (deadline.expired()) {
+                return Optional.empty();
+            }
             Optional<SchedulingResult> result = findFirstAvailableSlotForProviderOnDate(
-                    companyId, providerId, specialtyId, startDate, duration
+                    companyId, providerId, specialtyId, startDate, duration, deadline
             );
 
             if (result.isPresent()) {
@@ -544,11 +705,23 @@ public class AppointmentService {
             UUID providerId,
             UUID specialtyId,
             LocalDate date,
-            int duration
+            int duration,
+            SearchDeadline deadline
     ) {
-        List<LocalTime> availableTimes = getAvailableTimesForDay(companyId, date, duration);
+        // Dia inteiro fechado: nenhum horário passaria na validação
+        if (companyScheduleService.getSchedule(companyId).isClosedAllDay(date)) {
+            return Optional.empty();
+        }
+
+        List<LocalTime> availableTimes = freeSlotCalendarService.findUsable(companyId, date, date)
+                .map(calendar -> calendar.freeSlots(date, duration))
+                .orElseGet(() -> getAvailableTimesForDay(companyId, date, duration));
 
         for (LocalTime time : availableTimes) {
+            // Cada validação consulta o banco: checar o prazo antes de cada horário
+            if (deadline.expired()) {
+                return Optional.empty();
+            }
             LocalDateTime start = date.atTime(time);
             LocalDateTime end = start.plusMinutes(duration);
 
@@ -564,27 +737,62 @@ public class AppointmentService {
         return Optional.empty();
     }
 
+    // ==================== MÉTODOS PÚBLICOS AUXILIARES ====================
+
     /**
-     * Conta agendamentos de um prestador em uma data específica.
+     * Duração total (minutos) dos serviços pelo catálogo da empresa; sem serviços
+     * conhecidos, a duração padrão de um slot.
      */
-    private int countAppointmentsOnDate(UUID providerId, LocalDateTime dateTime) {
-        LocalDate date = dateTime.toLocalDate();
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime nextDay = startOfDay.plusDays(1);
-
-        return appointmentRepository.countAppointmentsByProviderAndDate(
-                providerId, startOfDay, nextDay
-        );
+    public int resolveDurationMinutes(UUID companyId, List<UUID> serviceIds) {
+        Integer duration = serviceIds == null || serviceIds.isEmpty()
+                ? null
+                : serviceCatalogService.getCatalog(companyId).totalDuration(serviceIds);
+        return duration != null ? duration : AppointmentsConstants.DEFAULT_SLOT_DURATION_MINUTES;
     }
 
-    // ==================== MÉTODOS PÚBLICOS AUXILIARES ====================
-
     public Appointment findById(String id) {
         UUID uuid = com.lasystems.lagenda.validators.UUIDValidator.parseOrThrow(id, "appointmentId");
         return appointmentRepository.findById(uuid)
                 .orElseThrow(() -> new EntityNotFoundException(Appointment.class, uuid));
     }
 
+    /**
+     * Detalhe do agendamento montado dentro da transação, a partir de uma única query
+     * com cliente, prestador e serviços.
+     */
+    @Transactional(readOnly = true)
+    public AppointmentDetailResponse getAppointmentDetail(String id) {
+        UUID uuid = UUIDValidator.parseOrThrow(id, "appointmentId");
+        Appointment appointment = appointmentRepository.findDetailById(uuid)
+                .orElseThrow(() -> new EntityNotFoundException(Appointment.class, uuid));
+
+        return new AppointmentDetailResponse(
+                appointment.getId(),
+                new ClientSummary(
+                        appointment.getClient().getId(),
+                        appointment.getClient().getName(),
+                        appointment.getClient().getPhone()
+                ),
+                new ProviderSummary(
+                        appointment.getProvider().getId(),
+                        appointment.getProvider().getName(),
+                        appointment.getProvider().getCalendarId()
+                ),
+                appointment.getStart(),
+                appointment.getEnd(),
+                appointment.getStatus().name(),
+                appointment.getAppointmentServices().stream()
+                        .map(s -> new ServiceSummary(
+                                s.getService().getId(),
+                                s.getService().getName(),
+                                s.getService().getPrice(),
+                                s.getService().getDurationMinutes()
+                        ))
+                        .collect(Collectors.toList()),
+                appointment.getNotes()
+        );
+    }
+
     public boolean isAvailable(
             UUID companyId,
             UUID providerId,
@@ -1,13 +1,19 @@
 package com.lasystems.lagenda.service;
 
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import com.lasystems.lagenda.dtos.appointments.AvailabilityReason;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
 import com.lasystems.lagenda.exceptions.ClientConflictException;
+import com.lasystems.lagenda.exceptions.InvalidParameterException;
 import com.lasystems.lagenda.exceptions.SlotNotAvailableException;
 import com.lasystems.lagenda.repository.AppointmentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -61,6 +67,37 @@ public class AppointmentValidationService {
         log.debug("Horário validado com sucesso");
     }
 
+    /**
+     * Mesmas regras de {@link #validateSlotAvailability}, mas com os agendamentos já
+     * carregados (busy) em vez de uma consulta por horário. Usado na verificação em lote.
+     *
+     * @param busy agendamentos ativos da empresa que cobrem o período
+     */
+    public AvailabilityReason evaluateSlot(
+            UUID companyId,
+            UUID providerId,
+            LocalDateTime start,
+            LocalDateTime end,
+            Collection<BusyIntervalDto> busy
+    ) {
+        if (start.isBefore(LocalDateTime.now())) {
+            return AvailabilityReason.IN_THE_PAST;
+        }
+        if (!businessHourService.isWithinBusinessHours(companyId, start, end)) {
+            return AvailabilityReason.OUTSIDE_BUSINESS_HOURS;
+        }
+        if (!companyClosureService.isAvailableForScheduling(companyId, start, end)) {
+            return AvailabilityReason.COMPANY_CLOSED;
+        }
+        for (BusyIntervalDto interval : busy) {
+            if (interval.overlaps(start, end)
+                    && (providerId == null || providerId.equals(interval.providerId()))) {
+                return AvailabilityReason.CONFLICT;
+            }
+        }
+        return AvailabilityReason.AVAILABLE;
+    }
+
     /**
      * Valida se um cliente está disponível para agendamento.
      *
@@ -80,6 +117,22 @@ public class AppointmentValidationService {
         log.debug("Cliente disponível para agendamento");
     }
 
+    /**
+     * Valida a duração máxima de um agendamento. As buscas de conflito só consideram
+     * agendamentos iniciados até {@link AppointmentsConstants#MAX_APPOINTMENT_DURATION_HOURS}
+     * horas antes do período; um agendamento mais longo escaparia delas.
+     *
+     * @throws InvalidParameterException se passar do limite
+     */
+    public void validateDuration(LocalDateTime start, LocalDateTime end) {
+        Duration max = Duration.ofHours(AppointmentsConstants.MAX_APPOINTMENT_DURATION_HOURS);
+        if (Duration.between(start, end).compareTo(max) > 0) {
+            throw new InvalidParameterException(String.format(
+                    "Duração do agendamento acima do limite de %d horas",
+                    AppointmentsConstants.MAX_APPOINTMENT_DURATION_HOURS));
+        }
+    }
+
     /**
      * Valida se um período de agendamento é válido.
      */
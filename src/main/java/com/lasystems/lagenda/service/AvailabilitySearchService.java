@@ -0,0 +1,87 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.AvailabilityQueryCache;
+import com.lasystems.lagenda.constants.AppointmentsConstants;
+import com.lasystems.lagenda.dtos.SlotSearchResult;
+import com.lasystems.lagenda.dtos.appointments.AvailableTimesDto;
+import com.lasystems.lagenda.dtos.request.AppointmentRequest;
+import com.lasystems.lagenda.validators.UUIDValidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Buscas de disponibilidade dos endpoints, com buscas idênticas simultâneas compartilhando
+ * o mesmo cálculo ({@link AvailabilityQueryCache}).
+ *
+ * Não é transacional de propósito: a coalescência acontece antes de abrir a transação, então
+ * quem aguarda um cálculo em andamento não segura conexão do pool. Só quem calcula entra nos
+ * métodos read-only de {@link AppointmentService}.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilitySearchService {
+
+    private final AppointmentService appointmentService;
+    private final AvailabilityQueryCache availabilityQueryCache;
+    private final SlotSearchBudget slotSearchBudget;
+
+    /**
+     * Busca o próximo dia com horários disponíveis.
+     */
+    public Optional<AvailableTimesDto> findNextAvailableTimes(
+            UUID companyId,
+            List<UUID> serviceIds,
+            LocalDate targetDate
+    ) {
+        AvailabilityQueryCache.Key key = new AvailabilityQueryCache.Key(
+                "next-available",
+                companyId,
+                targetDate,
+                targetDate.plusDays(AppointmentsConstants.MAX_SEARCH_DAYS_AHEAD - 1),
+                List.of(serviceIds.stream().sorted().toList())
+        );
+        return availabilityQueryCache.get(key,
+                () -> appointmentService.findNextAvailableTimes(companyId, serviceIds, targetDate));
+    }
+
+    /**
+     * Encontra o melhor slot com o prazo padrão (availability.search.budget).
+     */
+    public SlotSearchResult findBestSlot(AppointmentRequest request) {
+        return findBestSlot(request, slotSearchBudget.getDefaultBudget());
+    }
+
+    /**
+     * Encontra o melhor slot dentro do prazo informado; resultados parciais não ficam no cache.
+     */
+    public SlotSearchResult findBestSlot(AppointmentRequest request, Duration budget) {
+        UUID companyId = UUIDValidator.parseOrThrow(request.companyId(), "companyId");
+        LocalDate today = LocalDate.now();
+        LocalDate from = request.start() != null ? request.start().toLocalDate() : today;
+        LocalDate to = (from.isBefore(today) ? today : from).plusWeeks(AppointmentsConstants.BEST_SLOT_SEARCH_WEEKS);
+
+        AvailabilityQueryCache.Key key = new AvailabilityQueryCache.Key(
+                "best-slot",
+                companyId,
+                from,
+                to,
+                Arrays.asList(
+                        request.start(),
+                        request.providerId(),
+                        request.specialistId(),
+                        request.serviceIds().stream().sorted().toList(),
+                        budget
+                )
+        );
+        return availabilityQueryCache.get(key,
+                () -> appointmentService.findBestSlot(request, budget),
+                result -> !result.partial());
+    }
+}
@@ -0,0 +1,201 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.dtos.appointments.AvailabilityChangeEvent;
+import com.lasystems.lagenda.exceptions.StreamSubscribersLimitException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stream SSE de mudanças de disponibilidade por empresa (opcionalmente por prestador e período).
+ *
+ * Assinantes ociosos não ocupam thread: cada um tem apenas um buffer limitado. Um evento é
+ * colocado no buffer dos assinantes interessados e uma virtual thread esvazia o buffer
+ * enquanto houver itens. Se o buffer encher (cliente lento), o assinante é desconectado;
+ * o cliente deve reconectar e reconsultar a disponibilidade.
+ */
+@Slf4j
+@Service
+public class AvailabilityStreamService {
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final ConcurrentMap<UUID, Set<Subscriber>> subscribersByCompany = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Duration timeout;
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    public AvailabilityStreamService(
+            @Value("${availability.stream.timeout:30m}") Duration timeout,
+            @Value("${availability.stream.buffer-size:32}") int bufferSize,
+            @Value("${availability.stream.max-subscribers:10000}") int maxSubscribers
+    ) {
+        this.timeout = timeout;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Registra um assinante. Filtros nulos aceitam qualquer prestador/dia.
+     */
+    public SseEmitter subscribe(UUID companyId, UUID providerId, LocalDate from, LocalDate to) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new StreamSubscribersLimitException(maxSubscribers);
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, companyId, providerId, from, to, bufferSize);
+        subscribersByCompany.compute(companyId, (id, subscribers) -> {
+            Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        log.debug("Assinante de disponibilidade registrado: company={}, provider={}", companyId, providerId);
+        return emitter;
+    }
+
+    /**
+     * Entrega o evento aos assinantes da empresa cujo filtro o aceita. Não bloqueia.
+     */
+    public void publish(AvailabilityChangeEvent event) {
+        Set<Subscriber> subscribers = subscribersByCompany.get(event.companyId());
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Comentário periódico: mantém proxies com a conexão aberta e detecta clientes desconectados.
+     */
+    @Scheduled(fixedRateString = "${availability.stream.heartbeat-millis:25000}")
+    public void heartbeat() {
+        subscribersByCompany.values().forEach(subscribers -> subscribers.forEach(s -> s.offer(HEARTBEAT)));
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribersByCompany.values().forEach(subscribers -> subscribers.forEach(s -> s.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final UUID companyId;
+        private final UUID providerId;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final BlockingQueue<Object> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, UUID companyId, UUID providerId, LocalDate from, LocalDate to, int bufferSize) {
+            this.emitter = emitter;
+            this.companyId = companyId;
+            this.providerId = providerId;
+            this.from = from;
+            this.to = to;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean accepts(AvailabilityChangeEvent event) {
+            boolean providerMatches = providerId == null || event.providerId() == null
+                    || providerId.equals(event.providerId());
+            boolean dateMatches = event.date() == null
+                    || ((from == null || !event.date().isBefore(from)) && (to == null || !event.date().isAfter(to)));
+            return providerMatches && dateMatches;
+        }
+
+        void offer(Object item) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(item)) {
+                log.info("Assinante lento desconectado: company={}", companyId);
+                emitter.complete();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object item;
+                while (!closed.get() && (item = buffer.poll()) != null) {
+                    send(item);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Conexão encerrada pelo cliente
+                close();
+            } finally {
+                draining.set(false);
+                if (!closed.get() && !buffer.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        private void send(Object item) throws IOException {
+            if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                AvailabilityChangeEvent event = (AvailabilityChangeEvent) item;
+                emitter.send(SseEmitter.event().name(event.type()).data(event, MediaType.APPLICATION_JSON));
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            buffer.clear();
+            subscribersByCompany.computeIfPresent(companyId, (id, subscribers) -> {
+                subscribers.remove(this);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
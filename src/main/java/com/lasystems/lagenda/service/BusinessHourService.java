@@ -4,17 +4,15 @@ import com.lasystems.lagenda.models.BusinessHour;
 import com.lasystems.lagenda.repository.BusinessHourRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Service para gerenciamento de horários comerciais.
- * Implementa cache para melhorar performance.
+ * As verificações usam o snapshot compilado de {@link CompanyScheduleService}.
  */
 @Slf4j
 @Service
@@ -22,10 +20,11 @@ import java.util.UUID;
 public class BusinessHourService {
 
     private final BusinessHourRepository businessHourRepository;
+    private final CompanyScheduleService companyScheduleService;
 
     /**
      * Verifica se o período (start a end) está dentro do horário comercial da empresa.
-     * Método com cache para melhor performance.
+     * Consulta apenas o snapshot em cache (sem acesso ao banco).
      *
      * @param companyId ID da empresa
      * @param start     Início do agendamento
@@ -38,46 +37,20 @@ public class BusinessHourService {
             return false;
         }
 
-        int dayOfWeek = toDatabaseDayOfWeek(start.getDayOfWeek());
-        LocalTime startTime = start.toLocalTime();
-        LocalTime endTime = end.toLocalTime();
+        boolean isWithin = companyScheduleService.getSchedule(companyId).isWithinBusinessHours(start, end);
 
-        List<BusinessHour> businessHours = findByCompanyIdAndDayOfWeek(companyId, dayOfWeek);
-
-        boolean isWithin = businessHours.stream()
-                .anyMatch(bh -> {
-                    LocalTime bhStart = bh.getStartTime();
-                    LocalTime bhEnd = bh.getEndTime();
-                    return !startTime.isBefore(bhStart) && !endTime.isAfter(bhEnd);
-                });
-
-        log.debug("Verificação de horário comercial: company={}, day={}, isWithin={}",
-                companyId, dayOfWeek, isWithin);
+        log.debug("Verificação de horário comercial: company={}, start={}, isWithin={}",
+                companyId, start, isWithin);
 
         return isWithin;
     }
 
     /**
-     * Retorna os horários comerciais de uma empresa em um dia da semana.
-     * Resultado é cacheado para melhor performance.
-     *
-     * @param companyId ID da empresa
-     * @param dayOfWeek dia da semana (0=Domingo, 1=Segunda, ..., 6=Sábado)
-     * @return lista de horários comerciais
-     */
-    @Cacheable(value = "businessHours", key = "#companyId + '-' + #dayOfWeek")
-    public List<BusinessHour> findByCompanyIdAndDayOfWeek(UUID companyId, Integer dayOfWeek) {
-        log.debug("Buscando horários comerciais: company={}, day={}", companyId, dayOfWeek);
-        return businessHourRepository.findByCompanyIdAndDayOfWeek(companyId, dayOfWeek);
-    }
-
-    /**
-     * Retorna todos os horários comerciais de uma empresa.
+     * Retorna todos os horários comerciais de uma empresa (entidades, direto do banco).
      *
      * @param companyId ID da empresa
      * @return lista de horários comerciais
      */
-    @Cacheable(value = "businessHours", key = "#companyId")
     public List<BusinessHour> getBusinessHours(UUID companyId) {
         log.debug("Buscando todos os horários comerciais: company={}", companyId);
         return businessHourRepository.findByCompanyId(companyId);
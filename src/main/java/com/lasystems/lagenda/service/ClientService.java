@@ -16,6 +16,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +35,10 @@ public class ClientService {
 //        return repo.findClientDto();
 //    }
 
+    /**
+     * Cliente com os agendamentos em aberto, montado dentro da transação.
+     */
+    @Transactional(readOnly = true)
     public Optional<JsonNode> getByPhone(String phone) {
         return repo.findByPhone(phone)
                 .map(client -> {
@@ -1,23 +1,34 @@
 package com.lasystems.lagenda.service;
 
+import com.lasystems.lagenda.cache.ClosureCalendar;
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
 import com.lasystems.lagenda.models.CompanyClosure;
 import com.lasystems.lagenda.repository.CompanyClosureRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class CompanyClosureService {
+public class CompanyClosureService implements CompanyCacheLoader {
+
+    public static final String CACHE_NAME = "companyClosures";
 
     private final CompanyClosureRepository companyClosureRepository;
+    private final CacheManager cacheManager;
 
     /**
      * Verifica se o período (start a end) está em um fechamento da empresa.
+     * Consulta apenas o calendário em cache (sem acesso ao banco).
      *
      * @param companyId ID da empresa
      * @param start     Início do agendamento
@@ -27,11 +38,42 @@ public class CompanyClosureService {
     public boolean isAvailableForScheduling(UUID companyId, LocalDateTime start, LocalDateTime end) {
         if (start == null || end == null) return false;
 
-        LocalDate scheduleDate = start.toLocalDate();
+        return !getClosureCalendar(companyId).overlaps(start, end);
+    }
+
+    /**
+     * Verifica se há qualquer fechamento entre as datas (inclusive), em O(log n).
+     */
+    public boolean hasClosureBetween(UUID companyId, LocalDate from, LocalDate to) {
+        return getClosureCalendar(companyId).hasClosureBetween(from, to);
+    }
+
+    /**
+     * Calendário de fechamentos da empresa, carregado uma única vez e mantido no
+     * cache companyClosures até ser invalidado por {@link #evict(UUID)}.
+     * Acessa o cache diretamente para funcionar também em chamadas internas.
+     */
+    public ClosureCalendar getClosureCalendar(UUID companyId) {
+        return closuresCache().get(companyId, () -> load(companyId));
+    }
+
+    /**
+     * Descarta o calendário da empresa; a próxima consulta recarrega do banco.
+     */
+    public void evict(UUID companyId) {
+        closuresCache().evict(companyId);
+        log.debug("Fechamentos da empresa {} invalidados", companyId);
+    }
 
-        return companyClosureRepository.findByCompanyIdAndDate(companyId, scheduleDate)
-                .stream()
-                .noneMatch(closure -> closure.overlapsWith(start, end));
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public ClosureCalendar load(UUID companyId) {
+        log.debug("Carregando fechamentos da empresa {}", companyId);
+        return ClosureCalendar.of(companyClosureRepository.findByCompanyId(companyId));
     }
 
     /**
@@ -41,4 +83,8 @@ public class CompanyClosureService {
         return companyClosureRepository.findByCompanyId(companyId);
     }
 
+    private Cache closuresCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " não configurado");
+    }
+
 }
@@ -0,0 +1,64 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
+import com.lasystems.lagenda.cache.CompanySchedule;
+import com.lasystems.lagenda.repository.BusinessHourRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fornece o snapshot compilado da agenda semanal (horários comerciais e fechamentos) por empresa.
+ * O cache é invalidado por {@link com.lasystems.lagenda.cache.ScheduleChangeListener}
+ * sempre que um horário comercial ou fechamento é gravado ou removido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CompanyScheduleService implements CompanyCacheLoader {
+
+    public static final String CACHE_NAME = "companySchedules";
+
+    private final BusinessHourRepository businessHourRepository;
+    private final CompanyClosureService companyClosureService;
+    private final CacheManager cacheManager;
+
+    /**
+     * Retorna (compilando na primeira chamada) o snapshot da agenda da empresa.
+     */
+    public CompanySchedule getSchedule(UUID companyId) {
+        return scheduleCache().get(companyId, () -> load(companyId));
+    }
+
+    /**
+     * Descarta o snapshot da empresa; a próxima consulta recompila a partir do banco.
+     */
+    public void evict(UUID companyId) {
+        scheduleCache().evict(companyId);
+        log.debug("Agenda da empresa {} invalidada", companyId);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public CompanySchedule load(UUID companyId) {
+        log.debug("Compilando agenda da empresa {}", companyId);
+        return CompanySchedule.compile(
+                companyId,
+                businessHourRepository.findByCompanyId(companyId),
+                companyClosureService.getClosureCalendar(companyId)
+        );
+    }
+
+    private Cache scheduleCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " não configurado");
+    }
+}
@@ -1,11 +1,15 @@
 package com.lasystems.lagenda.service;
 
 import com.lasystems.lagenda.dtos.CompanyDto;
+import com.lasystems.lagenda.dtos.CompanyProviders;
+import com.lasystems.lagenda.dtos.SpecialistDto;
 import com.lasystems.lagenda.exceptions.EntityNotFoundException;
 import com.lasystems.lagenda.exceptions.UUIDIllegalArgumentException;
+import com.lasystems.lagenda.models.Company;
 import com.lasystems.lagenda.repository.CompanyRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -16,16 +20,31 @@ public class CompanyService {
 
     private final CompanyRepository repo;
 
+    /**
+     * Empresa com especialidades e prestadores, montada dentro da transação.
+     * A empresa e as duas coleções vêm do cache de segundo nível (regiões company,
+     * company-specialties e company-providers); sem cache, uma query para cada.
+     */
+    @Transactional(readOnly = true)
     public Optional<CompanyDto> getById(String id) {
+        UUID uuid;
         try {
-            Optional<CompanyDto> companyDtoOptional = repo.findCompanyDto(UUID.fromString(id));
-            if (companyDtoOptional.isPresent()) {
-                return companyDtoOptional;
-            } else {
-                throw new EntityNotFoundException();
-            }
+            uuid = UUID.fromString(id);
         } catch(IllegalArgumentException ex) {
             throw new UUIDIllegalArgumentException();
         }
+
+        Company company = repo.findById(uuid).orElseThrow(EntityNotFoundException::new);
+        return Optional.of(new CompanyDto(
+                company.getId(),
+                company.getName(),
+                company.getCategory(),
+                company.getSpecialties().stream()
+                        .map(s -> new SpecialistDto(s.getId(), s.getName(), s.getDescription()))
+                        .toList(),
+                company.getProviders().stream()
+                        .map(p -> new CompanyProviders(p.getName(), p.getCalendarId(), p.getPhone()))
+                        .toList()
+        ));
     }
 }
@@ -0,0 +1,127 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
+import com.lasystems.lagenda.cache.FreeSlotCalendar;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Mantém o {@link FreeSlotCalendar} de cada empresa (cache freeSlots).
+ *
+ * Garantias de atualização:
+ * - agendamentos gravados nesta instância são aplicados de forma incremental após o commit
+ *   (ver {@link com.lasystems.lagenda.cache.AppointmentChangeListener});
+ * - gravações em outras instâncias e mudanças de horários/fechamentos descartam o calendário
+ *   (invalidação via LISTEN/NOTIFY), e a próxima consulta o recarrega;
+ * - alterações que não passam pelos listeners JPA (updates em lote) são cobertas pela recarga
+ *   em background (refreshAfterWrite) e por max-staleness: um calendário carregado há mais
+ *   tempo que isso não é usado, e a busca cai para o cálculo ao vivo.
+ *
+ * O calendário só orienta a busca: a criação do agendamento sempre valida o horário no banco.
+ */
+@Slf4j
+@Service
+public class FreeSlotCalendarService implements CompanyCacheLoader {
+
+    public static final String CACHE_NAME = "freeSlots";
+
+    private final AppointmentRepository appointmentRepository;
+    private final CompanyScheduleService companyScheduleService;
+    private final CacheManager cacheManager;
+    private final int horizonDays;
+    private final Duration maxStaleness;
+
+    public FreeSlotCalendarService(
+            AppointmentRepository appointmentRepository,
+            CompanyScheduleService companyScheduleService,
+            CacheManager cacheManager,
+            @Value("${availability.free-slots.horizon-days:28}") int horizonDays,
+            @Value("${availability.free-slots.max-staleness:10m}") Duration maxStaleness
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.companyScheduleService = companyScheduleService;
+        this.cacheManager = cacheManager;
+        this.horizonDays = horizonDays;
+        this.maxStaleness = maxStaleness;
+    }
+
+    /**
+     * Calendário da empresa, se ele cobre as datas [from, to] e está dentro do limite de
+     * desatualização. Vazio indica que a busca deve ser feita ao vivo.
+     */
+    public Optional<FreeSlotCalendar> findUsable(UUID companyId, LocalDate from, LocalDate to) {
+        FreeSlotCalendar calendar = calendarCache().get(companyId, () -> load(companyId));
+        if (calendar == null || !calendar.covers(from) || !calendar.covers(to)) {
+            return Optional.empty();
+        }
+        if (calendar.getBuiltAt().plus(maxStaleness).isBefore(Instant.now())) {
+            log.debug("Calendário de horários livres da empresa {} expirado; usando busca ao vivo", companyId);
+            evict(companyId);
+            return Optional.empty();
+        }
+        return Optional.of(calendar);
+    }
+
+    /**
+     * Aplica um agendamento ativo (novo ou remarcado) ao calendário já carregado.
+     */
+    public void applyBusy(UUID companyId, BusyIntervalDto interval) {
+        nativeCache().asMap().computeIfPresent(companyId,
+                (key, calendar) -> ((FreeSlotCalendar) calendar).withBusy(interval));
+    }
+
+    /**
+     * Libera os horários de um agendamento cancelado, concluído ou excluído.
+     */
+    public void applyReleased(UUID companyId, UUID appointmentId) {
+        nativeCache().asMap().computeIfPresent(companyId,
+                (key, calendar) -> ((FreeSlotCalendar) calendar).withoutAppointment(appointmentId));
+    }
+
+    /**
+     * Descarta o calendário da empresa; a próxima consulta recarrega do banco.
+     */
+    public void evict(UUID companyId) {
+        calendarCache().evict(companyId);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public FreeSlotCalendar load(UUID companyId) {
+        LocalDate today = LocalDate.now();
+        log.debug("Materializando horários livres da empresa {} ({} dias)", companyId, horizonDays);
+        return FreeSlotCalendar.of(
+                companyId,
+                companyScheduleService.getSchedule(companyId),
+                today,
+                horizonDays,
+                appointmentRepository.findBusyIntervals(
+                        companyId, today.atStartOfDay(), today.plusDays(horizonDays).atStartOfDay())
+        );
+    }
+
+    private Cache calendarCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " não configurado");
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache() {
+        return ((CaffeineCache) calendarCache()).getNativeCache();
+    }
+}
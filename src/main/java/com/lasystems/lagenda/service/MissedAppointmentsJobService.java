@@ -0,0 +1,211 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.dtos.FinalizeMissedAppointmentsResponse;
+import com.lasystems.lagenda.dtos.appointments.AppointmentKeyDto;
+import com.lasystems.lagenda.repository.AppointmentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Job que finaliza (cancela) agendamentos passados que ainda estão como SCHEDULED.
+ * Processa em blocos de tamanho fixo por keyset, com commit por bloco,
+ * mantendo memória limitada mesmo com milhões de registros.
+ * Com shards por empresa, percorre cada shard em sequência.
+ */
+@Slf4j
+@Service
+public class MissedAppointmentsJobService {
+
+    private static final int MAX_REPORTED_IDS = 500;
+
+    private final AppointmentRepository appointmentRepository;
+    private final TenantShardMap shardMap;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int chunkSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Estado da última execução (lido pelo endpoint de status)
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long totalUpdated;
+    private volatile int chunks;
+    private volatile String lastError;
+    private final Deque<UUID> recentIds = new ArrayDeque<>();
+
+    public MissedAppointmentsJobService(
+            AppointmentRepository appointmentRepository,
+            TenantShardMap shardMap,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+            @Value("${jobs.finalize-missed.chunk-size:500}") int chunkSize
+    ) {
+        this.appointmentRepository = appointmentRepository;
+        this.shardMap = shardMap;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Execução agendada (padrão: diariamente às 00:15).
+     */
+    @Scheduled(cron = "${jobs.finalize-missed.cron:0 15 0 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Dispara o job em background, se ainda não estiver rodando.
+     *
+     * @return true se uma nova execução foi iniciada
+     */
+    public boolean trigger() {
+        // A vaga é reservada aqui: duas chamadas simultâneas não podem ambas retornar true
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            taskExecutor.execute(this::execute);
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Executa o job no thread atual. Ignora se já houver execução em andamento.
+     */
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Finalização de agendamentos perdidos já em execução");
+            return;
+        }
+        execute();
+    }
+
+    /**
+     * Corpo do job; quem chama já reservou {@code running}, liberado ao final.
+     */
+    private void execute() {
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        totalUpdated = 0;
+        chunks = 0;
+        lastError = null;
+        synchronized (recentIds) {
+            recentIds.clear();
+        }
+
+        // Equivalente indexável a DATE(start) < current_date
+        LocalDateTime before = LocalDate.now().atStartOfDay();
+
+        log.info("Finalizando agendamentos perdidos anteriores a {} (blocos de {})", before, chunkSize);
+
+        try {
+            shardMap.forEachShard(shard -> finalizeChunks(before));
+
+            log.info("Total de {} agendamentos finalizados em {} blocos", totalUpdated, chunks);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Erro ao finalizar agendamentos perdidos: {}", e.getMessage(), e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Percorre por keyset os agendamentos do shard corrente, com commit por bloco.
+     */
+    private void finalizeChunks(LocalDateTime before) {
+        LocalDateTime cursorStart = LocalDateTime.of(1970, 1, 1, 0, 0);
+        UUID cursorId = new UUID(0L, 0L);
+
+        while (true) {
+            final LocalDateTime seekStart = cursorStart;
+            final UUID seekId = cursorId;
+
+            List<AppointmentKeyDto> chunk = transactionTemplate.execute(status -> {
+                List<AppointmentKeyDto> keys = appointmentRepository.findPastScheduledChunk(
+                        before, seekStart, seekId, Limit.of(chunkSize));
+                if (!keys.isEmpty()) {
+                    int updated = appointmentRepository.cancelAppointmentsBatch(
+                            keys.stream().map(AppointmentKeyDto::id).toList());
+                    totalUpdated += updated;
+                }
+                return keys;
+            });
+
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+
+            chunks++;
+            rememberIds(chunk);
+
+            AppointmentKeyDto last = chunk.get(chunk.size() - 1);
+            cursorStart = last.start();
+            cursorId = last.id();
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Situação atual/última execução do job.
+     */
+    public FinalizeMissedAppointmentsResponse getStatus() {
+        String status = running.get() ? "RUNNING" : (lastError != null ? "FAILED" : "IDLE");
+        String message = lastError != null
+                ? "Última execução falhou: " + lastError
+                : String.format("Total de %d agendamentos finalizados", totalUpdated);
+
+        List<UUID> ids;
+        synchronized (recentIds) {
+            ids = new ArrayList<>(recentIds);
+        }
+
+        return new FinalizeMissedAppointmentsResponse(
+                message,
+                status,
+                startedAt,
+                finishedAt,
+                totalUpdated,
+                chunks,
+                ids
+        );
+    }
+
+    private void rememberIds(List<AppointmentKeyDto> chunk) {
+        synchronized (recentIds) {
+            for (AppointmentKeyDto key : chunk) {
+                recentIds.addLast(key.id());
+                if (recentIds.size() > MAX_REPORTED_IDS) {
+                    recentIds.removeFirst();
+                }
+            }
+        }
+    }
+}
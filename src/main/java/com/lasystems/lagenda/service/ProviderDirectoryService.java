@@ -0,0 +1,61 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
+import com.lasystems.lagenda.cache.ProviderDirectory;
+import com.lasystems.lagenda.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fornece o diretório de prestadores (com especialidades em bitsets) por empresa.
+ * O cache é invalidado por {@link com.lasystems.lagenda.cache.ProviderDirectoryChangeListener}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProviderDirectoryService implements CompanyCacheLoader {
+
+    public static final String CACHE_NAME = "providers";
+
+    private final ProviderRepository providerRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Diretório da empresa, carregado (duas queries) na primeira chamada.
+     */
+    public ProviderDirectory getDirectory(UUID companyId) {
+        return directoryCache().get(companyId, () -> load(companyId));
+    }
+
+    /**
+     * Descarta o diretório da empresa; a próxima consulta recarrega do banco.
+     */
+    public void evict(UUID companyId) {
+        directoryCache().evict(companyId);
+        log.debug("Diretório de prestadores da empresa {} invalidado", companyId);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public ProviderDirectory load(UUID companyId) {
+        log.debug("Carregando diretório de prestadores da empresa {}", companyId);
+        return ProviderDirectory.of(
+                providerRepository.findDirectoryRows(companyId),
+                providerRepository.findDirectorySpecialtyRows(companyId)
+        );
+    }
+
+    private Cache directoryCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " não configurado");
+    }
+}
@@ -1,25 +1,33 @@
 package com.lasystems.lagenda.service;
 
+import com.lasystems.lagenda.cache.ProviderDirectory;
 import com.lasystems.lagenda.dtos.ProviderDto;
 import com.lasystems.lagenda.dtos.ProviderMinAppointmentsDto;
+import com.lasystems.lagenda.dtos.appointments.ProviderLoadDto;
 import com.lasystems.lagenda.exceptions.EntityNotFoundException;
 import com.lasystems.lagenda.exceptions.UUIDIllegalArgumentException;
 import com.lasystems.lagenda.models.Client;
 import com.lasystems.lagenda.models.Provider;
+import com.lasystems.lagenda.repository.AppointmentRepository;
 import com.lasystems.lagenda.repository.ProviderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProviderService {
 
     private final ProviderRepository repo;
+    private final AppointmentRepository appointmentRepository;
+    private final ProviderDirectoryService providerDirectoryService;
 
     public List<ProviderDto> findProvidersByCompany(UUID id) {
         return repo.findProvidersByCompany(id);
@@ -39,15 +47,32 @@ public class ProviderService {
 
     }
 
+    /**
+     * Prestador da especialidade com menos agendamentos ativos no dia.
+     * Os candidatos vêm do diretório em memória; o banco só conta os agendamentos do dia.
+     * A faixa [00:00, 00:00 do dia seguinte) já é o dia de São Paulo: o Hibernate converte
+     * LocalDateTime pelo fuso da JVM (America/Sao_Paulo, ver TimezoneConfig).
+     */
     public Optional<ProviderMinAppointmentsDto> findProviderWithLeastAppointments(String companyId, String specialtyId, LocalDate date) {
 
         try {
-            Optional<ProviderMinAppointmentsDto> providerMinAppointmentsDto =
-                    repo.findProviderWithLeastAppointments(UUID.fromString(companyId), UUID.fromString(specialtyId), date);
-            if (providerMinAppointmentsDto.isEmpty()) {
+            ProviderDirectory directory = providerDirectoryService.getDirectory(UUID.fromString(companyId));
+            List<UUID> candidates = directory.providerIds(directory.qualifiedFor(UUID.fromString(specialtyId)));
+            if (candidates.isEmpty()) {
                 throw new EntityNotFoundException();
             }
-            return providerMinAppointmentsDto;
+
+            Map<UUID, Long> load = appointmentRepository.countActiveAppointmentsByProviders(
+                            candidates,
+                            date.atStartOfDay(),
+                            date.plusDays(1).atStartOfDay()
+                    ).stream()
+                    .collect(Collectors.toMap(ProviderLoadDto::providerId, ProviderLoadDto::appointments));
+
+            UUID best = candidates.stream()
+                    .min(Comparator.comparingLong(id -> load.getOrDefault(id, 0L)))
+                    .orElseThrow();
+            return Optional.of(new ProviderMinAppointmentsDto(best, directory.getCalendarId(best)));
         } catch(IllegalArgumentException ex) {
             throw new UUIDIllegalArgumentException();
         }
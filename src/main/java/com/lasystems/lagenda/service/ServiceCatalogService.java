@@ -0,0 +1,62 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.CompanyCacheLoader;
+import com.lasystems.lagenda.cache.ServiceCatalog;
+import com.lasystems.lagenda.repository.ServiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Fornece o catálogo de serviços (duração, preço, nome e especialidades) por empresa.
+ * O cache é invalidado por {@link com.lasystems.lagenda.cache.CatalogChangeListener}
+ * sempre que um serviço ou vínculo com especialidade é gravado ou removido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ServiceCatalogService implements CompanyCacheLoader {
+
+    public static final String CACHE_NAME = "serviceCatalogs";
+
+    private final ServiceRepository serviceRepository;
+    private final CacheManager cacheManager;
+
+    /**
+     * Catálogo da empresa, carregado (duas queries) na primeira chamada.
+     */
+    public ServiceCatalog getCatalog(UUID companyId) {
+        return catalogCache().get(companyId, () -> load(companyId));
+    }
+
+    /**
+     * Descarta o catálogo da empresa; a próxima consulta recarrega do banco.
+     */
+    public void evict(UUID companyId) {
+        catalogCache().evict(companyId);
+        log.debug("Catálogo de serviços da empresa {} invalidado", companyId);
+    }
+
+    @Override
+    public String cacheName() {
+        return CACHE_NAME;
+    }
+
+    @Override
+    public ServiceCatalog load(UUID companyId) {
+        log.debug("Carregando catálogo de serviços da empresa {}", companyId);
+        return ServiceCatalog.of(
+                serviceRepository.findCatalogRows(companyId),
+                serviceRepository.findCatalogSpecialtyRows(companyId)
+        );
+    }
+
+    private Cache catalogCache() {
+        return Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache " + CACHE_NAME + " não configurado");
+    }
+}
@@ -1,12 +1,17 @@
 package com.lasystems.lagenda.service;
 
 import com.lasystems.lagenda.repository.ServiceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -16,11 +21,28 @@ public class ServiceService {
 
     private final ServiceRepository repo;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public List<com.lasystems.lagenda.models.Service> findAllById(List<String> ids) {
         return repo.findAllById(ids.stream()
                 .map(UUID::fromString)
                 .collect(Collectors.toList()));
     }
 
+    /**
+     * Busca os serviços pelo cache de segundo nível; só os ausentes vão ao banco,
+     * em uma única query. Ids inexistentes são ignorados e repetidos retornam o serviço
+     * uma vez só, como no findAllById.
+     */
+    public List<com.lasystems.lagenda.models.Service> findAllByIdCached(Collection<UUID> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(com.lasystems.lagenda.models.Service.class)
+                .multiLoad(ids.stream().distinct().toList())
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
 
 }
@@ -0,0 +1,44 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.util.SearchDeadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Orçamento de tempo das buscas de slot e métrica das buscas truncadas
+ * (appointments.slot.search.truncated, por cenário).
+ */
+@Component
+public class SlotSearchBudget {
+
+    private final MeterRegistry meterRegistry;
+    private final Duration defaultBudget;
+
+    public SlotSearchBudget(
+            MeterRegistry meterRegistry,
+            @Value("${availability.search.budget:800ms}") Duration defaultBudget
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = defaultBudget;
+    }
+
+    public Duration getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public SearchDeadline start(Duration budget) {
+        return SearchDeadline.after(budget != null ? budget : defaultBudget);
+    }
+
+    public void recordTruncated(String scenario) {
+        Counter.builder("appointments.slot.search.truncated")
+                .description("Buscas de slot interrompidas pelo prazo")
+                .tag("scenario", scenario)
+                .register(meterRegistry)
+                .increment();
+    }
+}
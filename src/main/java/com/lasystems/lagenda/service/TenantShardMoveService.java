@@ -0,0 +1,537 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.CacheInvalidationBus;
+import com.lasystems.lagenda.config.TenantContext;
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.config.TenantShardProperties;
+import com.lasystems.lagenda.dtos.TenantShardMoveResponse;
+import com.lasystems.lagenda.exceptions.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Move os dados de uma empresa de um shard para outro.
+ * <p>
+ * Etapas:
+ * 1. marca a empresa como MOVING no mapa (transações de escrita passam a receber 503,
+ *    leituras continuam no shard de origem) e espera o mapa chegar a todas as instâncias
+ *    ({@link TenantShardProperties#getMapPropagation()});
+ * 2. grava a cerca de escrita da empresa na origem (V6__tenant_write_fences), que espera
+ *    as escritas em andamento e recusa no banco qualquer escrita posterior;
+ * 3. copia as tabelas da empresa com COPY, em ordem de FK, lendo a origem em um único
+ *    snapshot e gravando o destino em uma única transação;
+ * 4. aponta o mapa para o destino (ACTIVE), avisa as demais instâncias e espera de novo
+ *    a propagação, já que instâncias com o mapa antigo ainda leem da origem;
+ * 5. remove os dados da origem; a cerca continua lá.
+ * Se a cópia falhar, nada fica no destino, a cerca sai e a empresa volta a ACTIVE na origem.
+ * <p>
+ * As esperas e a cópia levam minutos (horas em empresas grandes): a movimentação roda em
+ * background, uma por vez por instância, e o andamento fica em {@link #getStatus()}.
+ * <p>
+ * companies, plans e subscriptions são do plano de controle e ficam no shard padrão.
+ * O destino recebe apenas a linha da empresa em companies, lida do shard padrão e
+ * sobrescrita a cada movimentação, porque as tabelas da empresa têm FK para ela.
+ */
+@Slf4j
+@Service
+public class TenantShardMoveService {
+
+    // Tabelas da empresa (todas com company_id), em ordem de FK: pais antes dos filhos
+    // (a remoção na origem usa a ordem inversa)
+    private static final List<String> TABLES = List.of(
+            "company_users",
+            "specialties",
+            "providers",
+            "provider_specialties",
+            "services",
+            "service_specialties",
+            "clients",
+            "business_hours",
+            "company_closures",
+            "appointments",
+            "appointment_services",
+            "appointments_archive",
+            "appointment_services_archive"
+    );
+
+    private static final String STAGING_TABLE = "tenant_shard_move_staging";
+
+    // Gravações da própria movimentação passam pela cerca (tenant_write_guard)
+    private static final String FENCE_BYPASS = "SET LOCAL lagenda.tenant_fence_bypass = 'on'";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TenantShardMap shardMap;
+    private final TenantShardProperties properties;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final TaskExecutor taskExecutor;
+
+    /**
+     * Etapa em andamento da movimentação.
+     */
+    public enum Step { PROPAGATING_MOVING, FENCING, COPYING, PROPAGATING_TARGET, CLEANING_SOURCE }
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // Estado da movimentação atual ou da última (lido pelo endpoint)
+    private volatile UUID companyId;
+    private volatile String source;
+    private volatile String target;
+    private volatile Step step;
+    private volatile boolean moved;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final Map<String, Long> copiedRows = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public TenantShardMoveService(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            TenantShardMap shardMap,
+            TenantShardProperties properties,
+            CacheInvalidationBus invalidationBus,
+            @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardMap = shardMap;
+        this.properties = properties;
+        this.invalidationBus = invalidationBus;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * Valida e dispara em background a movimentação da empresa para o shard informado.
+     *
+     * @return true se a movimentação foi iniciada; false se já houver uma em andamento
+     */
+    public boolean start(UUID companyId, String target) {
+        if (!shardMap.isEnabled()) {
+            throw new IllegalStateException("Shards não configurados (datasource.shards.pools)");
+        }
+        if (!shardMap.shardNames().contains(target)) {
+            throw new IllegalArgumentException("Shard desconhecido: " + target);
+        }
+        // A vaga é reservada aqui: duas chamadas simultâneas não podem ambas iniciar
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            shardMap.reload();
+            TenantShardMap.Assignment current = shardMap.assignmentOf(companyId);
+            String source = current.shard();
+            if (current.state() == TenantShardMap.State.MOVING) {
+                throw new IllegalStateException("Empresa " + companyId + " já está em movimentação");
+            }
+            if (source.equals(target)) {
+                throw new IllegalArgumentException("Empresa " + companyId + " já está no shard " + target);
+            }
+            requireCompany(companyId);
+
+            this.companyId = companyId;
+            this.source = source;
+            this.target = target;
+            step = null;
+            moved = false;
+            startedAt = LocalDateTime.now();
+            finishedAt = null;
+            lastError = null;
+            copiedRows.clear();
+
+            taskExecutor.execute(() -> execute(companyId, source, target));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Corpo da movimentação; quem chama já reservou {@code running}, liberado ao final.
+     */
+    private void execute(UUID companyId, String source, String target) {
+        log.info("Movendo empresa {} do shard {} para {}", companyId, source, target);
+        try {
+            updateAssignment(companyId, source, TenantShardMap.State.MOVING);
+            try {
+                step = Step.PROPAGATING_MOVING;
+                awaitMapPropagation();
+                step = Step.FENCING;
+                fence(companyId, source, target);
+                step = Step.COPYING;
+                copy(companyId, source, target);
+            } catch (RuntimeException e) {
+                log.error("Falha ao copiar a empresa {} para o shard {}; mantida em {}", companyId, target, source, e);
+                try {
+                    unfence(companyId, source);
+                } catch (RuntimeException unfenceError) {
+                    // Sem a cerca removida a origem recusaria as escritas: a empresa fica MOVING (503)
+                    log.error("Cerca da empresa {} não removida do shard {}; empresa mantida em MOVING",
+                            companyId, source, unfenceError);
+                    e.addSuppressed(unfenceError);
+                    throw e;
+                }
+                updateAssignment(companyId, source, TenantShardMap.State.ACTIVE);
+                throw e;
+            }
+            updateAssignment(companyId, target, TenantShardMap.State.ACTIVE);
+            moved = true;
+
+            try {
+                step = Step.PROPAGATING_TARGET;
+                awaitMapPropagation();
+                step = Step.CLEANING_SOURCE;
+                deleteSource(companyId, source);
+            } catch (RuntimeException e) {
+                // A empresa já atende pelo destino: os dados na origem só ocupam espaço
+                lastError = "Limpeza do shard " + source + " falhou: " + e.getMessage();
+                log.error("Empresa {} movida para {}, mas a limpeza do shard {} falhou", companyId, target, source, e);
+            }
+
+            log.info("Empresa {} movida para o shard {}: {}", companyId, target, copiedRows);
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.error("Erro ao mover a empresa {} para o shard {}: {}", companyId, target, e.getMessage(), e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Situação da movimentação em andamento ou da última.
+     * COMPLETED pode trazer erro: a empresa mudou de shard, mas a limpeza da origem falhou.
+     */
+    public TenantShardMoveResponse getStatus() {
+        String status;
+        if (running.get()) {
+            status = "RUNNING";
+        } else if (startedAt == null) {
+            status = "IDLE";
+        } else {
+            status = moved ? "COMPLETED" : "FAILED";
+        }
+
+        Map<String, Long> copied;
+        synchronized (copiedRows) {
+            copied = new LinkedHashMap<>(copiedRows);
+        }
+        Step current = step;
+        return new TenantShardMoveResponse(
+                status,
+                running.get() && current != null ? current.name() : null,
+                companyId,
+                source,
+                target,
+                startedAt,
+                finishedAt,
+                copied,
+                lastError
+        );
+    }
+
+    private void requireCompany(UUID companyId) {
+        TenantContext.runOnShard(TenantShardMap.DEFAULT_SHARD, () -> {
+            Integer count = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM companies WHERE id = ?", Integer.class, companyId);
+            if (count == null || count == 0) {
+                throw new EntityNotFoundException("Empresa", companyId);
+            }
+        });
+    }
+
+    /**
+     * Grava a posição da empresa no mapa (shard padrão) e recarrega o mapa local; as
+     * demais instâncias recarregam pela notificação, entregue no commit.
+     */
+    private void updateAssignment(UUID companyId, String shard, TenantShardMap.State state) {
+        TenantContext.runOnShard(TenantShardMap.DEFAULT_SHARD, () -> transactionTemplate.executeWithoutResult(status -> {
+            if (TenantShardMap.DEFAULT_SHARD.equals(shard) && state == TenantShardMap.State.ACTIVE) {
+                jdbcTemplate.update("DELETE FROM tenant_shards WHERE company_id = ?", companyId);
+            } else {
+                jdbcTemplate.update("""
+                        INSERT INTO tenant_shards (company_id, shard, state, updated_at)
+                        VALUES (?, ?, ?, now())
+                        ON CONFLICT (company_id) DO UPDATE
+                            SET shard = EXCLUDED.shard, state = EXCLUDED.state, updated_at = now()
+                        """, companyId, shard, state.name());
+            }
+            invalidationBus.publish(TenantShardMap.INVALIDATION_NAME, companyId);
+        }));
+        shardMap.reload();
+    }
+
+    /**
+     * Espera uma recarga periódica completa do mapa (mais a folga), cobrindo instâncias
+     * que não receberam a notificação.
+     */
+    private void awaitMapPropagation() {
+        try {
+            Thread.sleep(properties.getMapPropagation());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Movimentação interrompida", e);
+        }
+    }
+
+    /**
+     * Grava a cerca da empresa na origem. O lock exclusivo da empresa, na mesma transação,
+     * espera as transações de escrita que já passaram pela verificação; depois do commit
+     * nenhuma escrita da empresa é aceita na origem.
+     */
+    private void fence(UUID companyId, String source, String target) {
+        inTransaction(source, connection -> {
+            try (PreparedStatement fence = connection.prepareStatement("""
+                    INSERT INTO tenant_write_fences (company_id, target)
+                    VALUES (?, ?)
+                    ON CONFLICT (company_id) DO UPDATE SET target = EXCLUDED.target, created_at = now()
+                    """);
+                 PreparedStatement lock = connection.prepareStatement(
+                         "SELECT pg_advisory_xact_lock(tenant_lock_key(?))")) {
+                fence.setObject(1, companyId);
+                fence.setString(2, target);
+                fence.executeUpdate();
+                lock.setObject(1, companyId);
+                lock.execute();
+            }
+        });
+    }
+
+    private void unfence(UUID companyId, String source) {
+        inTransaction(source, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM tenant_write_fences WHERE company_id = ?")) {
+                statement.setObject(1, companyId);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Copia as tabelas da empresa; as linhas por tabela vão para {@link #copiedRows} à
+     * medida que cada uma termina.
+     */
+    private void copy(UUID companyId, String source, String target) {
+        try (Connection from = connect(source); Connection to = connect(target)) {
+            // Origem em um único snapshot; destino em uma única transação
+            from.setAutoCommit(false);
+            from.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            to.setAutoCommit(false);
+            try {
+                CopyManager out = from.unwrap(PGConnection.class).getCopyAPI();
+                CopyManager in = to.unwrap(PGConnection.class).getCopyAPI();
+
+                try (Statement statement = to.createStatement()) {
+                    statement.execute(FENCE_BYPASS);
+                }
+                // Cerca de uma movimentação anterior para fora do destino
+                try (PreparedStatement unfence = to.prepareStatement(
+                        "DELETE FROM tenant_write_fences WHERE company_id = ?")) {
+                    unfence.setObject(1, companyId);
+                    unfence.executeUpdate();
+                }
+                if (!TenantShardMap.DEFAULT_SHARD.equals(target)) {
+                    syncCompany(in, to, companyId);
+                }
+                ensurePartitions(from, to, companyId);
+                for (String table : TABLES) {
+                    copiedRows.put(table, copyTable(out, in, to, table, companyId));
+                }
+                to.commit();
+            } catch (SQLException | RuntimeException e) {
+                to.rollback();
+                throw e;
+            } finally {
+                from.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro na cópia para o shard " + target + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cria no destino as partições mensais desde o agendamento mais antigo da empresa,
+     * para a cópia não cair na partição default.
+     */
+    private static void ensurePartitions(Connection from, Connection to, UUID companyId) throws SQLException {
+        try (PreparedStatement min = from.prepareStatement(
+                "SELECT min(start_appointment) FROM appointments WHERE company_id = ?")) {
+            min.setObject(1, companyId);
+            try (ResultSet rs = min.executeQuery()) {
+                if (rs.next() && rs.getObject(1) != null) {
+                    try (PreparedStatement ensure = to.prepareStatement(
+                            "SELECT appointments_ensure_partitions(?, 3)")) {
+                        ensure.setObject(1, rs.getObject(1));
+                        ensure.execute();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia as linhas da empresa com COPY em modo texto, listando as colunas do destino
+     * (a ordem física pode diferir entre bancos criados pelo baseline e pelas migrações).
+     */
+    private static long copyTable(CopyManager out, CopyManager in, Connection to, String table, UUID companyId)
+            throws SQLException {
+        String columns = String.join(", ", columns(to, table));
+        return stream(
+                out.copyOut("COPY (SELECT " + columns + " FROM " + table
+                        + " WHERE company_id = '" + companyId + "'::uuid) TO STDOUT"),
+                in.copyIn("COPY " + table + " (" + columns + ") FROM STDIN"));
+    }
+
+    /**
+     * Grava no destino a linha da empresa lida do shard padrão, sobrescrevendo a de uma
+     * movimentação anterior. Só existe ali para as FKs das tabelas da empresa.
+     */
+    private void syncCompany(CopyManager in, Connection to, UUID companyId) throws SQLException {
+        List<String> columnList = columns(to, "companies");
+        String columns = String.join(", ", columnList);
+        String updates = columnList.stream()
+                .filter(column -> !column.equals("id"))
+                .map(column -> column + " = EXCLUDED." + column)
+                .reduce((a, b) -> a + ", " + b)
+                .orElseThrow();
+
+        try (Connection primary = connect(TenantShardMap.DEFAULT_SHARD);
+             Statement statement = to.createStatement()) {
+            statement.execute("CREATE TEMP TABLE " + STAGING_TABLE
+                    + " (LIKE companies INCLUDING DEFAULTS) ON COMMIT DROP");
+            stream(
+                    primary.unwrap(PGConnection.class).getCopyAPI().copyOut("COPY (SELECT " + columns
+                            + " FROM companies WHERE id = '" + companyId + "'::uuid) TO STDOUT"),
+                    in.copyIn("COPY " + STAGING_TABLE + " (" + columns + ") FROM STDIN"));
+            statement.executeUpdate("INSERT INTO companies (" + columns + ")"
+                    + " SELECT " + columns + " FROM " + STAGING_TABLE
+                    + " ON CONFLICT (id) DO UPDATE SET " + updates);
+        }
+    }
+
+    private static long stream(CopyOut copyOut, CopyIn copyIn) throws SQLException {
+        try {
+            byte[] buffer;
+            while ((buffer = copyOut.readFromCopy()) != null) {
+                copyIn.writeToCopy(buffer, 0, buffer.length);
+            }
+            return copyIn.endCopy();
+        } finally {
+            if (copyOut.isActive()) {
+                copyOut.cancelCopy();
+            }
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static List<String> columns(Connection connection, String table) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT quote_ident(attname)
+                FROM pg_attribute
+                WHERE attrelid = ?::regclass AND attnum > 0 AND NOT attisdropped
+                ORDER BY attnum
+                """)) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    columns.add(rs.getString(1));
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Remove os dados da empresa da origem, filhos antes dos pais, em uma transação.
+     * A linha em companies fica (plano de controle no shard padrão, âncora de FK nos demais).
+     */
+    private void deleteSource(UUID companyId, String source) {
+        inTransaction(source, connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(FENCE_BYPASS);
+            }
+            for (int i = TABLES.size() - 1; i >= 0; i--) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM " + TABLES.get(i) + " WHERE company_id = ?")) {
+                    statement.setObject(1, companyId);
+                    statement.executeUpdate();
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionWork {
+        void run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Executa o trabalho em uma transação própria no shard.
+     */
+    private void inTransaction(String shard, ConnectionWork work) {
+        try (Connection connection = connect(shard)) {
+            connection.setAutoCommit(false);
+            try {
+                work.run(connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Erro no shard " + shard + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conexão física no shard: o proxy lazy só escolhe o banco no primeiro uso, então
+     * ela é materializada (unwrap) ainda dentro do escopo do shard.
+     */
+    private Connection connect(String shard) throws SQLException {
+        TenantContext.Handle scope = TenantContext.enterShard(shard);
+        try {
+            Connection connection = dataSource.getConnection();
+            try {
+                connection.unwrap(PGConnection.class);
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                connection.close();
+                throw e;
+            }
+        } finally {
+            scope.close();
+        }
+    }
+}
@@ -26,7 +26,14 @@ public class ConvertAndFormatUtil {
                 .reduce(BigDecimal.ZERO, BigDecimal::add); // Soma tudo
 
         // Formata como R$
+        return formatarMoeda(total);
+    }
+
+    /**
+     * Formata um valor como moeda brasileira. Ex: "R$ 125,50"
+     */
+    public static String formatarMoeda(BigDecimal valor) {
         NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("pt-BR"));
-        return currencyFormat.format(total);
+        return currencyFormat.format(valor != null ? valor : BigDecimal.ZERO);
     }
 }
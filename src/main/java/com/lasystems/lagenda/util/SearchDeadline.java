@@ -0,0 +1,40 @@
+package com.lasystems.lagenda.util;
+
+import java.time.Duration;
+
+/**
+ * Prazo de uma busca. Os laços da busca consultam {@link #expired()} antes de cada etapa
+ * cara; quando o prazo vence, a busca devolve o melhor resultado encontrado até ali e
+ * {@link #wasHit()} indica que o resultado é parcial.
+ */
+public final class SearchDeadline {
+
+    private final long deadlineNanos;
+    private boolean hit;
+
+    private SearchDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static SearchDeadline after(Duration budget) {
+        return new SearchDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * Prazo que nunca vence (buscas internas sem limite).
+     */
+    public static SearchDeadline none() {
+        return new SearchDeadline(Long.MAX_VALUE);
+    }
+
+    public boolean expired() {
+        if (!hit && deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos >= 0) {
+            hit = true;
+        }
+        return hit;
+    }
+
+    public boolean wasHit() {
+        return hit;
+    }
+}
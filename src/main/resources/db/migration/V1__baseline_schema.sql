@@ -0,0 +1,146 @@
+-- Schema base da aplicação (equivalente ao schema já existente em produção).
+-- Bancos existentes são marcados nesta versão via spring.flyway.baseline-on-migrate.
+
+CREATE TABLE IF NOT EXISTS companies (
+    id          uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    name        text,
+    category    text,
+    created_at  timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS plans (
+    id               text PRIMARY KEY,
+    name             text NOT NULL,
+    price            double precision NOT NULL,
+    stripe_price_id  text UNIQUE,
+    created_at       timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS subscriptions (
+    id                      uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id              uuid NOT NULL REFERENCES companies (id),
+    plan_id                 text NOT NULL REFERENCES plans (id),
+    stripe_subscription_id  text,
+    status                  text NOT NULL,
+    created_at              timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS company_users (
+    id          uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id     uuid NOT NULL,
+    company_id  uuid NOT NULL REFERENCES companies (id),
+    role        text NOT NULL,
+    created_at  timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS specialties (
+    id           uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    name         text NOT NULL,
+    company_id   uuid NOT NULL REFERENCES companies (id),
+    description  text NOT NULL,
+    created_at   timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS providers (
+    id           uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id   uuid NOT NULL REFERENCES companies (id),
+    name         text,
+    email        text,
+    phone        text,
+    calendar_id  text,
+    active       boolean,
+    created_at   timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS provider_specialties (
+    id            uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id    uuid NOT NULL REFERENCES companies (id),
+    provider_id   uuid NOT NULL REFERENCES providers (id),
+    specialty_id  uuid NOT NULL REFERENCES specialties (id),
+    created_at    timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS services (
+    id                uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    name              text NOT NULL,
+    price             numeric(10, 2),
+    company_id        uuid NOT NULL REFERENCES companies (id),
+    duration_minutes  integer,
+    requires_address  boolean,
+    created_at        timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS service_specialties (
+    id             uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id     uuid NOT NULL REFERENCES companies (id),
+    specialist_id  uuid NOT NULL REFERENCES specialties (id),
+    service_id     uuid NOT NULL REFERENCES services (id),
+    created_at     timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS clients (
+    id                    uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id            uuid NOT NULL REFERENCES companies (id),
+    name                  text,
+    email                 text,
+    phone                 text,
+    conversation_history  jsonb,
+    attendant_human       boolean,
+    created_at            timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS business_hours (
+    id           uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id   uuid NOT NULL REFERENCES companies (id),
+    day_of_week  integer CHECK (day_of_week >= 0 AND day_of_week <= 6),
+    start_time   time NOT NULL,
+    end_time     time NOT NULL,
+    created_at   timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS company_closures (
+    id          uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id  uuid NOT NULL REFERENCES companies (id),
+    date        date,
+    reason      text,
+    start_time  time,
+    end_time    time,
+    created_at  timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS appointments (
+    id                 uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id         uuid NOT NULL REFERENCES companies (id),
+    client_id          uuid NOT NULL REFERENCES clients (id),
+    provider_id        uuid NOT NULL REFERENCES providers (id),
+    event_id           text,
+    status             text DEFAULT 'SCHEDULED',
+    calendar_id        text,
+    notes              text,
+    start_appointment  timestamptz NOT NULL,
+    end_appointment    timestamptz NOT NULL,
+    created_at         timestamptz DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS appointment_services (
+    appointment_id  uuid NOT NULL REFERENCES appointments (id) ON DELETE CASCADE,
+    service_id      uuid NOT NULL REFERENCES services (id),
+    company_id      uuid NOT NULL REFERENCES companies (id),
+    price_service   numeric(10, 2) NOT NULL,
+    PRIMARY KEY (appointment_id, service_id, company_id)
+);
+
+CREATE TABLE IF NOT EXISTS api_keys (
+    id            uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+    company_id    uuid NOT NULL REFERENCES companies (id),
+    key_hash      text NOT NULL UNIQUE,
+    key_prefix    text NOT NULL,
+    name          text NOT NULL,
+    expires_at    timestamp,
+    last_used_at  timestamp,
+    is_active     boolean NOT NULL DEFAULT true,
+    permissions   text[],
+    rate_limit    integer,
+    usage_count   bigint DEFAULT 0,
+    created_at    timestamptz DEFAULT now()
+);
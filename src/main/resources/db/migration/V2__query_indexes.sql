@@ -0,0 +1,85 @@
+-- Índices alinhados às queries dos repositories.
+-- Criados com CONCURRENTLY para não bloquear escrita em produção
+-- (o Flyway executa estes comandos fora de transação).
+
+-- Conflito de horário por prestador (hasOverlappingAppointmentForProvider, findAvailableProviders).
+-- Só status ativos; a faixa em end_appointment descarta o histórico passado.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_active_provider_end
+    ON appointments (provider_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+-- Conflito de horário na empresa (hasOverlappingAppointmentForCompany)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_active_company_end
+    ON appointments (company_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+-- Conflito de horário do cliente (hasOverlappingAppointmentForClient)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_active_client_end
+    ON appointments (client_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+-- Agenda paginada e contagem diária por prestador
+-- (findAgendaPage*, countAppointmentsByProviderAndDate, findProviderWithLeastAppointments)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_company_start_id
+    ON appointments (company_id, start_appointment, id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_provider_start_id
+    ON appointments (provider_id, start_appointment, id);
+
+-- Job de finalização de agendamentos perdidos (findPastScheduledChunk)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_scheduled_start_id
+    ON appointments (start_appointment, id)
+    WHERE status = 'SCHEDULED';
+
+-- Serviços por agendamento já usam a PK (appointment_id, ...); busca reversa por serviço
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointment_services_service
+    ON appointment_services (service_id);
+
+-- ClientRepository.findByPhone
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_clients_phone
+    ON clients (phone);
+
+-- ApiKeyRepository.findByKeyHash (garante o índice mesmo sem a UNIQUE do schema base)
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_api_keys_key_hash
+    ON api_keys (key_hash);
+
+-- ApiKeyRepository.findActiveByCompanyId / countActiveByCompanyId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_api_keys_active_company
+    ON api_keys (company_id, created_at)
+    WHERE is_active = true;
+
+-- ApiKeyRepository.deactivateExpiredKeys (só chaves ativas com validade)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_api_keys_active_expires
+    ON api_keys (expires_at)
+    WHERE is_active = true AND expires_at IS NOT NULL;
+
+-- SubscriptionRepository.findActiveByCompanyId / hasActiveSubscription
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_subscriptions_active_company
+    ON subscriptions (company_id, created_at)
+    WHERE status = 'active';
+
+-- BusinessHourRepository.findByCompanyIdAndDayOfWeek / findByCompanyId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_business_hours_company_day
+    ON business_hours (company_id, day_of_week);
+
+-- CompanyClosureRepository.findByCompanyIdAndDate / findByCompanyId
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_company_closures_company_date
+    ON company_closures (company_id, date);
+
+-- ProviderRepository.findProvidersBySpecialty / findAvailableProviders / findProviderWithLeastAppointments
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_provider_specialties_specialty_provider
+    ON provider_specialties (specialty_id, provider_id);
+
+-- ServiceRepository.findSpecialtyIdsByServiceIds
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_service_specialties_service
+    ON service_specialties (service_id, specialist_id);
+
+-- Chaves estrangeiras por empresa usadas em listagens
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_providers_company
+    ON providers (company_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_services_company
+    ON services (company_id);
@@ -0,0 +1,188 @@
+-- Particiona appointments por mês em start_appointment e cria o arquivo frio.
+--
+-- Partições mensais: appointments_pYYYYMM (limites em UTC, mesma convenção do
+-- hibernate.jdbc.time_zone). Linhas fora das partições existentes caem em
+-- appointments_default até o job de manutenção criar o mês correspondente.
+--
+-- Histórico COMPLETED/CANCELLED anterior à janela de retenção é movido para
+-- appointments_archive / appointment_services_archive por appointments_archive_before().
+--
+-- ATENÇÃO: a cópia roda em uma única transação; em bases grandes, executar em janela de manutenção.
+
+ALTER TABLE appointments RENAME TO appointments_legacy;
+
+CREATE TABLE appointments (
+    id                 uuid NOT NULL DEFAULT gen_random_uuid(),
+    company_id         uuid NOT NULL REFERENCES companies (id),
+    client_id          uuid NOT NULL REFERENCES clients (id),
+    provider_id        uuid NOT NULL REFERENCES providers (id),
+    event_id           text,
+    status             text DEFAULT 'SCHEDULED',
+    calendar_id        text,
+    notes              text,
+    start_appointment  timestamptz NOT NULL,
+    end_appointment    timestamptz NOT NULL,
+    created_at         timestamptz DEFAULT now(),
+    -- A chave da partição precisa fazer parte da PK; o id continua único na prática (UUID)
+    PRIMARY KEY (id, start_appointment)
+) PARTITION BY RANGE (start_appointment);
+
+CREATE TABLE appointments_default PARTITION OF appointments DEFAULT;
+
+-- Cria (se faltarem) as partições mensais de from_ts até months_ahead meses após o mês atual.
+-- Linhas que já estejam na partição default para o mês são movidas antes do ATTACH.
+CREATE OR REPLACE FUNCTION appointments_ensure_partitions(from_ts timestamptz, months_ahead integer)
+RETURNS integer
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    month_start timestamp;
+    lower_bound timestamptz;
+    upper_bound timestamptz;
+    partition_name text;
+    created integer := 0;
+BEGIN
+    FOR month_start IN
+        SELECT generate_series(
+                       date_trunc('month', from_ts AT TIME ZONE 'UTC'),
+                       date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => months_ahead),
+                       interval '1 month')
+    LOOP
+        partition_name := 'appointments_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NOT NULL THEN
+            CONTINUE;
+        END IF;
+
+        lower_bound := month_start AT TIME ZONE 'UTC';
+        upper_bound := (month_start + interval '1 month') AT TIME ZONE 'UTC';
+
+        EXECUTE format('CREATE TABLE %I (LIKE appointments INCLUDING DEFAULTS)', partition_name);
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM appointments_default '
+                    || 'WHERE start_appointment >= %L AND start_appointment < %L RETURNING *) '
+                    || 'INSERT INTO %I SELECT * FROM moved',
+                lower_bound, upper_bound, partition_name);
+        EXECUTE format('ALTER TABLE appointments ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, lower_bound, upper_bound);
+        created := created + 1;
+    END LOOP;
+
+    RETURN created;
+END;
+$$;
+
+SELECT appointments_ensure_partitions(
+               coalesce((SELECT min(start_appointment) FROM appointments_legacy), now()),
+               3);
+
+INSERT INTO appointments (id, company_id, client_id, provider_id, event_id, status, calendar_id, notes,
+                          start_appointment, end_appointment, created_at)
+SELECT id, company_id, client_id, provider_id, event_id, status, calendar_id, notes,
+       start_appointment, end_appointment, created_at
+FROM appointments_legacy;
+
+-- Remove a tabela antiga (e a FK de appointment_services, que não pode referenciar
+-- só o id de uma tabela particionada). A remoção em cascata é feita pelo JPA (orphanRemoval).
+DROP TABLE appointments_legacy CASCADE;
+
+-- Índices da V2, agora no pai particionado (propagados para cada partição)
+CREATE INDEX idx_appointments_active_provider_end
+    ON appointments (provider_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+CREATE INDEX idx_appointments_active_company_end
+    ON appointments (company_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+CREATE INDEX idx_appointments_active_client_end
+    ON appointments (client_id, end_appointment)
+    INCLUDE (start_appointment)
+    WHERE status IN ('SCHEDULED', 'CONFIRMED');
+
+CREATE INDEX idx_appointments_company_start_id
+    ON appointments (company_id, start_appointment, id);
+
+CREATE INDEX idx_appointments_provider_start_id
+    ON appointments (provider_id, start_appointment, id);
+
+CREATE INDEX idx_appointments_scheduled_start_id
+    ON appointments (start_appointment, id)
+    WHERE status = 'SCHEDULED';
+
+-- Arquivo frio: mesmas colunas, sem particionamento
+CREATE TABLE appointments_archive (
+    LIKE appointments INCLUDING DEFAULTS,
+    archived_at timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_appointments_archive_company_start
+    ON appointments_archive (company_id, start_appointment);
+
+CREATE INDEX idx_appointments_archive_client
+    ON appointments_archive (client_id);
+
+CREATE TABLE appointment_services_archive (
+    LIKE appointment_services INCLUDING DEFAULTS,
+    PRIMARY KEY (appointment_id, service_id, company_id)
+);
+
+-- Move para o arquivo o histórico COMPLETED/CANCELLED anterior a cutoff e remove
+-- as partições mensais antigas que ficaram vazias.
+CREATE OR REPLACE FUNCTION appointments_archive_before(cutoff timestamptz)
+RETURNS bigint
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    moved bigint;
+    partition record;
+    upper_bound timestamptz;
+    has_rows boolean;
+BEGIN
+    WITH archived_services AS (
+        DELETE FROM appointment_services s
+        USING appointments a
+        WHERE a.id = s.appointment_id
+          AND a.start_appointment < cutoff
+          AND a.status IN ('COMPLETED', 'CANCELLED')
+        RETURNING s.*
+    )
+    INSERT INTO appointment_services_archive
+    SELECT * FROM archived_services;
+
+    WITH archived AS (
+        DELETE FROM appointments
+        WHERE start_appointment < cutoff
+          AND status IN ('COMPLETED', 'CANCELLED')
+        RETURNING *
+    )
+    INSERT INTO appointments_archive (id, company_id, client_id, provider_id, event_id, status, calendar_id,
+                                      notes, start_appointment, end_appointment, created_at)
+    SELECT id, company_id, client_id, provider_id, event_id, status, calendar_id,
+           notes, start_appointment, end_appointment, created_at
+    FROM archived;
+
+    GET DIAGNOSTICS moved = ROW_COUNT;
+
+    FOR partition IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'appointments'::regclass
+          AND c.relname ~ '^appointments_p[0-9]{6}$'
+    LOOP
+        upper_bound := (to_timestamp(substr(partition.relname, 15), 'YYYYMM')::timestamp
+                           + interval '1 month') AT TIME ZONE 'UTC';
+        IF upper_bound <= cutoff THEN
+            EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', partition.relname) INTO has_rows;
+            IF NOT has_rows THEN
+                EXECUTE format('DROP TABLE %I', partition.relname);
+            END IF;
+        END IF;
+    END LOOP;
+
+    RETURN moved;
+END;
+$$;
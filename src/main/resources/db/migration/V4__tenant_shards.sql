@@ -0,0 +1,15 @@
+-- Mapa empresa -> shard para o roteamento por empresa (datasource.shards.*).
+--
+-- Só é lido no shard padrão ("primary"), que também guarda companies, plans e api_keys
+-- (plano de controle). Empresas sem linha ficam no shard padrão. Nos demais shards a
+-- tabela existe apenas porque todos recebem as mesmas migrações.
+--
+-- state = 'MOVING' durante a cópia para outro shard: leituras continuam no shard de
+-- origem e escritas são recusadas com 503 até a troca.
+
+CREATE TABLE tenant_shards (
+    company_id  uuid PRIMARY KEY REFERENCES companies (id),
+    shard       text NOT NULL,
+    state       text NOT NULL DEFAULT 'ACTIVE' CHECK (state IN ('ACTIVE', 'MOVING')),
+    updated_at  timestamptz NOT NULL DEFAULT now()
+);
@@ -0,0 +1,52 @@
+-- Integridade appointment_services -> appointments depois da V3.
+--
+-- A V3 removeu a FK: appointments é particionada com PK (id, start_appointment) e
+-- appointment_services não tem start_appointment para uma FK composta. No lugar dela,
+-- dois constraint triggers adiados para o commit:
+--   * inserir/alterar appointment_services exige o agendamento em appointments;
+--   * remover um agendamento que ainda tenha serviços é recusado (RESTRICT).
+--
+-- São adiados (e não CASCADE) porque appointments_ensure_partitions e o UPDATE que muda
+-- start_appointment de mês movem a linha com DELETE + INSERT na mesma transação: no
+-- commit o agendamento já existe de novo. A remoção dos serviços continua com quem
+-- apaga o agendamento: o JPA (orphanRemoval), appointments_archive_before() e a
+-- limpeza do shard de origem, que apagam os filhos antes.
+
+CREATE OR REPLACE FUNCTION appointment_services_check_appointment()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM appointments WHERE id = NEW.appointment_id) THEN
+        RAISE EXCEPTION 'agendamento % não existe (appointment_services)', NEW.appointment_id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION appointments_check_services()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM appointment_services WHERE appointment_id = OLD.id)
+       AND NOT EXISTS (SELECT 1 FROM appointments WHERE id = OLD.id) THEN
+        RAISE EXCEPTION 'agendamento % ainda tem serviços em appointment_services', OLD.id
+            USING ERRCODE = 'foreign_key_violation';
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE CONSTRAINT TRIGGER appointment_services_appointment_exists
+    AFTER INSERT OR UPDATE OF appointment_id ON appointment_services
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    EXECUTE FUNCTION appointment_services_check_appointment();
+
+CREATE CONSTRAINT TRIGGER appointments_restrict_services
+    AFTER DELETE ON appointments
+    DEFERRABLE INITIALLY DEFERRED
+    FOR EACH ROW
+    EXECUTE FUNCTION appointments_check_services();
@@ -0,0 +1,77 @@
+-- Bloqueio de escrita por empresa no próprio banco, para a movimentação entre shards
+-- (TenantShardMoveService).
+--
+-- O mapa em memória já recusa transações de escrita da empresa em MOVING, mas uma
+-- instância com o mapa desatualizado, ou um comando fora de transação, ainda chegaria ao
+-- shard de origem durante a cópia e a escrita se perderia. A cerca fica em cada shard:
+--   * tenant_write_fences: empresas cujos dados este shard não aceita mais gravar;
+--   * tenant_write_guard(): trigger das tabelas da empresa. Pega o advisory lock
+--     compartilhado da empresa (até o fim da transação) e recusa a escrita se houver cerca.
+-- A movimentação grava a cerca e pega o mesmo lock em modo exclusivo na mesma transação:
+-- o commit só acontece depois que as transações que já passaram pela verificação terminam,
+-- e as seguintes (READ COMMITTED, o padrão da aplicação) enxergam a cerca.
+--
+-- A cerca fica na origem depois da movimentação. Quem grava com a cerca no lugar liga
+-- lagenda.tenant_fence_bypass: a própria movimentação (SET LOCAL) e as funções de
+-- manutenção de partições, que só reorganizam linhas existentes.
+
+CREATE TABLE tenant_write_fences (
+    company_id  uuid PRIMARY KEY,
+    target      text NOT NULL,
+    created_at  timestamptz NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE FUNCTION tenant_lock_key(company uuid)
+RETURNS bigint
+LANGUAGE sql
+IMMUTABLE
+AS $$
+    SELECT hashtextextended(company::text, 0)
+$$;
+
+CREATE OR REPLACE FUNCTION tenant_write_guard()
+RETURNS trigger
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    company uuid;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        company := OLD.company_id;
+    ELSE
+        company := NEW.company_id;
+    END IF;
+
+    IF coalesce(current_setting('lagenda.tenant_fence_bypass', true), '') <> 'on' THEN
+        PERFORM pg_advisory_xact_lock_shared(tenant_lock_key(company));
+        IF EXISTS (SELECT 1 FROM tenant_write_fences WHERE company_id = company) THEN
+            RAISE EXCEPTION 'empresa % em migração de shard; escrita recusada neste banco', company
+                USING ERRCODE = 'object_not_in_prerequisite_state';
+        END IF;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$;
+
+DO $$
+DECLARE
+    guarded text;
+BEGIN
+    FOREACH guarded IN ARRAY ARRAY[
+        'company_users', 'specialties', 'providers', 'provider_specialties', 'services',
+        'service_specialties', 'clients', 'business_hours', 'company_closures', 'appointments',
+        'appointment_services', 'appointments_archive', 'appointment_services_archive'
+    ] LOOP
+        EXECUTE format('CREATE TRIGGER %I BEFORE INSERT OR UPDATE OR DELETE ON %I '
+                           || 'FOR EACH ROW EXECUTE FUNCTION tenant_write_guard()',
+                       guarded || '_write_guard', guarded);
+    END LOOP;
+END;
+$$;
+
+ALTER FUNCTION appointments_ensure_partitions(timestamptz, integer) SET lagenda.tenant_fence_bypass = 'on';
+ALTER FUNCTION appointments_archive_before(timestamptz) SET lagenda.tenant_fence_bypass = 'on';
@@ -0,0 +1,55 @@
+-- Triggers de cerca (V6) só nos bancos com shards configurados.
+--
+-- Sem shards (o padrão) não há movimentação, e cada linha gravada pagava o advisory lock
+-- compartilhado e a consulta em tenant_write_fences à toa (ex.: 500 por lote de
+-- cancelAppointmentsBatch). Retornar cedo com a tabela de cercas vazia não serve: uma
+-- escrita que a visse vazia antes do commit da cerca não pegaria o lock, e a movimentação
+-- não esperaria por ela.
+--
+-- A migração remove os triggers; com datasource.shards habilitado, TenantShardMap chama
+-- tenant_write_guard_install() em cada shard na subida. A instalação é idempotente e
+-- serializada entre instâncias que sobem juntas.
+
+DO $$
+DECLARE
+    guarded text;
+BEGIN
+    FOREACH guarded IN ARRAY ARRAY[
+        'company_users', 'specialties', 'providers', 'provider_specialties', 'services',
+        'service_specialties', 'clients', 'business_hours', 'company_closures', 'appointments',
+        'appointment_services', 'appointments_archive', 'appointment_services_archive'
+    ] LOOP
+        EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', guarded || '_write_guard', guarded);
+    END LOOP;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION tenant_write_guard_install()
+RETURNS integer
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    guarded text;
+    installed integer := 0;
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtextextended('tenant_write_guard_install', 0));
+
+    FOREACH guarded IN ARRAY ARRAY[
+        'company_users', 'specialties', 'providers', 'provider_specialties', 'services',
+        'service_specialties', 'clients', 'business_hours', 'company_closures', 'appointments',
+        'appointment_services', 'appointments_archive', 'appointment_services_archive'
+    ] LOOP
+        IF NOT EXISTS (
+            SELECT 1 FROM pg_trigger
+            WHERE tgrelid = guarded::regclass AND tgname = guarded || '_write_guard'
+        ) THEN
+            EXECUTE format('CREATE TRIGGER %I BEFORE INSERT OR UPDATE OR DELETE ON %I '
+                               || 'FOR EACH ROW EXECUTE FUNCTION tenant_write_guard()',
+                           guarded || '_write_guard', guarded);
+            installed := installed + 1;
+        END IF;
+    END LOOP;
+
+    RETURN installed;
+END;
+$$;
@@ -0,0 +1,111 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.models.CompanyClosure;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calendário de fechamentos comparado com a verificação que ele substitui:
+ * CompanyClosure.overlapsWith sobre a lista de fechamentos da empresa.
+ */
+class ClosureCalendarTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 3, 1);
+    private static final int DAYS = 30;
+
+    @Test
+    void overlapsMatchesCompanyClosure() {
+        Random random = new Random(33);
+        for (int round = 0; round < 20; round++) {
+            List<CompanyClosure> closures = randomClosures(random, 25);
+            ClosureCalendar calendar = ClosureCalendar.of(closures);
+
+            for (int check = 0; check < 2_000; check++) {
+                LocalDateTime start = FIRST_DAY.minusDays(1).atStartOfDay()
+                        .plusMinutes(5L * random.nextInt((DAYS + 2) * 24 * 12));
+                LocalDateTime end = start.plusMinutes(5L * random.nextInt(1, 48));
+
+                boolean expected = closures.stream().anyMatch(c -> c.overlapsWith(start, end));
+                assertEquals(expected, calendar.overlaps(start, end), () -> start + " - " + end);
+            }
+        }
+    }
+
+    @Test
+    void rangeQueriesMatchClosureList() {
+        Random random = new Random(34);
+        List<CompanyClosure> closures = randomClosures(random, 25);
+        ClosureCalendar calendar = ClosureCalendar.of(closures);
+
+        for (int from = -1; from <= DAYS; from++) {
+            for (int to = from; to <= DAYS; to++) {
+                LocalDate fromDate = FIRST_DAY.plusDays(from);
+                LocalDate toDate = FIRST_DAY.plusDays(to);
+                List<CompanyClosure> inRange = closures.stream()
+                        .filter(c -> !c.getDate().isBefore(fromDate) && !c.getDate().isAfter(toDate))
+                        .toList();
+
+                assertEquals(!inRange.isEmpty(), calendar.hasClosureBetween(fromDate, toDate));
+                assertEquals(inRange.stream().filter(ClosureCalendarTest::isFullDay).count(),
+                        calendar.countFullDayClosuresBetween(fromDate, toDate));
+            }
+        }
+    }
+
+    @Test
+    void partialClosureDoesNotCloseTheWholeDay() {
+        LocalDate day = FIRST_DAY.plusDays(3);
+        ClosureCalendar calendar = ClosureCalendar.of(List.of(
+                closure(day, LocalTime.of(12, 0), LocalTime.of(14, 0)),
+                closure(day.plusDays(1), null, null)
+        ));
+
+        assertFalse(calendar.isClosedAllDay(day));
+        assertTrue(calendar.isClosedAllDay(day.plusDays(1)));
+        // Limites inclusivos, como em CompanyClosure.overlapsWith
+        assertTrue(calendar.overlaps(day.atTime(11, 0), day.atTime(12, 0)));
+        assertFalse(calendar.overlaps(day.atTime(11, 0), day.atTime(11, 59)));
+    }
+
+    @Test
+    void closuresWithoutDateAreIgnored() {
+        assertSame(ClosureCalendar.EMPTY, ClosureCalendar.of(List.of(closure(null, null, null))));
+    }
+
+    private static List<CompanyClosure> randomClosures(Random random, int count) {
+        List<CompanyClosure> closures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate date = FIRST_DAY.plusDays(random.nextInt(DAYS));
+            if (random.nextInt(3) == 0) {
+                closures.add(closure(date, null, null));
+            } else {
+                LocalTime start = LocalTime.of(0, 0).plusMinutes(15L * random.nextInt(90));
+                closures.add(closure(date, start, start.plusMinutes(15L * random.nextInt(1, 6))));
+            }
+        }
+        return closures;
+    }
+
+    private static boolean isFullDay(CompanyClosure closure) {
+        return closure.getStartTime() == null || closure.getEndTime() == null;
+    }
+
+    private static CompanyClosure closure(LocalDate date, LocalTime start, LocalTime end) {
+        CompanyClosure closure = new CompanyClosure();
+        closure.setDate(date);
+        closure.setStartTime(start);
+        closure.setEndTime(end);
+        return closure;
+    }
+}
@@ -0,0 +1,169 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.models.BusinessHour;
+import com.lasystems.lagenda.repository.AppointmentRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calendário materializado comparado com a regra da busca ao vivo
+ * (AppointmentRepository.hasOverlappingAppointmentForCompany, transcrita em {@link #liveFreeSlots}).
+ */
+class FreeSlotCalendarTest {
+
+    private static final UUID COMPANY = UUID.fromString("00000000-0000-0000-0000-0000000000c1");
+    private static final LocalDate HORIZON_START = LocalDate.of(2026, 3, 2); // segunda-feira
+    private static final int HORIZON_DAYS = 14;
+    private static final int[] DURATIONS = {15, 30, 45, 60, 90};
+
+    private final CompanySchedule schedule = CompanySchedule.compile(COMPANY, List.of(
+            // Segunda a sexta com intervalo de almoço, sábado de manhã, domingo madrugada adentro
+            hours(1, "08:00", "12:00"), hours(1, "13:00", "18:00"),
+            hours(2, "08:00", "12:00"), hours(2, "13:00", "18:00"),
+            hours(3, "08:00", "12:00"), hours(3, "13:00", "18:00"),
+            hours(4, "08:00", "12:00"), hours(4, "13:00", "18:00"),
+            hours(5, "08:00", "12:00"), hours(5, "13:00", "18:00"),
+            hours(6, "09:00", "13:00"),
+            hours(0, "00:00", "06:00")
+    ), ClosureCalendar.EMPTY);
+
+    @Test
+    void freeSlotsMatchLiveRule() {
+        Random random = new Random(41);
+        for (int round = 0; round < 20; round++) {
+            List<BusyIntervalDto> busy = randomBusy(random, 40);
+            FreeSlotCalendar calendar = FreeSlotCalendar.of(COMPANY, schedule, HORIZON_START, HORIZON_DAYS, busy);
+
+            assertMatchesLiveRule(calendar, busy);
+        }
+    }
+
+    @Test
+    void incrementalChangesMatchLiveRule() {
+        Random random = new Random(42);
+        List<BusyIntervalDto> busy = randomBusy(random, 30);
+        FreeSlotCalendar calendar = FreeSlotCalendar.of(COMPANY, schedule, HORIZON_START, HORIZON_DAYS, busy);
+        assertMatchesLiveRule(calendar, busy); // materializa todos os dias antes das mudanças
+
+        for (int change = 0; change < 60; change++) {
+            int choice = random.nextInt(3);
+            if (choice == 0 || busy.isEmpty()) {
+                BusyIntervalDto added = randomInterval(random, UUID.randomUUID());
+                busy.add(added);
+                calendar = calendar.withBusy(added);
+            } else if (choice == 1) {
+                // Remarcação: mesmo agendamento, outro horário (possivelmente outro dia)
+                int index = random.nextInt(busy.size());
+                BusyIntervalDto moved = randomInterval(random, busy.get(index).appointmentId());
+                busy.set(index, moved);
+                calendar = calendar.withBusy(moved);
+            } else {
+                BusyIntervalDto removed = busy.remove(random.nextInt(busy.size()));
+                calendar = calendar.withoutAppointment(removed.appointmentId());
+            }
+
+            assertMatchesLiveRule(calendar, busy);
+        }
+    }
+
+    @Test
+    void appointmentCrossingMidnightBlocksBothDays() {
+        LocalDate sunday = HORIZON_START.minusDays(1).plusWeeks(1);
+        BusyIntervalDto late = interval(UUID.randomUUID(), sunday.minusDays(1).atTime(23, 0), sunday.atTime(1, 0));
+        FreeSlotCalendar calendar = FreeSlotCalendar.of(COMPANY, schedule, HORIZON_START, HORIZON_DAYS, List.of(late));
+
+        assertFalse(calendar.freeSlots(sunday, 30).contains(LocalTime.of(0, 0)));
+        assertTrue(calendar.freeSlots(sunday, 30).contains(LocalTime.of(1, 0)));
+        assertMatchesLiveRule(calendar, List.of(late));
+    }
+
+    @Test
+    void removingUnknownAppointmentKeepsInstance() {
+        FreeSlotCalendar calendar = FreeSlotCalendar.of(COMPANY, schedule, HORIZON_START, HORIZON_DAYS, List.of());
+
+        assertSame(calendar, calendar.withoutAppointment(UUID.randomUUID()));
+    }
+
+    @Test
+    void coversOnlyTheHorizon() {
+        FreeSlotCalendar calendar = FreeSlotCalendar.of(COMPANY, schedule, HORIZON_START, HORIZON_DAYS, List.of());
+
+        assertFalse(calendar.covers(HORIZON_START.minusDays(1)));
+        assertTrue(calendar.covers(HORIZON_START));
+        assertTrue(calendar.covers(HORIZON_START.plusDays(HORIZON_DAYS - 1)));
+        assertFalse(calendar.covers(HORIZON_START.plusDays(HORIZON_DAYS)));
+    }
+
+    private void assertMatchesLiveRule(FreeSlotCalendar calendar, List<BusyIntervalDto> busy) {
+        for (int day = 0; day < HORIZON_DAYS; day++) {
+            LocalDate date = HORIZON_START.plusDays(day);
+            for (int duration : DURATIONS) {
+                assertEquals(liveFreeSlots(busy, date, duration), calendar.freeSlots(date, duration),
+                        () -> "dia " + date + ", duração " + duration);
+            }
+        }
+    }
+
+    // Mesma regra de AppointmentService.getAvailableTimesForDay sem o calendário
+    private List<LocalTime> liveFreeSlots(List<BusyIntervalDto> busy, LocalDate date, int duration) {
+        List<LocalTime> free = new ArrayList<>();
+        for (int minuteOfDay : schedule.slotStarts(CompanySchedule.toDayOfWeek(date), duration)) {
+            LocalTime time = LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+            LocalDateTime start = date.atTime(time);
+            LocalDateTime end = start.plusMinutes(duration);
+            if (!hasOverlappingAppointmentForCompany(busy, start, end)) {
+                free.add(time);
+            }
+        }
+        return free;
+    }
+
+    private static boolean hasOverlappingAppointmentForCompany(
+            List<BusyIntervalDto> busy, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime windowStart = AppointmentRepository.overlapWindowStart(start);
+        return busy.stream().anyMatch(a -> a.end().isAfter(start)
+                && !a.start().isBefore(windowStart)
+                && a.start().isBefore(end));
+    }
+
+    private static List<BusyIntervalDto> randomBusy(Random random, int count) {
+        List<BusyIntervalDto> busy = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            busy.add(randomInterval(random, UUID.randomUUID()));
+        }
+        return busy;
+    }
+
+    // Inícios em múltiplos de 5 minutos (fora da grade de slots) e alguns períodos longos
+    private static BusyIntervalDto randomInterval(Random random, UUID appointmentId) {
+        LocalDateTime start = HORIZON_START.minusDays(1).atStartOfDay()
+                .plusMinutes(5L * random.nextInt((HORIZON_DAYS + 1) * 24 * 12));
+        int minutes = random.nextInt(10) == 0 ? 60 * (1 + random.nextInt(20)) : 5 * (1 + random.nextInt(24));
+        return interval(appointmentId, start, start.plusMinutes(minutes));
+    }
+
+    private static BusyIntervalDto interval(UUID appointmentId, LocalDateTime start, LocalDateTime end) {
+        return new BusyIntervalDto(appointmentId, UUID.randomUUID(), start, end);
+    }
+
+    private static BusinessHour hours(int dayOfWeek, String start, String end) {
+        BusinessHour hour = new BusinessHour();
+        hour.setDayOfWeek(dayOfWeek);
+        hour.setStartTime(LocalTime.parse(start));
+        hour.setEndTime(LocalTime.parse(end));
+        return hour;
+    }
+}
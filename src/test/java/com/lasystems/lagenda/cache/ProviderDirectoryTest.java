@@ -0,0 +1,86 @@
+package com.lasystems.lagenda.cache;
+
+import com.lasystems.lagenda.dtos.providers.ProviderDirectoryRowDto;
+import com.lasystems.lagenda.dtos.providers.ProviderSpecialtyRowDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diretório comparado com a consulta que ele substitui: prestadores da empresa com vínculo
+ * na especialidade (ProviderSpecialist), na ordem de findDirectoryRows.
+ */
+class ProviderDirectoryTest {
+
+    @Test
+    void qualifiedForMatchesSpecialtyRows() {
+        Random random = new Random(35);
+        List<ProviderDirectoryRowDto> providers = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            providers.add(new ProviderDirectoryRowDto(UUID.randomUUID(), "calendar-" + i));
+        }
+        providers.sort(Comparator.comparing(ProviderDirectoryRowDto::id));
+
+        List<UUID> specialties = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            specialties.add(UUID.randomUUID());
+        }
+        List<ProviderSpecialtyRowDto> links = new ArrayList<>();
+        for (ProviderDirectoryRowDto provider : providers) {
+            for (UUID specialty : specialties) {
+                if (random.nextInt(4) == 0) {
+                    links.add(new ProviderSpecialtyRowDto(provider.id(), specialty));
+                }
+            }
+        }
+        // Vínculo de prestador que não está no diretório (outra empresa, removido)
+        links.add(new ProviderSpecialtyRowDto(UUID.randomUUID(), specialties.get(0)));
+
+        ProviderDirectory directory = ProviderDirectory.of(providers, links);
+
+        for (UUID specialty : specialties) {
+            List<UUID> expected = providers.stream()
+                    .map(ProviderDirectoryRowDto::id)
+                    .filter(id -> links.contains(new ProviderSpecialtyRowDto(id, specialty)))
+                    .toList();
+            assertEquals(expected, directory.providerIds(directory.qualifiedFor(specialty)));
+        }
+        assertTrue(directory.qualifiedFor(UUID.randomUUID()).isEmpty());
+        assertEquals(providers.size(), directory.size());
+    }
+
+    @Test
+    void qualifiedForReturnsACopy() {
+        UUID provider = UUID.randomUUID();
+        UUID specialty = UUID.randomUUID();
+        ProviderDirectory directory = ProviderDirectory.of(
+                List.of(new ProviderDirectoryRowDto(provider, "calendar")),
+                List.of(new ProviderSpecialtyRowDto(provider, specialty)));
+
+        BitSet qualified = directory.qualifiedFor(specialty);
+        qualified.clear();
+        directory.qualifiedFor(UUID.randomUUID()).set(0);
+
+        assertEquals(List.of(provider), directory.providerIds(directory.qualifiedFor(specialty)));
+        assertTrue(directory.qualifiedFor(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void calendarIdByProvider() {
+        UUID provider = UUID.randomUUID();
+        ProviderDirectory directory = ProviderDirectory.of(
+                List.of(new ProviderDirectoryRowDto(provider, "calendar")), List.of());
+
+        assertEquals("calendar", directory.getCalendarId(provider));
+        assertNull(directory.getCalendarId(UUID.randomUUID()));
+    }
+}
@@ -0,0 +1,139 @@
+package com.lasystems.lagenda.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compara vazão e p99 de latência entre o modelo atual (pool de 200 threads de
+ * plataforma, como o Tomcat, sem admissão) e virtual threads com
+ * {@link AdmissionControlFilter} dimensionado pelo pool de conexões.
+ * <p>
+ * O "banco" é simulado: um semáforo do tamanho do pool Hikari (com o mesmo
+ * connection-timeout) e uma query de duração fixa. Os números vão para a saída
+ * padrão; o teste só garante que toda requisição terminou (200 ou 503).
+ * <p>
+ * Execução: LAGENDA_BENCHMARK=1 mvn test -Dtest=AdmissionControlBenchmarkTest
+ */
+@EnabledIfEnvironmentVariable(named = "LAGENDA_BENCHMARK", matches = ".+")
+class AdmissionControlBenchmarkTest {
+
+    private static final int POOL_SIZE = 5;
+    private static final Duration CONNECTION_TIMEOUT = Duration.ofSeconds(20);
+    private static final Duration QUERY_TIME = Duration.ofMillis(10);
+    private static final int PLATFORM_THREADS = 200;
+    private static final int REQUESTS = 5_000;
+    private static final int WARMUP_REQUESTS = 500;
+
+    @Test
+    void compareThreadModels() throws Exception {
+        run("warm-up", Executors.newFixedThreadPool(PLATFORM_THREADS), null, WARMUP_REQUESTS);
+        run("warm-up", Executors.newVirtualThreadPerTaskExecutor(), admission(), WARMUP_REQUESTS);
+
+        Result platform = run("plataforma (" + PLATFORM_THREADS + " threads)",
+                Executors.newFixedThreadPool(PLATFORM_THREADS), null, REQUESTS);
+        Result virtual = run("virtual + admissão (" + POOL_SIZE + ")",
+                Executors.newVirtualThreadPerTaskExecutor(), admission(), REQUESTS);
+
+        System.out.println(platform);
+        System.out.println(virtual);
+
+        assertEquals(REQUESTS, platform.ok() + platform.rejected());
+        assertEquals(REQUESTS, virtual.ok() + virtual.rejected());
+    }
+
+    private static AdmissionControlFilter admission() {
+        // Fila grande: mede o enfileiramento, não o descarte
+        return new AdmissionControlFilter(new SimpleMeterRegistry(), true, POOL_SIZE, REQUESTS, Duration.ofMinutes(1));
+    }
+
+    private static Result run(String name, ExecutorService executor, AdmissionControlFilter filter, int requests)
+            throws Exception {
+        Semaphore connections = new Semaphore(POOL_SIZE, true);
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                try {
+                    if (!connections.tryAcquire(CONNECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        return;
+                    }
+                    try {
+                        Thread.sleep(QUERY_TIME);
+                    } finally {
+                        connections.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+
+        long[] latencies = new long[requests];
+        List<Future<Integer>> futures = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < requests; i++) {
+                final int index = i;
+                final long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/appointments/availability");
+                    MockHttpServletResponse response = new MockHttpServletResponse();
+                    MockFilterChain chain = filter != null
+                            ? new MockFilterChain(servlet, filter)
+                            : new MockFilterChain(servlet);
+                    chain.doFilter(request, response);
+                    latencies[index] = System.nanoTime() - submitted;
+                    return response.getStatus();
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int ok = 0;
+        int rejected = 0;
+        for (Future<Integer> future : futures) {
+            if (future.get() == HttpServletResponse.SC_OK) {
+                ok++;
+            } else {
+                rejected++;
+            }
+        }
+
+        Arrays.sort(latencies);
+        return new Result(
+                name,
+                requests / (elapsed / 1_000_000_000.0),
+                Duration.ofNanos(latencies[requests / 2]),
+                Duration.ofNanos(latencies[(int) Math.ceil(requests * 0.99) - 1]),
+                ok,
+                rejected
+        );
+    }
+
+    private record Result(String name, double throughput, Duration p50, Duration p99, int ok, int rejected) {
+        @Override
+        public String toString() {
+            return String.format("%-32s %8.1f req/s  p50 %6d ms  p99 %6d ms  ok %d  rejeitadas %d",
+                    name, throughput, p50.toMillis(), p99.toMillis(), ok, rejected);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.lasystems.lagenda.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicaPropertiesTest {
+
+    @Test
+    void defaultsAreValid() {
+        assertDoesNotThrow(new ReplicaProperties()::validate);
+    }
+
+    @Test
+    void rejectsReadYourWritesShorterThanMaxLag() {
+        ReplicaProperties properties = properties(Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, properties::validate);
+    }
+
+    @Test
+    void disabledReadYourWritesIsAccepted() {
+        ReplicaProperties properties = properties(Duration.ofSeconds(10), Duration.ZERO);
+
+        assertDoesNotThrow(properties::validate);
+    }
+
+    private static ReplicaProperties properties(Duration maxLag, Duration readYourWrites) {
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLag(maxLag);
+        properties.setReadYourWrites(readYourWrites);
+        return properties;
+    }
+}
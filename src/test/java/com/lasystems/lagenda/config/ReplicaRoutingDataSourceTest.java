@@ -0,0 +1,269 @@
+package com.lasystems.lagenda.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Roteamento primário/réplica contra duas instâncias PostgreSQL locais (não precisam
+ * estar replicadas: cada uma recebe uma tabela marcadora dizendo quem é).
+ * <p>
+ * Requer LAGENDA_TEST_DB_URL e LAGENDA_TEST_REPLICA_URL (usuário e senha em
+ * LAGENDA_TEST_DB_USER e LAGENDA_TEST_DB_PASSWORD, os mesmos nas duas).
+ */
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_DB_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_REPLICA_URL", matches = ".+")
+class ReplicaRoutingDataSourceTest {
+
+    private static final String MARKER_TABLE = "replica_routing_test_marker";
+    private static final UUID COMPANY_A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID COMPANY_B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+
+    private static DataSource primary;
+    private static DataSource replica;
+
+    @BeforeAll
+    static void markInstances() {
+        primary = dataSource(System.getenv("LAGENDA_TEST_DB_URL"));
+        replica = dataSource(System.getenv("LAGENDA_TEST_REPLICA_URL"));
+        mark(primary, "primary");
+        mark(replica, "replica");
+    }
+
+    @AfterAll
+    static void dropMarkers() {
+        new JdbcTemplate(primary).execute("DROP TABLE IF EXISTS " + MARKER_TABLE);
+        new JdbcTemplate(replica).execute("DROP TABLE IF EXISTS " + MARKER_TABLE);
+    }
+
+    @AfterEach
+    void clearTenant() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        Routing routing = routing(healthyMonitor(), Duration.ZERO);
+
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void writeTransactionsGoToPrimary() {
+        Routing routing = routing(healthyMonitor(), Duration.ZERO);
+
+        assertEquals("primary", routing.write());
+    }
+
+    @Test
+    void readYourWritesKeepsOnlyTheWritingTenantOnPrimary() {
+        Routing routing = routing(healthyMonitor(), Duration.ofMinutes(1));
+
+        authenticate(COMPANY_A);
+        routing.write();
+        assertEquals("primary", routing.read());
+
+        authenticate(COMPANY_B);
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void readYourWritesWindowExpires() throws InterruptedException {
+        Routing routing = routing(healthyMonitor(), Duration.ofMillis(200));
+
+        authenticate(COMPANY_A);
+        routing.write();
+        Thread.sleep(400);
+
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void invalidatedTenantReadsFromPrimaryUntilPinExpires() throws InterruptedException {
+        ReplicaReadPins pins = new ReplicaReadPins(Duration.ofMillis(200));
+        Routing routing = routing(healthyMonitor(), pins, Duration.ZERO);
+
+        pins.pin(COMPANY_A);
+        authenticate(COMPANY_A);
+        assertEquals("primary", routing.read());
+        authenticate(COMPANY_B);
+        assertEquals("replica", routing.read());
+
+        Thread.sleep(400);
+        authenticate(COMPANY_A);
+        assertEquals("replica", routing.read());
+    }
+
+    @Test
+    void pinAllKeepsEveryReadOnPrimary() {
+        ReplicaReadPins pins = new ReplicaReadPins(Duration.ofMinutes(1));
+        Routing routing = routing(healthyMonitor(), pins, Duration.ZERO);
+
+        pins.pinAll();
+
+        assertEquals("primary", routing.read());
+        authenticate(COMPANY_B);
+        assertEquals("primary", routing.read());
+    }
+
+    @Test
+    void jpaTransactionsAreRoutedLikeJdbc() {
+        // Caminho dos services: JpaTransactionManager + HibernateJpaDialect, que pede a
+        // conexão (ao proxy) antes de a transação estar marcada como readOnly
+        LocalContainerEntityManagerFactoryBean factory = entityManagerFactory(
+                routedDataSource(healthyMonitor(), noPins(), Duration.ofMinutes(1)));
+        try {
+            Routing routing = jpaRouting(factory.getObject());
+
+            assertEquals("replica", routing.read());
+            assertEquals("primary", routing.write());
+
+            authenticate(COMPANY_A);
+            assertEquals("primary", routing.write());
+            assertEquals("primary", routing.read());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaIsUnreachable() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(
+                dataSource("jdbc:postgresql://127.0.0.1:1/unreachable"), Duration.ofSeconds(10));
+        monitor.check();
+        Routing routing = routing(monitor, Duration.ZERO);
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", routing.read());
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenLagExceedsLimit() {
+        // Limite negativo: qualquer atraso medido (mesmo 0) fica acima dele
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(-1));
+        monitor.check();
+        Routing routing = routing(monitor, Duration.ZERO);
+
+        assertFalse(monitor.isReplicaUsable());
+        assertEquals("primary", routing.read());
+    }
+
+    private static ReplicaLagMonitor healthyMonitor() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, Duration.ofSeconds(10));
+        monitor.check();
+        return monitor;
+    }
+
+    private static ReplicaReadPins noPins() {
+        return new ReplicaReadPins(Duration.ofSeconds(10));
+    }
+
+    private static Routing routing(ReplicaLagMonitor monitor, Duration readYourWrites) {
+        return routing(monitor, noPins(), readYourWrites);
+    }
+
+    private static Routing routing(ReplicaLagMonitor monitor, ReplicaReadPins pins, Duration readYourWrites) {
+        DataSource routed = routedDataSource(monitor, pins, readYourWrites);
+        return new Routing(new DataSourceTransactionManager(routed),
+                () -> new JdbcTemplate(routed).queryForObject("SELECT name FROM " + MARKER_TABLE, String.class));
+    }
+
+    private static Routing jpaRouting(EntityManagerFactory entityManagerFactory) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        transactionManager.setJpaDialect(new HibernateJpaDialect());
+        return new Routing(transactionManager, () -> (String) EntityManagerFactoryUtils
+                .getTransactionalEntityManager(entityManagerFactory)
+                .createNativeQuery("SELECT name FROM " + MARKER_TABLE)
+                .getSingleResult());
+    }
+
+    // Mesma montagem de ReplicaDataSourceConfig.dataSource
+    private static DataSource routedDataSource(ReplicaLagMonitor monitor, ReplicaReadPins pins, Duration readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(monitor, pins, readYourWrites);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Target.PRIMARY, primary,
+                ReplicaRoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Sem entidades e sem ler metadados JDBC na subida: nenhuma conexão antes do teste
+    private static LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect",
+                "hibernate.boot.allow_jdbc_metadata_access", "false"));
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    private static void authenticate(UUID companyId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(companyId, null, List.of()));
+    }
+
+    private static void mark(DataSource dataSource, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP TABLE IF EXISTS " + MARKER_TABLE);
+        jdbc.execute("CREATE TABLE " + MARKER_TABLE + " (name text NOT NULL)");
+        jdbc.update("INSERT INTO " + MARKER_TABLE + " (name) VALUES (?)", name);
+    }
+
+    private static DataSource dataSource(String url) {
+        return new DriverManagerDataSource(
+                url,
+                System.getenv("LAGENDA_TEST_DB_USER"),
+                System.getenv("LAGENDA_TEST_DB_PASSWORD")
+        );
+    }
+
+    /**
+     * Executa a leitura do marcador em transação readOnly ou de escrita.
+     */
+    private record Routing(PlatformTransactionManager transactionManager, Supplier<String> marker) {
+
+        String read() {
+            return inTransaction(true);
+        }
+
+        String write() {
+            return inTransaction(false);
+        }
+
+        private String inTransaction(boolean readOnly) {
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.setReadOnly(readOnly);
+            return template.execute(status -> marker.get());
+        }
+    }
+}
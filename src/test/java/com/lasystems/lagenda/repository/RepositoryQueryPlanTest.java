@@ -0,0 +1,487 @@
+package com.lasystems.lagenda.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Regressão de planos de execução para todas as queries @Query do pacote repository.
+ * <p>
+ * Aplica as migrações em um schema isolado de um PostgreSQL local (16+, por causa de
+ * EXPLAIN GENERIC_PLAN), popula um volume realista, executa cada método para capturar
+ * o SQL gerado e roda EXPLAIN (FORMAT JSON) sobre ele. Falha se houver Seq Scan em
+ * appointments, clients ou api_keys ou se o custo estimado passar do orçamento.
+ * <p>
+ * O formato de cada plano fica salvo em src/test/resources/query-plans; uma mudança
+ * de plano falha o teste até o snapshot ser atualizado com -Dquery-plans.update=true.
+ * <p>
+ * Requer LAGENDA_TEST_DB_URL, LAGENDA_TEST_DB_USER e LAGENDA_TEST_DB_PASSWORD.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.lasystems.lagenda.repository.CapturingStatementInspector",
+        "spring.flyway.schemas=" + RepositoryQueryPlanTest.SCHEMA,
+        "spring.flyway.default-schema=" + RepositoryQueryPlanTest.SCHEMA,
+        "spring.datasource.hikari.schema=" + RepositoryQueryPlanTest.SCHEMA,
+        "n8n.google.calendar.webhook.url=http://localhost/webhook",
+        "jwt.secret=test",
+        "bootstrap.secret=test",
+        "bootstrap.enabled=false",
+        "cors.allowed.origins=http://localhost"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_DB_URL", matches = ".+")
+class RepositoryQueryPlanTest {
+
+    static final String SCHEMA = "query_plan_test";
+
+    private static final String REPOSITORY_PACKAGE = "com.lasystems.lagenda.repository";
+    private static final Pattern PARTITION_NAME = Pattern.compile("appointments_(p\\d{6}|default)");
+    private static final Pattern PARTITION_PREFIX = Pattern.compile("appointments_p\\d{6}");
+    private static final Set<String> NO_SEQ_SCAN_TABLES = Set.of("appointments", "clients", "api_keys");
+
+    /**
+     * Queries que leem por definição todas as linhas das partições que sobram após a poda
+     * (agregações do warmup). No plano genérico nenhuma partição é podada, então o Seq Scan
+     * aparece em todas; em execução só as partições a partir de :since são lidas.
+     */
+    private static final Set<String> SEQ_SCAN_ALLOWED = Set.of(
+            "AppointmentRepository.findRecentlyActiveCompanyIds"
+    );
+    private static final Path SNAPSHOT_DIR = Path.of("src", "test", "resources", "query-plans");
+    private static final boolean UPDATE_SNAPSHOTS = Boolean.getBoolean("query-plans.update");
+
+    /**
+     * Custo estimado máximo por método (Interface.metodo), com cerca de 2x de folga sobre
+     * o custo medido com o volume semeado. Query nova sem orçamento falha o teste.
+     */
+    private static final Map<String, Double> COST_BUDGETS = Map.ofEntries(
+            Map.entry("ApiKeyRepository.countActiveByCompanyId", 200.0),
+            Map.entry("ApiKeyRepository.deactivateExpiredKeys", 20.0),
+            Map.entry("ApiKeyRepository.findActiveByCompanyId", 200.0),
+            Map.entry("ApiKeyRepository.updateUsage", 20.0),
+            Map.entry("AppointmentRepository.cancelAppointmentsBatch", 500.0),
+            Map.entry("AppointmentRepository.countActiveAppointmentsByProviders", 500.0),
+            Map.entry("AppointmentRepository.countAppointmentsByProviderAndDate", 500.0),
+            Map.entry("AppointmentRepository.findAgendaPage", 150.0),
+            Map.entry("AppointmentRepository.findAgendaPageByProvider", 100.0),
+            Map.entry("AppointmentRepository.findAgendaServices", 50.0),
+            Map.entry("AppointmentRepository.findBusyIntervals", 500.0),
+            Map.entry("AppointmentRepository.findBusyProviderIds", 20.0),
+            Map.entry("AppointmentRepository.findDetailById", 700.0),
+            Map.entry("AppointmentRepository.findPastScheduledChunk", 300.0),
+            // Agrega as partições recentes inteiras (ver SEQ_SCAN_ALLOWED)
+            Map.entry("AppointmentRepository.findRecentlyActiveCompanyIds", 25_000.0),
+            Map.entry("AppointmentRepository.hasOverlappingAppointmentForClient", 500.0),
+            Map.entry("AppointmentRepository.hasOverlappingAppointmentForCompany", 500.0),
+            Map.entry("AppointmentRepository.hasOverlappingAppointmentForProvider", 500.0),
+            Map.entry("BusinessHourRepository.findByCompanyIdAndDayOfWeek", 20.0),
+            Map.entry("CompanyClosureRepository.findByCompanyIdAndDate", 20.0),
+            Map.entry("CompanyUserRepository.existsByUserIdAndCompanyId", 10.0),
+            Map.entry("ProviderRepository.findDirectoryRows", 30.0),
+            Map.entry("ProviderRepository.findDirectorySpecialtyRows", 100.0),
+            Map.entry("ProviderRepository.findProvidersByCompany", 30.0),
+            Map.entry("ServiceRepository.findCatalogRows", 50.0),
+            Map.entry("ServiceRepository.findCatalogSpecialtyRows", 100.0),
+            Map.entry("ServiceRepository.findSpecialtyIdsByServiceIds", 50.0),
+            Map.entry("ServiceRepository.getTotalDuration", 20.0),
+            Map.entry("SpecialtyRepository.existsByIdAndCompany", 20.0),
+            Map.entry("SpecialtyRepository.findByIdAndCompany", 20.0),
+            Map.entry("SubscriptionRepository.findActiveByCompanyId", 10.0),
+            Map.entry("SubscriptionRepository.hasActiveSubscription", 10.0)
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SingleConnectionDataSource explainDataSource;
+
+    /**
+     * Partições de appointments sem linhas (meses fora do período semeado e a default).
+     * Nelas o Seq Scan é o plano certo e não conta como regressão.
+     */
+    private Set<String> emptyPartitions = Set.of();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getenv("LAGENDA_TEST_DB_URL");
+        String user = System.getenv("LAGENDA_TEST_DB_USER");
+        String password = System.getenv("LAGENDA_TEST_DB_PASSWORD");
+
+        // Schema limpo a cada execução: o Flyway recria tudo a partir das migrações
+        SingleConnectionDataSource admin = new SingleConnectionDataSource(url, user, password, false);
+        try {
+            new JdbcTemplate(admin).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            admin.destroy();
+        }
+
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> user);
+        registry.add("spring.datasource.password", () -> password);
+    }
+
+    @BeforeAll
+    void seed() {
+        // EXPLAIN GENERIC_PLAN com $1, $2... só passa no protocolo simples: no estendido o
+        // driver envia o bind sem valores e o servidor rejeita a consulta
+        String url = System.getenv("LAGENDA_TEST_DB_URL");
+        explainDataSource = new SingleConnectionDataSource(
+                url + (url.contains("?") ? "&" : "?") + "preferQueryMode=simple&currentSchema=" + SCHEMA,
+                System.getenv("LAGENDA_TEST_DB_USER"), System.getenv("LAGENDA_TEST_DB_PASSWORD"), true);
+
+        jdbcTemplate.execute("""
+                INSERT INTO companies (id, name, category)
+                SELECT md5('company' || c)::uuid, 'Empresa ' || c, 'beleza'
+                FROM generate_series(1, 50) c
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO plans (id, name, price) VALUES
+                    ('free', 'Free', 0), ('basic', 'Basic', 49.9), ('premium', 'Premium', 149.9)
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO subscriptions (company_id, plan_id, status, created_at)
+                SELECT md5('company' || c)::uuid, 'basic', s, now() - (c || ' days')::interval
+                FROM generate_series(1, 50) c, unnest(ARRAY['canceled', 'active']) s
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO specialties (id, name, company_id, description)
+                SELECT md5('specialty' || c || '-' || s)::uuid, 'Especialidade ' || s,
+                       md5('company' || c)::uuid, 'Descrição'
+                FROM generate_series(1, 50) c, generate_series(1, 5) s
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO providers (id, company_id, name, calendar_id, active)
+                SELECT md5('provider' || c || '-' || p)::uuid, md5('company' || c)::uuid,
+                       'Prestador ' || p, 'calendar-' || c || '-' || p, true
+                FROM generate_series(1, 50) c, generate_series(1, 10) p
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO provider_specialties (company_id, provider_id, specialty_id)
+                SELECT md5('company' || c)::uuid, md5('provider' || c || '-' || p)::uuid,
+                       md5('specialty' || c || '-' || ((p + k) % 5 + 1))::uuid
+                FROM generate_series(1, 50) c, generate_series(1, 10) p, generate_series(0, 1) k
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO services (id, name, price, company_id, duration_minutes)
+                SELECT md5('service' || c || '-' || s)::uuid, 'Serviço ' || s, 30 + s,
+                       md5('company' || c)::uuid, 30 + (s % 4) * 15
+                FROM generate_series(1, 50) c, generate_series(1, 20) s
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO service_specialties (company_id, specialist_id, service_id)
+                SELECT md5('company' || c)::uuid, md5('specialty' || c || '-' || (s % 5 + 1))::uuid,
+                       md5('service' || c || '-' || s)::uuid
+                FROM generate_series(1, 50) c, generate_series(1, 20) s
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO clients (id, company_id, name, phone)
+                SELECT md5('client' || c || '-' || n)::uuid, md5('company' || c)::uuid,
+                       'Cliente ' || n, '55' || lpad((c * 100000 + n)::text, 9, '0')
+                FROM generate_series(1, 50) c, generate_series(1, 2000) n
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO business_hours (company_id, day_of_week, start_time, end_time)
+                SELECT md5('company' || c)::uuid, d, t.s, t.e
+                FROM generate_series(1, 50) c, generate_series(1, 6) d,
+                     (VALUES (time '08:00', time '12:00'), (time '13:00', time '18:00')) t(s, e)
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO company_closures (company_id, date, reason)
+                SELECT md5('company' || c)::uuid, current_date + k * 12, 'Feriado'
+                FROM generate_series(1, 50) c, generate_series(-15, 15) k
+                """);
+        // Partições mensais para todo o período semeado (18 meses para trás, 6 à frente)
+        jdbcTemplate.queryForObject(
+                "SELECT appointments_ensure_partitions(now() - interval '19 months', 7)", Integer.class);
+        jdbcTemplate.execute("""
+                INSERT INTO appointments (id, company_id, client_id, provider_id, status,
+                                          start_appointment, end_appointment)
+                SELECT md5('appointment' || g)::uuid,
+                       md5('company' || (g % 50 + 1))::uuid,
+                       md5('client' || (g % 50 + 1) || '-' || ((g / 50) % 2000 + 1))::uuid,
+                       md5('provider' || (g % 50 + 1) || '-' || ((g / 50) % 10 + 1))::uuid,
+                       CASE
+                           WHEN day_offset < 0 AND g % 10 = 0 THEN 'CANCELLED'
+                           WHEN day_offset < 0 THEN 'COMPLETED'
+                           WHEN g % 3 = 0 THEN 'CONFIRMED'
+                           ELSE 'SCHEDULED'
+                       END,
+                       start_at, start_at + interval '1 hour'
+                FROM (
+                    SELECT g, (g % 720) - 540 AS day_offset,
+                           date_trunc('day', now()) + ((g % 720) - 540) * interval '1 day'
+                               + ((g / 7) % 10 + 8) * interval '1 hour' AS start_at
+                    FROM generate_series(1, 400000) g
+                ) seed
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO appointment_services (appointment_id, service_id, company_id, price_service)
+                SELECT a.id, md5('service' || (g % 50 + 1) || '-' || (g % 20 + 1))::uuid, a.company_id, 50
+                FROM generate_series(1, 400000) g
+                JOIN appointments a ON a.id = md5('appointment' || g)::uuid
+                """);
+        jdbcTemplate.execute("""
+                INSERT INTO api_keys (company_id, key_hash, key_prefix, name, is_active, usage_count)
+                SELECT md5('company' || (g % 50 + 1))::uuid, md5('key' || g), 'lag_live', 'Key ' || g,
+                       g % 3 <> 0, 0
+                FROM generate_series(1, 5000) g
+                """);
+        // VACUUM também: com o mapa de visibilidade dependendo de quando o autovacuum passa,
+        // a escolha entre Index Scan e Index Only Scan varia de uma execução para outra
+        jdbcTemplate.execute("VACUUM (ANALYZE)");
+
+        emptyPartitions = Set.copyOf(jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'appointments'::regclass AND c.reltuples <= 0
+                """, String.class));
+    }
+
+    @AfterAll
+    void closeExplainConnection() {
+        explainDataSource.destroy();
+    }
+
+    @TestFactory
+    Stream<DynamicTest> everyRepositoryQueryUsesIndexesWithinBudget() {
+        Repositories repositories = new Repositories(applicationContext);
+        List<DynamicTest> tests = new ArrayList<>();
+
+        for (Class<?> domainType : repositories) {
+            Class<?> repositoryInterface = repositories.getRepositoryInformationFor(domainType)
+                    .map(info -> info.getRepositoryInterface())
+                    .orElse(null);
+            if (repositoryInterface == null || !repositoryInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+                continue;
+            }
+
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow();
+
+            Arrays.stream(repositoryInterface.getDeclaredMethods())
+                    .filter(method -> method.isAnnotationPresent(Query.class))
+                    .sorted(Comparator.comparing(Method::getName))
+                    .forEach(method -> tests.add(DynamicTest.dynamicTest(
+                            repositoryInterface.getSimpleName() + "." + method.getName(),
+                            () -> checkPlan(repositoryInterface, repository, method)
+                    )));
+        }
+
+        assertFalse(tests.isEmpty(), "Nenhuma @Query encontrada em " + REPOSITORY_PACKAGE);
+        return tests.stream();
+    }
+
+    private void checkPlan(Class<?> repositoryInterface, Object repository, Method method) throws IOException {
+        String name = repositoryInterface.getSimpleName() + "." + method.getName();
+        String sql = captureSql(repository, method);
+
+        JsonNode plan = explain(sql);
+        double totalCost = plan.path("Total Cost").asDouble();
+        Double budget = COST_BUDGETS.get(name);
+        assertNotNull(budget, String.format(
+                "Sem orçamento de custo para %s (custo atual %.1f): adicione em COST_BUDGETS", name, totalCost));
+
+        List<String> seqScans = new ArrayList<>();
+        StringBuilder shape = new StringBuilder();
+        walk(plan, 0, shape, seqScans);
+
+        assertTrue(seqScans.isEmpty() || SEQ_SCAN_ALLOWED.contains(name),
+                name + " faz Seq Scan em " + seqScans + "\n" + shape);
+        assertTrue(totalCost <= budget,
+                String.format("%s custo %.1f acima do orçamento %.1f%n%s", name, totalCost, budget, shape));
+
+        compareWithSnapshot(name, "-- " + name + "\n" + shape);
+    }
+
+    /**
+     * Executa o método (em transação revertida) apenas para obter o SQL gerado pelo Hibernate.
+     */
+    private String captureSql(Object repository, Method method) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        CapturingStatementInspector.clear();
+
+        tx.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            try {
+                method.invoke(repository, sampleArguments(method));
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                fail("Falha ao executar " + method.getName() + ": " + cause.getMessage(), cause);
+            }
+        });
+
+        List<String> statements = CapturingStatementInspector.captured();
+        assertFalse(statements.isEmpty(), "Nenhum SQL capturado para " + method.getName());
+        return statements.get(statements.size() - 1);
+    }
+
+    private JsonNode explain(String sql) throws IOException {
+        // GENERIC_PLAN aceita parâmetros sem valor ($1, $2...), como em um prepared statement
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+
+        String json = new JdbcTemplate(explainDataSource).queryForObject(
+                "EXPLAIN (FORMAT JSON, GENERIC_PLAN) " + numbered, String.class);
+        return objectMapper.readTree(json).get(0).get("Plan");
+    }
+
+    private void walk(JsonNode node, int depth, StringBuilder shape, List<String> seqScans) {
+        String nodeType = node.path("Node Type").asText();
+        String rawRelation = node.path("Relation Name").asText(null);
+        String relation = normalizePartition(rawRelation);
+        String index = normalizePartition(node.path("Index Name").asText(null));
+
+        shape.append("  ".repeat(depth)).append(nodeType);
+        if (relation != null) {
+            shape.append(" on ").append(relation);
+        }
+        if (index != null) {
+            shape.append(" using ").append(index);
+        }
+        shape.append('\n');
+
+        if ("Seq Scan".equals(nodeType) && relation != null && NO_SEQ_SCAN_TABLES.contains(relation)
+                && !emptyPartitions.contains(rawRelation)) {
+            seqScans.add(relation);
+        }
+
+        for (JsonNode child : node.path("Plans")) {
+            walk(child, depth + 1, shape, seqScans);
+        }
+    }
+
+    /**
+     * Partições mensais de appointments (appointments_pYYYYMM e a default) contam como a
+     * própria tabela, e o nome do mês é removido para o snapshot não mudar com a data.
+     */
+    private static String normalizePartition(String name) {
+        if (name == null) {
+            return null;
+        }
+        if (PARTITION_NAME.matcher(name).matches()) {
+            return "appointments";
+        }
+        return PARTITION_PREFIX.matcher(name).replaceAll("appointments_pYYYYMM");
+    }
+
+    private void compareWithSnapshot(String name, String shape) throws IOException {
+        Path file = SNAPSHOT_DIR.resolve(name + ".plan");
+
+        if (UPDATE_SNAPSHOTS) {
+            Files.createDirectories(SNAPSHOT_DIR);
+            Files.writeString(file, shape, StandardCharsets.UTF_8);
+            return;
+        }
+
+        // Sem snapshot não há regressão a verificar: query nova precisa gerar e versionar o seu
+        assertTrue(Files.exists(file),
+                "Sem snapshot para " + name + " (" + file + "). Rode com -Dquery-plans.update=true e versione o arquivo.");
+
+        assertEquals(Files.readString(file, StandardCharsets.UTF_8), shape,
+                "Plano de " + name + " mudou. Revise e rode com -Dquery-plans.update=true para aceitar.");
+    }
+
+    private static Object[] sampleArguments(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+
+        for (int i = 0; i < types.length; i++) {
+            args[i] = sampleValue(types[i], genericTypes[i]);
+        }
+        return args;
+    }
+
+    private static Object sampleValue(Class<?> type, Type genericType) {
+        if (type == UUID.class) {
+            return UUID.randomUUID();
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.now();
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.now();
+        }
+        if (type == String.class) {
+            return "sample";
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Limit.class) {
+            return Limit.of(50);
+        }
+        if (type == Pageable.class) {
+            return PageRequest.of(0, 50);
+        }
+        if (List.class.isAssignableFrom(type) && genericType instanceof ParameterizedType parameterized) {
+            Type element = parameterized.getActualTypeArguments()[0];
+            return List.of(sampleValue((Class<?>) element, element));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,172 @@
+package com.lasystems.lagenda.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifica que a exportação mantém o heap estável em um volume grande.
+ * Requer um PostgreSQL local: LAGENDA_TEST_DB_URL, LAGENDA_TEST_DB_USER, LAGENDA_TEST_DB_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_DB_URL", matches = ".+")
+class AppointmentExportServiceTest {
+
+    private static final UUID COMPANY_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final int ROWS = 300_000;
+    private static final long MAX_RETAINED_GROWTH_BYTES = 16L * 1024 * 1024;
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void seed() {
+        dataSource = new SingleConnectionDataSource(
+                System.getenv("LAGENDA_TEST_DB_URL"),
+                System.getenv("LAGENDA_TEST_DB_USER"),
+                System.getenv("LAGENDA_TEST_DB_PASSWORD"),
+                true
+        );
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("DROP SCHEMA IF EXISTS export_test CASCADE");
+        jdbc.execute("CREATE SCHEMA export_test");
+        jdbc.execute("SET search_path TO export_test");
+
+        jdbc.execute("CREATE TABLE clients (id uuid PRIMARY KEY, name text, phone text)");
+        jdbc.execute("CREATE TABLE providers (id uuid PRIMARY KEY, name text)");
+        jdbc.execute("CREATE TABLE services (id uuid PRIMARY KEY, name text)");
+        jdbc.execute("""
+                CREATE TABLE appointments (
+                    id uuid PRIMARY KEY, company_id uuid, client_id uuid, provider_id uuid,
+                    status text, start_appointment timestamptz, end_appointment timestamptz)
+                """);
+        jdbc.execute("""
+                CREATE TABLE appointment_services (
+                    appointment_id uuid, service_id uuid, company_id uuid, price_service numeric(10,2))
+                """);
+
+        jdbc.execute("CREATE TABLE appointments_archive (LIKE appointments)");
+        jdbc.execute("CREATE TABLE appointment_services_archive (LIKE appointment_services)");
+
+        jdbc.execute("INSERT INTO clients VALUES ('00000000-0000-0000-0000-00000000000a', 'Cliente, \"Teste\"', '11999999999')");
+        jdbc.execute("INSERT INTO providers VALUES ('00000000-0000-0000-0000-00000000000b', 'Prestador')");
+        jdbc.execute("INSERT INTO services VALUES ('00000000-0000-0000-0000-00000000000c', 'Corte')");
+        jdbc.update("""
+                INSERT INTO appointments
+                SELECT md5(g::text)::uuid, ?, '00000000-0000-0000-0000-00000000000a',
+                       '00000000-0000-0000-0000-00000000000b', 'COMPLETED',
+                       timestamptz '2024-01-01 00:00:00+00' + g * interval '1 minute',
+                       timestamptz '2024-01-01 00:30:00+00' + g * interval '1 minute'
+                FROM generate_series(1, ?) g
+                """, COMPANY_ID, ROWS);
+        jdbc.update("""
+                INSERT INTO appointment_services
+                SELECT id, '00000000-0000-0000-0000-00000000000c', company_id, 49.90 FROM appointments
+                """);
+        jdbc.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void cleanup() {
+        jdbc.execute("DROP SCHEMA IF EXISTS export_test CASCADE");
+        dataSource.destroy();
+    }
+
+    @Test
+    void csvExportKeepsHeapFlat() throws Exception {
+        assertFlatHeap(AppointmentExportService.Format.CSV);
+    }
+
+    @Test
+    void ndjsonExportKeepsHeapFlat() throws Exception {
+        assertFlatHeap(AppointmentExportService.Format.NDJSON);
+    }
+
+    @Test
+    void periodAndTimestampsUseSaoPauloTime() throws Exception {
+        AppointmentExportService service = new AppointmentExportService(dataSource, 500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 2024-01-01 00:01Z..00:04Z são 2023-12-31 21:01..21:04 em São Paulo (UTC-3)
+        long rows = service.export(
+                COMPANY_ID,
+                LocalDateTime.of(2023, 12, 31, 21, 0),
+                LocalDateTime.of(2023, 12, 31, 21, 5),
+                AppointmentExportService.Format.CSV,
+                out
+        );
+
+        assertEquals(4, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[1].contains(",2023-12-31T21:01,2023-12-31T21:31,"), lines[1]);
+    }
+
+    private void assertFlatHeap(AppointmentExportService.Format format) throws Exception {
+        AppointmentExportService service = new AppointmentExportService(dataSource, 500);
+        long baseline = retainedHeap();
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+
+        long rows = service.export(
+                COMPANY_ID,
+                LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2030, 1, 1, 0, 0),
+                format,
+                out
+        );
+
+        assertEquals(ROWS, rows);
+        assertTrue(out.samples > 5, "Poucas amostras de heap: " + out.samples);
+        assertTrue(out.maxRetained - baseline < MAX_RETAINED_GROWTH_BYTES,
+                String.format("Heap retido cresceu %d bytes durante a exportação %s",
+                        out.maxRetained - baseline, format));
+    }
+
+    private static long retainedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Descarta os bytes e mede o heap retido (após GC) a cada 2 MB escritos.
+     */
+    private static class HeapSamplingOutputStream extends OutputStream {
+        private static final long SAMPLE_EVERY_BYTES = 2L * 1024 * 1024;
+
+        private long written;
+        private long nextSample = SAMPLE_EVERY_BYTES;
+        private long maxRetained;
+        private int samples;
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int len) {
+            written += len;
+            if (written >= nextSample) {
+                nextSample += SAMPLE_EVERY_BYTES;
+                maxRetained = Math.max(maxRetained, retainedHeap());
+                samples++;
+            }
+        }
+    }
+}
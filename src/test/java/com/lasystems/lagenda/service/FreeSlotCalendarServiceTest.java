@@ -0,0 +1,144 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.cache.ClosureCalendar;
+import com.lasystems.lagenda.cache.CompanySchedule;
+import com.lasystems.lagenda.cache.FreeSlotCalendar;
+import com.lasystems.lagenda.dtos.appointments.BusyIntervalDto;
+import com.lasystems.lagenda.models.BusinessHour;
+import com.lasystems.lagenda.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Carga, uso e atualização incremental do calendário de horários livres, com o repositório
+ * simulado: depois de cada mudança o calendário deve responder como uma carga nova do banco.
+ */
+class FreeSlotCalendarServiceTest {
+
+    private static final UUID COMPANY = UUID.fromString("00000000-0000-0000-0000-0000000000c2");
+    private static final int HORIZON_DAYS = 7;
+    private static final int DURATION = 60;
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final CompanyScheduleService companyScheduleService = mock(CompanyScheduleService.class);
+    private final List<BusyIntervalDto> database = new ArrayList<>();
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void openEveryDay() {
+        List<BusinessHour> hours = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            BusinessHour hour = new BusinessHour();
+            hour.setDayOfWeek(day);
+            hour.setStartTime(LocalTime.of(8, 0));
+            hour.setEndTime(LocalTime.of(18, 0));
+            hours.add(hour);
+        }
+        when(companyScheduleService.getSchedule(COMPANY))
+                .thenReturn(CompanySchedule.compile(COMPANY, hours, ClosureCalendar.EMPTY));
+        when(appointmentRepository.findBusyIntervals(eq(COMPANY), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> List.copyOf(database));
+    }
+
+    @Test
+    void loadsTheHorizonOnce() {
+        FreeSlotCalendarService service = service(Duration.ofMinutes(10));
+
+        assertTrue(service.findUsable(COMPANY, today, today.plusDays(HORIZON_DAYS - 1)).isPresent());
+        assertTrue(service.findUsable(COMPANY, today, today).isPresent());
+
+        verify(appointmentRepository, times(1)).findBusyIntervals(
+                COMPANY, today.atStartOfDay(), today.plusDays(HORIZON_DAYS).atStartOfDay());
+    }
+
+    @Test
+    void datesOutsideTheHorizonUseLiveSearch() {
+        FreeSlotCalendarService service = service(Duration.ofMinutes(10));
+
+        assertFalse(service.findUsable(COMPANY, today, today.plusDays(HORIZON_DAYS)).isPresent());
+        assertFalse(service.findUsable(COMPANY, today.minusDays(1), today).isPresent());
+    }
+
+    @Test
+    void staleCalendarIsDiscarded() {
+        FreeSlotCalendarService service = service(Duration.ofSeconds(-1));
+
+        assertFalse(service.findUsable(COMPANY, today, today).isPresent());
+        assertFalse(service.findUsable(COMPANY, today, today).isPresent());
+
+        verify(appointmentRepository, times(2)).findBusyIntervals(eq(COMPANY), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void incrementalChangesMatchAFreshLoad() {
+        FreeSlotCalendarService service = service(Duration.ofMinutes(10));
+        LocalDate day = today.plusDays(2);
+        FreeSlotCalendar before = usable(service);
+        before.freeSlots(day, DURATION); // materializa o dia antes das mudanças
+
+        BusyIntervalDto booked = busy(day.atTime(10, 0), day.atTime(11, 30));
+        database.add(booked);
+        service.applyBusy(COMPANY, booked);
+        assertSameSlotsAsFreshLoad(service, day);
+
+        BusyIntervalDto moved = new BusyIntervalDto(booked.appointmentId(), booked.providerId(),
+                day.plusDays(1).atTime(9, 0), day.plusDays(1).atTime(10, 0));
+        database.set(0, moved);
+        service.applyBusy(COMPANY, moved);
+        assertSameSlotsAsFreshLoad(service, day);
+        assertSameSlotsAsFreshLoad(service, day.plusDays(1));
+
+        database.clear();
+        service.applyReleased(COMPANY, moved.appointmentId());
+        assertSameSlotsAsFreshLoad(service, day.plusDays(1));
+        assertEquals(before.freeSlots(day.plusDays(1), DURATION), usable(service).freeSlots(day.plusDays(1), DURATION));
+    }
+
+    @Test
+    void changesWithoutLoadedCalendarAreIgnored() {
+        FreeSlotCalendarService service = service(Duration.ofMinutes(10));
+
+        service.applyBusy(COMPANY, busy(today.atTime(9, 0), today.atTime(10, 0)));
+        service.applyReleased(COMPANY, UUID.randomUUID());
+
+        verify(appointmentRepository, times(0)).findBusyIntervals(eq(COMPANY), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    private void assertSameSlotsAsFreshLoad(FreeSlotCalendarService service, LocalDate day) {
+        FreeSlotCalendar fresh = service.load(COMPANY);
+        assertEquals(fresh.freeSlots(day, DURATION), usable(service).freeSlots(day, DURATION), () -> "dia " + day);
+    }
+
+    private FreeSlotCalendar usable(FreeSlotCalendarService service) {
+        return service.findUsable(COMPANY, today, today.plusDays(HORIZON_DAYS - 1)).orElseThrow();
+    }
+
+    private FreeSlotCalendarService service(Duration maxStaleness) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(FreeSlotCalendarService.CACHE_NAME);
+        return new FreeSlotCalendarService(appointmentRepository, companyScheduleService, cacheManager,
+                HORIZON_DAYS, maxStaleness);
+    }
+
+    private static BusyIntervalDto busy(LocalDateTime start, LocalDateTime end) {
+        return new BusyIntervalDto(UUID.randomUUID(), UUID.randomUUID(), start, end);
+    }
+}
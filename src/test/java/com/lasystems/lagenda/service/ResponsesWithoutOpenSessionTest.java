@@ -0,0 +1,127 @@
+package com.lasystems.lagenda.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lasystems.lagenda.dtos.CompanyDto;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Respostas que os controllers serializam depois da transação do service, sem
+ * open-session-in-view: nada pode depender de lazy loading fora do service.
+ * <p>
+ * Requer LAGENDA_TEST_DB_URL, LAGENDA_TEST_DB_USER e LAGENDA_TEST_DB_PASSWORD.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.schemas=" + ResponsesWithoutOpenSessionTest.SCHEMA,
+        "spring.flyway.default-schema=" + ResponsesWithoutOpenSessionTest.SCHEMA,
+        "spring.datasource.hikari.schema=" + ResponsesWithoutOpenSessionTest.SCHEMA,
+        "n8n.google.calendar.webhook.url=http://localhost/webhook",
+        "jwt.secret=test",
+        "bootstrap.secret=test",
+        "bootstrap.enabled=false",
+        "cors.allowed.origins=http://localhost"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_DB_URL", matches = ".+")
+class ResponsesWithoutOpenSessionTest {
+
+    static final String SCHEMA = "responses_test";
+
+    private static final UUID COMPANY_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final String PHONE = "5511999990000";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClientService clientService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        String url = System.getenv("LAGENDA_TEST_DB_URL");
+        String user = System.getenv("LAGENDA_TEST_DB_USER");
+        String password = System.getenv("LAGENDA_TEST_DB_PASSWORD");
+
+        // Schema limpo a cada execução: o Flyway recria tudo a partir das migrações
+        SingleConnectionDataSource admin = new SingleConnectionDataSource(url, user, password, false);
+        try {
+            new JdbcTemplate(admin).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } finally {
+            admin.destroy();
+        }
+
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> user);
+        registry.add("spring.datasource.password", () -> password);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO companies (id, name, category) VALUES (?, 'Barbearia', 'BARBER')", COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO specialties (id, name, company_id, description)
+                VALUES ('00000000-0000-0000-0000-0000000000a1', 'Cabelo', ?, 'Cortes')
+                """, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO providers (id, company_id, name, calendar_id, phone, active)
+                VALUES ('00000000-0000-0000-0000-0000000000b1', ?, 'Prestador', 'calendar-1', '5511988880000', true)
+                """, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO services (id, name, price, company_id, duration_minutes)
+                VALUES ('00000000-0000-0000-0000-0000000000c1', 'Corte', 50, ?, 30)
+                """, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO clients (id, company_id, name, phone)
+                VALUES ('00000000-0000-0000-0000-0000000000d1', ?, 'Cliente', ?)
+                """, COMPANY_ID, PHONE);
+        jdbcTemplate.queryForObject("SELECT appointments_ensure_partitions(now(), 2)", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO appointments (id, company_id, client_id, provider_id, status,
+                                          start_appointment, end_appointment)
+                VALUES ('00000000-0000-0000-0000-0000000000e1', ?, '00000000-0000-0000-0000-0000000000d1',
+                        '00000000-0000-0000-0000-0000000000b1', 'SCHEDULED',
+                        date_trunc('hour', now()) + interval '1 day',
+                        date_trunc('hour', now()) + interval '1 day 30 minutes')
+                """, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO appointment_services (appointment_id, service_id, company_id, price_service)
+                VALUES ('00000000-0000-0000-0000-0000000000e1', '00000000-0000-0000-0000-0000000000c1', ?, 50)
+                """, COMPANY_ID);
+    }
+
+    @Test
+    void clientByPhoneIncludesAppointmentServices() {
+        JsonNode client = clientService.getByPhone(PHONE).orElseThrow();
+
+        JsonNode services = client.path("appointments").path(0).path("services");
+        assertEquals(1, services.size());
+        assertEquals("Corte", services.path(0).path("name").asText());
+    }
+
+    @Test
+    void companyIncludesSpecialtiesAndProviders() {
+        CompanyDto company = companyService.getById(COMPANY_ID.toString()).orElseThrow();
+
+        JsonNode json = objectMapper.valueToTree(company);
+        assertEquals("Cortes", json.path("specialties").path(0).path("description").asText());
+        assertEquals("calendar-1", json.path("providers").path(0).path("calendarId").asText());
+    }
+}
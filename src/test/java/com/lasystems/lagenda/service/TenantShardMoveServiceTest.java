@@ -0,0 +1,233 @@
+package com.lasystems.lagenda.service;
+
+import com.lasystems.lagenda.config.TenantContext;
+import com.lasystems.lagenda.config.TenantShardMap;
+import com.lasystems.lagenda.config.TenantShardPools;
+import com.lasystems.lagenda.dtos.TenantShardMoveResponse;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Movimentação de uma empresa entre dois bancos PostgreSQL locais: cerca na origem,
+ * cópia para o destino, remoção da origem e o caminho de volta.
+ * <p>
+ * Requer LAGENDA_TEST_DB_URL (shard padrão) e LAGENDA_TEST_SHARD_URL (shard "big1"), com
+ * usuário e senha em LAGENDA_TEST_DB_USER e LAGENDA_TEST_DB_PASSWORD, os mesmos nos dois.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.schemas=" + TenantShardMoveServiceTest.SCHEMA,
+        "spring.flyway.default-schema=" + TenantShardMoveServiceTest.SCHEMA,
+        "spring.datasource.hikari.schema=" + TenantShardMoveServiceTest.SCHEMA,
+        // Esperas de propagação do mapa curtas: recarga a cada 100 ms, sem folga
+        "datasource.shards.refresh-millis=100",
+        "datasource.shards.move-drain=0s",
+        "n8n.google.calendar.webhook.url=http://localhost/webhook",
+        "jwt.secret=test",
+        "bootstrap.secret=test",
+        "bootstrap.enabled=false",
+        "cors.allowed.origins=http://localhost"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_DB_URL", matches = ".+")
+@EnabledIfEnvironmentVariable(named = "LAGENDA_TEST_SHARD_URL", matches = ".+")
+class TenantShardMoveServiceTest {
+
+    static final String SCHEMA = "shard_move_test";
+
+    private static final String SHARD = "big1";
+    private static final UUID COMPANY_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID CLIENT_ID = UUID.fromString("00000000-0000-0000-0000-0000000000d1");
+    private static final Duration MOVE_TIMEOUT = Duration.ofSeconds(60);
+
+    @Autowired
+    private TenantShardMoveService moveService;
+
+    @Autowired
+    private TenantShardMap shardMap;
+
+    @Autowired
+    private TenantShardPools pools;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void datasources(DynamicPropertyRegistry registry) {
+        String url = System.getenv("LAGENDA_TEST_DB_URL");
+        String shardUrl = System.getenv("LAGENDA_TEST_SHARD_URL");
+        String user = System.getenv("LAGENDA_TEST_DB_USER");
+        String password = System.getenv("LAGENDA_TEST_DB_PASSWORD");
+
+        // Schema limpo nos dois bancos; o do shard precisa existir para o Flyway do pool
+        resetSchema(url, false);
+        resetSchema(shardUrl, true);
+
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> user);
+        registry.add("spring.datasource.password", () -> password);
+        registry.add("datasource.shards.pools." + SHARD + ".url",
+                () -> shardUrl + (shardUrl.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO companies (id, name, category) VALUES (?, 'Barbearia', 'BARBER')", COMPANY_ID);
+        jdbcTemplate.update("INSERT INTO plans (id, name, price) VALUES ('basic', 'Básico', 10)");
+        jdbcTemplate.update("INSERT INTO subscriptions (company_id, plan_id, status) VALUES (?, 'basic', 'ACTIVE')",
+                COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO providers (id, company_id, name, calendar_id, active)
+                VALUES ('00000000-0000-0000-0000-0000000000b1', ?, 'Prestador', 'calendar-1', true)
+                """, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO services (id, name, price, company_id, duration_minutes)
+                VALUES ('00000000-0000-0000-0000-0000000000c1', 'Corte', 50, ?, 30)
+                """, COMPANY_ID);
+        jdbcTemplate.update("INSERT INTO clients (id, company_id, name, phone) VALUES (?, ?, 'Cliente', '5511999990000')",
+                CLIENT_ID, COMPANY_ID);
+        jdbcTemplate.update("""
+                INSERT INTO business_hours (company_id, day_of_week, start_time, end_time)
+                VALUES (?, 1, '08:00', '18:00')
+                """, COMPANY_ID);
+        jdbcTemplate.queryForObject("SELECT appointments_ensure_partitions(now(), 2)", Integer.class);
+        jdbcTemplate.update("""
+                INSERT INTO appointments (id, company_id, client_id, provider_id, status,
+                                          start_appointment, end_appointment)
+                VALUES ('00000000-0000-0000-0000-0000000000e1', ?, ?, '00000000-0000-0000-0000-0000000000b1',
+                        'SCHEDULED', date_trunc('hour', now()) + interval '1 day',
+                        date_trunc('hour', now()) + interval '1 day 30 minutes')
+                """, COMPANY_ID, CLIENT_ID);
+        jdbcTemplate.update("""
+                INSERT INTO appointment_services (appointment_id, service_id, company_id, price_service)
+                VALUES ('00000000-0000-0000-0000-0000000000e1', '00000000-0000-0000-0000-0000000000c1', ?, 50)
+                """, COMPANY_ID);
+    }
+
+    @AfterAll
+    void dropSchemas() {
+        resetSchema(System.getenv("LAGENDA_TEST_SHARD_URL"), false);
+    }
+
+    @Test
+    void movesCompanyToShardAndBack() {
+        JdbcTemplate primary = jdbcTemplate;
+        JdbcTemplate big1 = new JdbcTemplate(pools.get(SHARD));
+
+        TenantShardMoveResponse toShard = moveAndWait(SHARD);
+        assertEquals("COMPLETED", toShard.status(), toShard.toString());
+        assertNull(toShard.error());
+        assertEquals(1L, toShard.copiedRows().get("appointments"));
+        assertEquals(1L, toShard.copiedRows().get("appointment_services"));
+
+        // Dados da empresa no destino, fora da origem; plano de controle fica no padrão
+        assertEquals(1, count(big1, "appointments"));
+        assertEquals(1, count(big1, "appointment_services"));
+        assertEquals(1, count(big1, "clients"));
+        assertEquals(0, count(primary, "appointments"));
+        assertEquals(0, count(primary, "clients"));
+        assertEquals(1, count(primary, "subscriptions"));
+        assertEquals(0, count(big1, "subscriptions"));
+        assertEquals(1, big1.queryForObject("SELECT count(*) FROM companies WHERE id = ?", Integer.class, COMPANY_ID));
+        assertEquals(new TenantShardMap.Assignment(SHARD, TenantShardMap.State.ACTIVE), shardMap.assignmentOf(COMPANY_ID));
+
+        // Instância com o mapa antigo: o banco de origem recusa a escrita
+        assertFenced(primary);
+
+        // O roteamento da empresa já lê do destino
+        assertEquals(1, TenantContext.callAsTenant(COMPANY_ID, () -> count(jdbcTemplate, "appointments")));
+
+        TenantShardMoveResponse back = moveAndWait(TenantShardMap.DEFAULT_SHARD);
+        assertEquals("COMPLETED", back.status(), back.toString());
+
+        assertEquals(1, count(primary, "appointments"));
+        assertEquals(1, count(primary, "appointment_services"));
+        assertEquals(0, count(big1, "appointments"));
+        assertEquals(0, primary.queryForObject(
+                "SELECT count(*) FROM tenant_write_fences WHERE company_id = ?", Integer.class, COMPANY_ID));
+        assertFenced(big1);
+        assertEquals(new TenantShardMap.Assignment(TenantShardMap.DEFAULT_SHARD, TenantShardMap.State.ACTIVE),
+                shardMap.assignmentOf(COMPANY_ID));
+
+        // Sem cerca no banco de volta, a empresa grava normalmente
+        primary.update("UPDATE clients SET name = 'Cliente 2' WHERE id = ?", CLIENT_ID);
+    }
+
+    @Test
+    void refusesMoveToUnknownShard() {
+        assertThrows(IllegalArgumentException.class, () -> moveService.start(COMPANY_ID, "missing"));
+        assertFalse("RUNNING".equals(moveService.getStatus().status()));
+    }
+
+    private TenantShardMoveResponse moveAndWait(String target) {
+        assertTrue(moveService.start(COMPANY_ID, target));
+        // Uma movimentação por vez
+        assertFalse(moveService.start(COMPANY_ID, target));
+
+        long deadline = System.nanoTime() + MOVE_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            TenantShardMoveResponse status = moveService.getStatus();
+            if (!"RUNNING".equals(status.status())) {
+                return status;
+            }
+            sleep();
+        }
+        return fail("Movimentação para " + target + " não terminou em " + MOVE_TIMEOUT);
+    }
+
+    private static void assertFenced(JdbcTemplate shard) {
+        DataAccessException refused = assertThrows(DataAccessException.class, () -> shard.update(
+                "INSERT INTO clients (company_id, name, phone) VALUES (?, 'Escrita atrasada', '0')", COMPANY_ID));
+        assertTrue(refused.getMostSpecificCause() instanceof SQLException sql && "55000".equals(sql.getSQLState()),
+                refused.getMessage());
+    }
+
+    private static int count(JdbcTemplate jdbc, String table) {
+        Integer count = jdbc.queryForObject(
+                "SELECT count(*) FROM " + table + " WHERE company_id = ?", Integer.class, COMPANY_ID);
+        return count != null ? count : 0;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void resetSchema(String url, boolean create) {
+        SingleConnectionDataSource admin = new SingleConnectionDataSource(
+                url, System.getenv("LAGENDA_TEST_DB_USER"), System.getenv("LAGENDA_TEST_DB_PASSWORD"), false);
+        try {
+            JdbcTemplate jdbc = new JdbcTemplate(admin);
+            jdbc.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            if (create) {
+                jdbc.execute("CREATE SCHEMA " + SCHEMA);
+            }
+        } finally {
+            admin.destroy();
+        }
+    }
+}